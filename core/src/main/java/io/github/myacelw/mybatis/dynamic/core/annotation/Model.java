@@ -49,4 +49,14 @@ public @interface Model {
      */
     boolean disableTableCreateAndAlter() default false;
 
+    /**
+     * 按ID查询的实体缓存条目数，大于0时开启缓存
+     */
+    int entityCacheSize() default 0;
+
+    /**
+     * 实体缓存过期秒数
+     */
+    int entityCacheTtlSeconds() default 300;
+
 }
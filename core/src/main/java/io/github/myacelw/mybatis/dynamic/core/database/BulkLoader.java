@@ -0,0 +1,27 @@
+package io.github.myacelw.mybatis.dynamic.core.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 数据库批量加载器，如 PostgreSQL 的 COPY，用于大批量数据写入。
+ * 行数据为经类型处理器转换后的JDBC参数值，按需逐行读取，不要求一次加载到内存。
+ *
+ * @author liuwei
+ */
+public interface BulkLoader {
+
+    /**
+     * 加载数据
+     *
+     * @param connection 数据库连接，提交由调用方负责
+     * @param table      表名
+     * @param columns    列名
+     * @param rows       各行值，与列名一一对应
+     * @return 加载行数
+     */
+    long load(Connection connection, String table, List<String> columns, Iterator<Object[]> rows) throws SQLException;
+
+}
@@ -15,6 +15,8 @@ public interface DataBaseMetaDataHelper {
 
     String getDatabaseProductName();
 
+    String getDatabaseProductVersion();
+
     String unwrapIdentifier(String identifier);
 
     String getWrappedIdentifierInMeta(String identifier);
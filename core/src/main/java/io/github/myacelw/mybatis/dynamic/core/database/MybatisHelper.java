@@ -8,8 +8,10 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Mybatis语句执行帮助类
@@ -93,8 +95,53 @@ public interface MybatisHelper {
 
     boolean batchInsert(String sql, List<Object> contexts, int batchSize, KeyGeneratorMode keyGeneratorMode, String keyGeneratorColumn, String keyGeneratorSequenceName);
 
+    /**
+     * 批量插入，按输入顺序执行，相邻的相同SQL合并为同一个JDBC批次。
+     * 默认实现忽略会话及分组参数，使用独立会话执行，不加入调用方事务
+     *
+     * @param sqlSession 调用方会话，开启加入调用方事务时复用其连接，为空时使用独立会话
+     * @param groupBySql 是否按替换 ${} 后的SQL文本对上下文分组执行，使每个JDBC批次只包含同一SQL；分组会改变插入顺序及自增主键的分配顺序
+     */
+    default boolean batchInsert(SqlSession sqlSession, String sql, List<Object> contexts, int batchSize, KeyGeneratorMode keyGeneratorMode, String keyGeneratorColumn, String keyGeneratorSequenceName, boolean groupBySql) {
+        return batchInsert(sql, contexts, batchSize, keyGeneratorMode, keyGeneratorColumn, keyGeneratorSequenceName);
+    }
+
+    /**
+     * 多行插入，每个语句项的上下文为该语句各行上下文组成的列表，SQL中以 list[i] 引用各行。
+     * 自增主键按行顺序写回各行上下文的 keyGeneratorColumn 属性。
+     * 默认实现不取回主键时按批量执行多条语句处理，需要取回自增主键时不支持。
+     *
+     * @param sqlSession 调用方会话，开启加入调用方事务时复用其连接，为空时使用独立会话
+     * @param items      多行插入语句列表
+     * @param batchSize  每提交一次包含的语句数
+     */
+    default boolean batchInsertRows(SqlSession sqlSession, List<BatchItem> items, int batchSize, KeyGeneratorMode keyGeneratorMode, String keyGeneratorColumn) {
+        if (keyGeneratorMode == KeyGeneratorMode.AUTO_INCREMENT) {
+            throw new UnsupportedOperationException(getClass().getName() + " does not support multi-row insert with generated keys");
+        }
+        return batchUpdates(sqlSession, items, batchSize);
+    }
+
     boolean batchUpdate(String sql, List<Object> contexts, int batchSize);
 
+    /**
+     * 批量更新。
+     * 默认实现忽略会话及分组参数，使用独立会话执行，不加入调用方事务
+     *
+     * @param sqlSession 调用方会话，开启加入调用方事务时复用其连接，为空时使用独立会话
+     * @param groupBySql 是否按替换 ${} 后的SQL文本对上下文分组执行，使每个JDBC批次只包含同一SQL；分组会改变执行顺序
+     */
+    default boolean batchUpdate(SqlSession sqlSession, String sql, List<Object> contexts, int batchSize, boolean groupBySql) {
+        return batchUpdate(sql, contexts, batchSize);
+    }
+
+    /**
+     * 实际发送的JDBC批次数，每个批次对应一个 Statement 的一次 executeBatch；不支持统计时返回-1
+     */
+    default long getPhysicalBatchCount() {
+        return -1;
+    }
+
     @Data
     @AllArgsConstructor
     class BatchItem {
@@ -104,6 +151,36 @@ public interface MybatisHelper {
 
     boolean batchUpdates(List<BatchItem> items, int batchSize);
 
+    /**
+     * 批量执行多条更新语句。
+     * 默认实现忽略会话参数，使用独立会话执行，不加入调用方事务
+     *
+     * @param sqlSession 调用方会话，开启加入调用方事务时复用其连接，为空时使用独立会话
+     */
+    default boolean batchUpdates(SqlSession sqlSession, List<BatchItem> items, int batchSize) {
+        return batchUpdates(items, batchSize);
+    }
+
+    /**
+     * 在独立会话的事务中执行操作，成功后提交，异常时回滚。
+     * 操作中以该会话调用的批量方法总是加入该事务，不会分批提交。
+     * 默认实现不支持，需由实现类提供；批量写入的并行分区模式依赖该方法。
+     */
+    default <T> T executeInTransaction(Function<SqlSession, T> action) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support executeInTransaction");
+    }
+
+    /**
+     * 使用批量加载器写入数据，各列值按默认类型处理器的规则转换为JDBC值，行数据按需逐行读取；不支持指定了类型处理器的列。
+     * 默认实现不支持，需由实现类提供。
+     *
+     * @param sqlSession 调用方会话，开启加入调用方事务时复用其连接，为空时使用独立会话并在加载后提交
+     * @return 加载行数
+     */
+    default long bulkLoad(SqlSession sqlSession, BulkLoader bulkLoader, String table, List<String> columns, Iterator<Object[]> rows) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support bulk load");
+    }
+
     int update(SqlSession sqlSession, String sql, Object context);
 
     int delete(SqlSession sqlSession, String sql, Object context);
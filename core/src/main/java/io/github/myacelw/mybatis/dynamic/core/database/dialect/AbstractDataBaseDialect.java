@@ -269,4 +269,73 @@ public abstract class AbstractDataBaseDialect implements DataBaseDialect {
     protected String getDataTypeDefinition(Column c) {
         return c.getDataTypeDefinition();
     }
+
+    /**
+     * 生成 MERGE INTO ... USING 语句，数据源别名为 s，各列名与插入列相同
+     *
+     * @param source 数据源，如 (VALUES (...), (...)) s (c1, c2)
+     */
+    protected static String getMergeSql(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, String source) {
+        StringBuilder sb = new StringBuilder("MERGE INTO ").append(table).append(" t USING ").append(source).append(" ON (");
+        for (int i = 0; i < keyColumns.size(); i++) {
+            if (i > 0) {
+                sb.append(" AND ");
+            }
+            sb.append("t.").append(keyColumns.get(i)).append(" = s.").append(keyColumns.get(i));
+        }
+        sb.append(")");
+        if (!updateColumns.isEmpty()) {
+            sb.append(" WHEN MATCHED THEN UPDATE SET ");
+            for (int i = 0; i < updateColumns.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(updateColumns.get(i)).append(" = s.").append(updateColumns.get(i));
+            }
+        }
+        sb.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("s.").append(columns.get(i));
+        }
+        return sb.append(")").toString();
+    }
+
+    protected static List<String> joinRows(List<List<String>> rows) {
+        List<String> result = new ArrayList<>(rows.size());
+        for (List<String> row : rows) {
+            result.add(String.join(",", row));
+        }
+        return result;
+    }
+
+    /**
+     * 生成与 VALUES 派生表半连接的 IN 条件
+     *
+     * @param rowPrefix   VALUES 行前缀，如 "(" 或 "ROW("
+     * @param valueColumn VALUES 派生表的默认列名
+     */
+    protected static String getValuesInListSql(String column, boolean not, List<String> placeholders, String rowPrefix, String valueColumn) {
+        StringBuilder sb = new StringBuilder(column).append(not ? " NOT IN" : " IN").append(" (SELECT ").append(valueColumn).append(" FROM (VALUES ");
+        for (int i = 0; i < placeholders.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(rowPrefix).append(placeholders.get(i)).append(")");
+        }
+        return sb.append(") AS v_in)").toString();
+    }
+
+    /**
+     * 生成与 UNION ALL 派生表半连接的 IN 条件，用于不支持 VALUES 语句的数据库
+     */
+    protected static String getUnionAllInListSql(String column, boolean not, List<String> placeholders) {
+        StringBuilder sb = new StringBuilder(column).append(not ? " NOT IN" : " IN").append(" (SELECT v FROM (");
+        for (int i = 0; i < placeholders.size(); i++) {
+            sb.append(i == 0 ? "SELECT " + placeholders.get(i) + " AS v FROM DUAL" : " UNION ALL SELECT " + placeholders.get(i) + " FROM DUAL");
+        }
+        return sb.append(") v_in)").toString();
+    }
 }
@@ -1,5 +1,6 @@
 package io.github.myacelw.mybatis.dynamic.core.database.dialect;
 
+import io.github.myacelw.mybatis.dynamic.core.database.BulkLoader;
 import io.github.myacelw.mybatis.dynamic.core.metadata.table.Column;
 import io.github.myacelw.mybatis.dynamic.core.metadata.table.Table;
 import io.github.myacelw.mybatis.dynamic.core.metadata.vo.Sql;
@@ -7,6 +8,7 @@ import io.github.myacelw.mybatis.dynamic.core.metadata.vo.Sql;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 
 /**
@@ -39,6 +41,100 @@ public interface DataBaseDialect {
      */
     boolean supportSequence();
 
+    /**
+     * 是否支持以单个JDBC数组参数绑定IN条件，即 col = ANY(?)
+     */
+    default boolean supportArrayParameter() {
+        return false;
+    }
+
+    /**
+     * 得到批量加载器，如 PostgreSQL 的 COPY；不支持时返回null
+     */
+    default BulkLoader getBulkLoader() {
+        return null;
+    }
+
+    /**
+     * 生成超长 IN 列表条件SQL，值个数超过阈值时使用，例如改为与 VALUES 派生表的半连接，避免参数个数限制及优化器退化为全表扫描。
+     *
+     * @param column       列名
+     * @param not          是否为 NOT IN
+     * @param placeholders 各元素的参数占位符
+     * @return SQL片段，返回null时按普通 IN 条件生成
+     */
+    default String getLargeInListSql(String column, boolean not, List<String> placeholders) {
+        return null;
+    }
+
+    /**
+     * 生成多行插入SQL，即一条 INSERT 语句插入多行数据。
+     *
+     * @param table   表名
+     * @param columns 逗号分隔的列名
+     * @param rows    各行的值占位符，逗号分隔
+     * @return SQL，返回null时表示不支持多行插入
+     */
+    default String getMultiRowInsertSql(String table, String columns, List<String> rows) {
+        return "INSERT INTO " + table + " (" + columns + ") VALUES (" + String.join("), (", rows) + ")";
+    }
+
+    /**
+     * 生成多行插入或更新SQL，主键已存在时更新其他列。
+     * 同一条语句中的各行主键不能重复。
+     *
+     * @param table         表名
+     * @param columns       插入列
+     * @param keyColumns    主键列
+     * @param updateColumns 主键已存在时更新的列，为空时已存在的数据保持不变
+     * @param rows          各行按插入列顺序排列的值占位符
+     * @return SQL，返回null时表示不支持
+     */
+    default String getBatchUpsertSql(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, List<List<String>> rows) {
+        return null;
+    }
+
+    /**
+     * 多行插入时能否通过 getGeneratedKeys 按行顺序返回自增主键
+     */
+    default boolean supportMultiRowInsertGeneratedKeys() {
+        return supportAutoIncrement();
+    }
+
+    /**
+     * 设置数据库服务端版本，即 DatabaseMetaData.getDatabaseProductVersion()，用于按版本启用特性
+     */
+    default void setDatabaseVersion(String databaseVersion) {
+    }
+
+    /**
+     * 单条语句允许绑定的最大参数个数
+     */
+    default int getMaxParameterCount() {
+        return 32767;
+    }
+
+    /**
+     * 是否支持 COUNT(*) OVER() 等窗口函数
+     */
+    default boolean supportWindowFunction() {
+        return false;
+    }
+
+    /**
+     * 得到读取估算行数的执行计划SQL，不支持时返回null
+     */
+    default String getExplainSql(String sql) {
+        return null;
+    }
+
+    /**
+     * 从执行计划结果中读取估算行数，无法读取时返回null
+     */
+    default Long getEstimatedRows(List<Map<String, Object>> explainResult) {
+        return null;
+    }
+
     /**
      * 是否支持不同表间索引名相同
      */
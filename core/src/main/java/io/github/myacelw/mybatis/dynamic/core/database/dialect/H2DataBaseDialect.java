@@ -15,6 +15,11 @@ import java.util.Objects;
  */
 public class H2DataBaseDialect extends AbstractDataBaseDialect {
 
+    @Override
+    public boolean supportWindowFunction() {
+        return true;
+    }
+
     @Override
     public String getName() {
         return "h2";
@@ -30,6 +35,22 @@ public class H2DataBaseDialect extends AbstractDataBaseDialect {
         return true;
     }
 
+    @Override
+    public boolean supportArrayParameter() {
+        return true;
+    }
+
+    @Override
+    public String getBatchUpsertSql(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, List<List<String>> rows) {
+        String source = "(VALUES (" + String.join("), (", joinRows(rows)) + ")) s (" + String.join(", ", columns) + ")";
+        return getMergeSql(table, columns, keyColumns, updateColumns, source);
+    }
+
+    @Override
+    public String getLargeInListSql(String column, boolean not, List<String> placeholders) {
+        return getValuesInListSql(column, not, placeholders, "(", "C1");
+    }
+
     @Override
     public Sql getDropIndexSql(Table table, String indexName) {
         String sql = "DROP INDEX " + getSchemaIndexSql(table, indexName) + " ON " + getSchemaTableSql(table);
@@ -16,16 +16,131 @@ import java.util.*;
  */
 public class MysqlDataBaseDialect extends AbstractDataBaseDialect {
 
+    /**
+     * 数据库服务端版本，未设置时按不支持新版本特性处理
+     */
+    private volatile int[] version;
+
+    private volatile boolean mariaDb;
+
+    @Override
+    public void setDatabaseVersion(String databaseVersion) {
+        if (databaseVersion == null) {
+            this.version = null;
+            return;
+        }
+        this.mariaDb = databaseVersion.toLowerCase().contains("mariadb");
+        // MariaDB 经 MySQL 驱动连接时版本形如 5.5.5-10.6.12-MariaDB
+        String text = mariaDb && databaseVersion.startsWith("5.5.5-") ? databaseVersion.substring(6) : databaseVersion;
+        int[] parsed = new int[3];
+        String[] parts = text.split("[^0-9]+", 4);
+        for (int i = 0; i < 3 && i < parts.length; i++) {
+            parsed[i] = parts[i].isEmpty() ? 0 : Integer.parseInt(parts[i]);
+        }
+        this.version = parsed;
+    }
+
+    /**
+     * 服务端版本是否不低于指定版本
+     */
+    protected boolean isVersionAtLeast(int major, int minor, int patch) {
+        int[] v = this.version;
+        if (v == null) {
+            return false;
+        }
+        if (v[0] != major) {
+            return v[0] > major;
+        }
+        if (v[1] != minor) {
+            return v[1] > minor;
+        }
+        return v[2] >= patch;
+    }
+
     @Override
     public boolean supportAutoIncrement() {
         return true;
     }
 
+    /**
+     * 使用 VALUES(col) 引用插入值，兼容 MySQL 5.7 及 OceanBase
+     */
+    @Override
+    public String getBatchUpsertSql(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, List<List<String>> rows) {
+        StringBuilder sb = new StringBuilder(getMultiRowInsertSql(table, String.join(",", columns), joinRows(rows))).append(" ON DUPLICATE KEY UPDATE ");
+        if (updateColumns.isEmpty()) {
+            sb.append(keyColumns.get(0)).append(" = ").append(keyColumns.get(0));
+        }
+        for (int i = 0; i < updateColumns.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(updateColumns.get(i)).append(" = VALUES(").append(updateColumns.get(i)).append(")");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * MySQL 协议中参数个数为两字节无符号整数
+     */
+    @Override
+    public int getMaxParameterCount() {
+        return 65535;
+    }
+
     @Override
     public boolean supportSequence() {
         return false;
     }
 
+    /**
+     * MySQL 8.0 及 MariaDB 10.2 及以上支持窗口函数
+     */
+    @Override
+    public boolean supportWindowFunction() {
+        return mariaDb ? isVersionAtLeast(10, 2, 0) : isVersionAtLeast(8, 0, 0);
+    }
+
+    @Override
+    public String getExplainSql(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    /**
+     * 读取执行计划首行（驱动表）的 rows 与 filtered 估算值
+     */
+    @Override
+    public Long getEstimatedRows(List<Map<String, Object>> explainResult) {
+        if (explainResult == null || explainResult.isEmpty() || explainResult.get(0) == null) {
+            return null;
+        }
+        Object rows = null;
+        Object filtered = null;
+        for (Map.Entry<String, Object> entry : explainResult.get(0).entrySet()) {
+            if ("rows".equalsIgnoreCase(entry.getKey())) {
+                rows = entry.getValue();
+            } else if ("filtered".equalsIgnoreCase(entry.getKey())) {
+                filtered = entry.getValue();
+            }
+        }
+        if (!(rows instanceof Number)) {
+            return null;
+        }
+        double percent = filtered instanceof Number ? ((Number) filtered).doubleValue() : 100;
+        return Math.round(((Number) rows).doubleValue() * percent / 100);
+    }
+
+    /**
+     * MySQL 8.0.19 及以上使用 VALUES 语句，更低版本及 MariaDB 使用 UNION ALL 派生表
+     */
+    @Override
+    public String getLargeInListSql(String column, boolean not, List<String> placeholders) {
+        if (!mariaDb && isVersionAtLeast(8, 0, 19)) {
+            return getValuesInListSql(column, not, placeholders, "ROW(", "column_0");
+        }
+        return getUnionAllInListSql(column, not, placeholders);
+    }
+
     public boolean supportSameIndexNameInTable() {
         return false;
     }
@@ -34,6 +34,22 @@ public class OceanBaseDataBaseDialect extends MysqlDataBaseDialect {
         return 50;
     }
 
+    /**
+     * 不依赖 VALUES 语句，使用 UNION ALL 派生表
+     */
+    @Override
+    public String getLargeInListSql(String column, boolean not, List<String> placeholders) {
+        return getUnionAllInListSql(column, not, placeholders);
+    }
+
+    /**
+     * OceanBase 报告的版本号为兼容的 MySQL 版本，窗口函数支持与其无关
+     */
+    @Override
+    public boolean supportWindowFunction() {
+        return true;
+    }
+
     @Override
     public List<Sql> getCreateTableSql(Table table) {
         String tableGroup = table.getExtPropertyValueForString(EXT_PROPERTY_TABLE_GROUP);
@@ -16,6 +16,11 @@ import java.util.List;
 public class OracleDataBaseDialect extends AbstractDataBaseDialect {
 
 
+    @Override
+    public boolean supportWindowFunction() {
+        return true;
+    }
+
     @Override
     public String getName() {
         return "oracle";
@@ -31,6 +36,57 @@ public class OracleDataBaseDialect extends AbstractDataBaseDialect {
         return true;
     }
 
+    /**
+     * 以 UNION ALL 拼接的 DUAL 查询作为 MERGE 数据源
+     */
+    @Override
+    public String getBatchUpsertSql(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, List<List<String>> rows) {
+        StringBuilder source = new StringBuilder("(");
+        for (int i = 0; i < rows.size(); i++) {
+            List<String> row = rows.get(i);
+            source.append(i == 0 ? "SELECT " : " UNION ALL SELECT ");
+            for (int j = 0; j < row.size(); j++) {
+                if (j > 0) {
+                    source.append(", ");
+                }
+                source.append(row.get(j));
+                if (i == 0) {
+                    source.append(" ").append(columns.get(j));
+                }
+            }
+            source.append(" FROM DUAL");
+        }
+        source.append(") s");
+        return getMergeSql(table, columns, keyColumns, updateColumns, source.toString());
+    }
+
+    /**
+     * Oracle 不支持 VALUES 多行语法，使用 INSERT ALL
+     */
+    @Override
+    public String getMultiRowInsertSql(String table, String columns, List<String> rows) {
+        StringBuilder sb = new StringBuilder("INSERT ALL");
+        for (String row : rows) {
+            sb.append(" INTO ").append(table).append(" (").append(columns).append(") VALUES (").append(row).append(")");
+        }
+        return sb.append(" SELECT 1 FROM DUAL").toString();
+    }
+
+    /**
+     * Oracle 单个 IN 列表最多1000个元素，拆分为多个 IN 条件
+     */
+    @Override
+    public String getLargeInListSql(String column, boolean not, List<String> placeholders) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < placeholders.size(); i += 1000) {
+            if (i > 0) {
+                sb.append(not ? " AND " : " OR ");
+            }
+            sb.append(column).append(not ? " NOT IN (" : " IN (").append(String.join(",", placeholders.subList(i, Math.min(i + 1000, placeholders.size())))).append(")");
+        }
+        return sb.append(")").toString();
+    }
+
     @Override
     public List<Sql> getCreateTableSql(Table table) {
         List<Sql> sqlList = new ArrayList<>();
@@ -0,0 +1,32 @@
+package io.github.myacelw.mybatis.dynamic.core.database.dialect;
+
+import io.github.myacelw.mybatis.dynamic.core.database.BulkLoader;
+import io.github.myacelw.mybatis.dynamic.core.database.impl.CsvRowReader;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * PostgreSQL COPY 批量加载器，数据以CSV格式流式写入 COPY ... FROM STDIN，需要 PostgreSQL JDBC 驱动。
+ * 仅由 PostgresqlDataBaseDialect 在驱动存在时引用，驱动为可选依赖。
+ *
+ * @author liuwei
+ */
+class PostgresqlCopyBulkLoader implements BulkLoader {
+
+    static final PostgresqlCopyBulkLoader INSTANCE = new PostgresqlCopyBulkLoader();
+
+    @Override
+    public long load(Connection connection, String table, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new CsvRowReader(null, rows));
+        } catch (IOException e) {
+            throw new SQLException("COPY into " + table + " failed", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.myacelw.mybatis.dynamic.core.database.dialect;
 
+import io.github.myacelw.mybatis.dynamic.core.database.BulkLoader;
 import io.github.myacelw.mybatis.dynamic.core.metadata.enums.IndexType;
 import io.github.myacelw.mybatis.dynamic.core.metadata.table.Column;
 import io.github.myacelw.mybatis.dynamic.core.metadata.table.Table;
@@ -10,7 +11,10 @@ import lombok.NonNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Postgresql数据库方言
@@ -20,6 +24,10 @@ import java.util.Objects;
 @Getter
 public class PostgresqlDataBaseDialect extends AbstractDataBaseDialect {
 
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile("rows=(\\d+)");
+
+    private static final boolean COPY_SUPPORTED = isClassPresent("org.postgresql.PGConnection");
+
     public PostgresqlDataBaseDialect() {
     }
 
@@ -38,6 +46,68 @@ public class PostgresqlDataBaseDialect extends AbstractDataBaseDialect {
         return true;
     }
 
+    @Override
+    public boolean supportArrayParameter() {
+        return true;
+    }
+
+    @Override
+    public boolean supportWindowFunction() {
+        return true;
+    }
+
+    @Override
+    public String getExplainSql(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    /**
+     * 读取执行计划首行（根节点）的 rows 估算值
+     */
+    @Override
+    public Long getEstimatedRows(List<Map<String, Object>> explainResult) {
+        if (explainResult == null || explainResult.isEmpty() || explainResult.get(0) == null) {
+            return null;
+        }
+        for (Object value : explainResult.get(0).values()) {
+            Matcher matcher = value == null ? null : PLAN_ROWS_PATTERN.matcher(value.toString());
+            if (matcher != null && matcher.find()) {
+                return Long.parseLong(matcher.group(1));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 类路径中没有 PostgreSQL JDBC 驱动时不支持 COPY，按普通批量插入执行
+     */
+    @Override
+    public BulkLoader getBulkLoader() {
+        return COPY_SUPPORTED ? PostgresqlCopyBulkLoader.INSTANCE : null;
+    }
+
+    @Override
+    public String getBatchUpsertSql(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, List<List<String>> rows) {
+        StringBuilder sb = new StringBuilder(getMultiRowInsertSql(table, String.join(",", columns), joinRows(rows)))
+                .append(" ON CONFLICT (").append(String.join(", ", keyColumns)).append(") DO ");
+        if (updateColumns.isEmpty()) {
+            return sb.append("NOTHING").toString();
+        }
+        sb.append("UPDATE SET ");
+        for (int i = 0; i < updateColumns.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(updateColumns.get(i)).append(" = EXCLUDED.").append(updateColumns.get(i));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getLargeInListSql(String column, boolean not, List<String> placeholders) {
+        return getValuesInListSql(column, not, placeholders, "(", "column1");
+    }
+
     @Override
     public Sql getRenameTableSql(Table oldTable, Table newTable) {
         String sql = "ALTER TABLE ";
@@ -137,4 +207,12 @@ public class PostgresqlDataBaseDialect extends AbstractDataBaseDialect {
         return super.getAddIndexSql(table, column, indexName);
     }
 
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, PostgresqlDataBaseDialect.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package io.github.myacelw.mybatis.dynamic.core.database.impl;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 将行数据按需编码为CSV文本的读取器，格式与 PostgreSQL COPY 的 CSV 格式一致：
+ * null 为空字段，字符串总是加引号以区分空字符串，二进制以 \x 十六进制表示。
+ *
+ * @author liuwei
+ */
+public class CsvRowReader extends Reader {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Iterator<Object[]> rows;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private int position;
+
+    private long rowCount;
+
+    /**
+     * @param header 表头列名，为空时不输出表头
+     * @param rows   各行值
+     */
+    public CsvRowReader(List<String> header, Iterator<Object[]> rows) {
+        this.rows = rows;
+        if (header != null) {
+            appendRow(buffer, header.toArray());
+        }
+    }
+
+    /**
+     * 已编码的数据行数，不包含表头
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        while (position >= buffer.length()) {
+            if (!rows.hasNext()) {
+                return -1;
+            }
+            buffer.setLength(0);
+            position = 0;
+            appendRow(buffer, rows.next());
+            rowCount++;
+        }
+        int n = Math.min(len, buffer.length() - position);
+        buffer.getChars(position, position + n, cbuf, off);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public static void appendRow(StringBuilder sb, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendValue(sb, values[i]);
+        }
+        sb.append('\n');
+    }
+
+    public static void appendValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof BigDecimal) {
+            sb.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Timestamp || value instanceof java.sql.Date || value instanceof java.sql.Time) {
+            sb.append(value);
+        } else if (value instanceof byte[]) {
+            sb.append("\\x");
+            for (byte b : (byte[]) value) {
+                sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+        } else {
+            String s = value.toString();
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"') {
+                    sb.append('"');
+                }
+                sb.append(c);
+            }
+            sb.append('"');
+        }
+    }
+}
@@ -127,6 +127,14 @@ public class DataBaseMetaDataHelperImpl implements DataBaseMetaDataHelper {
         }
     }
 
+    @SneakyThrows
+    @Override
+    public String getDatabaseProductVersion() {
+        try (Connection connection = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource().getConnection()) {
+            return connection.getMetaData().getDatabaseProductVersion();
+        }
+    }
+
 
     private String getIdentifierQuoteString() {
         return getMetaDataInfo().getIdentifierQuoteString();
@@ -1,34 +1,56 @@
 package io.github.myacelw.mybatis.dynamic.core.database.impl;
 
 import io.github.myacelw.mybatis.dynamic.core.annotation.SubTypes;
+import io.github.myacelw.mybatis.dynamic.core.database.BulkLoader;
 import io.github.myacelw.mybatis.dynamic.core.database.ExtendedCursor;
 import io.github.myacelw.mybatis.dynamic.core.database.MybatisHelper;
+import io.github.myacelw.mybatis.dynamic.core.exception.database.SqlException;
 import io.github.myacelw.mybatis.dynamic.core.ext.ExtBean;
 import io.github.myacelw.mybatis.dynamic.core.metadata.enums.KeyGeneratorMode;
 import io.github.myacelw.mybatis.dynamic.core.metadata.table.SelectColumn;
 import io.github.myacelw.mybatis.dynamic.core.util.BeanUtil;
 import io.github.myacelw.mybatis.dynamic.core.util.DataUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
 import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
 import io.github.myacelw.mybatis.dynamic.core.util.StringUtil;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Delegate;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.reflection.SystemMetaObject;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.TextSqlNode;
 import org.apache.ibatis.session.*;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -42,16 +64,74 @@ import java.util.stream.Collectors;
 public class MybatisHelperImpl implements MybatisHelper {
     private static final String SCRIPT_TAG_BEGIN = "<script>";
     private static final String SCRIPT_TAG_END = "</script>";
+    /**
+     * 默认编译后SQL缓存条目数
+     */
+    public static final int DEFAULT_SQL_SOURCE_CACHE_SIZE = 2048;
+    /**
+     * 默认动态 MappedStatement 及 ResultMap 注册条目数
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 4096;
+    private static final String STATEMENT_NAMESPACE = "DynamicModel.";
     @Getter
     private final SqlSessionFactory sqlSessionFactory;
     private final Integer rowLimit;
     private final Integer timeoutSeconds;
     private final MapperBuilderAssistant assistant;
 
+    /**
+     * 编译后SQL缓存，key为替换 ${} 后的SQL文本及参数类型，value为已解析参数映射的 StaticSqlSource
+     */
+    @Getter
+    private final LruCache<CompiledSqlKey, SqlSource> sqlSourceCache;
+
+    /**
+     * 已注册到 Configuration 的动态 MappedStatement，淘汰后待执行中的调用全部结束再从 Configuration 中移除
+     */
+    @Getter
+    private final LruCache<StatementKey, RegisteredStatement> statementCache;
+
+    /**
+     * 已注册到 Configuration 的动态 ResultMap，淘汰后待引用的语句全部移除再从 Configuration 中移除
+     */
+    @Getter
+    private final LruCache<ResultMapKey, RegisteredResultMap> resultMapCache;
+
+    /**
+     * 动态语句及 ResultMap 的ID序号，多个实例可能共用同一个 Configuration，因此全局递增
+     */
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+    /**
+     * 实际发送的JDBC批次数，每个批次对应一个 Statement 的一次 executeBatch
+     */
+    private final AtomicLong physicalBatchCount = new AtomicLong();
+
+    /**
+     * 批量操作是否加入调用方事务：复用调用方会话的连接，每批只刷新语句而不提交。
+     * 写入后调用方会话被标记为已修改，其 commit()、rollback() 会提交或回滚批量写入的数据。
+     */
+    @Getter
+    @Setter
+    private boolean batchJoinTransaction;
+
+    /**
+     * 当前线程 executeInTransaction 打开的会话，批量方法以该会话调用时加入其事务
+     */
+    private final ThreadLocal<SqlSession> transactionSession = new ThreadLocal<>();
+
     public MybatisHelperImpl(@NonNull SqlSessionFactory sqlSessionFactory, Integer rowLimit, Integer timeoutSeconds) {
+        this(sqlSessionFactory, rowLimit, timeoutSeconds, null, null);
+    }
+
+    public MybatisHelperImpl(@NonNull SqlSessionFactory sqlSessionFactory, Integer rowLimit, Integer timeoutSeconds, Integer sqlSourceCacheSize, Integer statementCacheSize) {
         this.sqlSessionFactory = sqlSessionFactory;
         this.rowLimit = rowLimit;
         this.timeoutSeconds = timeoutSeconds;
+        this.sqlSourceCache = new LruCache<>(sqlSourceCacheSize == null ? DEFAULT_SQL_SOURCE_CACHE_SIZE : sqlSourceCacheSize);
+        int registrySize = statementCacheSize == null || statementCacheSize <= 0 ? DEFAULT_STATEMENT_CACHE_SIZE : statementCacheSize;
+        this.statementCache = new LruCache<>(registrySize, (key, statement) -> statement.evict());
+        this.resultMapCache = new LruCache<>(registrySize, (key, resultMap) -> resultMap.evict());
         String resource = MybatisHelperImpl.class.getName().replace('.', '/') + ".java";
         this.assistant = new MapperBuilderAssistant(sqlSessionFactory.getConfiguration(), resource);
     }
@@ -68,47 +148,45 @@ public class MybatisHelperImpl implements MybatisHelper {
 
     @Override
     public <T> List<T> queryList(SqlSession sqlSession, String sql, Object context, List<SelectColumn> columns, Class<T> resultClass) {
-        String msId = dynamicSql(sql, resultClass, columns, SqlCommandType.SELECT, null, null);
-        return exeSql(sqlSession, session -> {
+        return withStatement(sql, resultClass, columns, SqlCommandType.SELECT, null, null, false, msId -> exeSql(sqlSession, session -> {
             if (rowLimit != null && rowLimit > 0) {
                 return session.selectList(msId, context, new RowBounds(0, rowLimit));
             } else {
                 return session.selectList(msId, context);
             }
-        });
+        }));
     }
 
     @Override
     public <K, T> Map<K, T> queryMap(SqlSession sqlSession, String sql, Object context, List<SelectColumn> columns, Class<T> javaType, String key) {
-        String msId = dynamicSql(sql, javaType, columns, SqlCommandType.SELECT, null, null);
-        return exeSql(sqlSession, session -> {
+        return withStatement(sql, javaType, columns, SqlCommandType.SELECT, null, null, false, msId -> exeSql(sqlSession, session -> {
             if (rowLimit != null && rowLimit > 0) {
                 return session.selectMap(msId, context, key, new RowBounds(0, rowLimit));
             } else {
                 return session.selectMap(msId, context, key);
             }
-        });
+        }));
     }
 
     @Override
     public <T> T queryOne(SqlSession sqlSession, String sql, Object context, List<SelectColumn> columns, Class<T> javaType) {
-        String msId = dynamicSql(sql, javaType, columns, SqlCommandType.SELECT, null, null);
-        return exeSql(sqlSession, session -> session.selectOne(msId, context));
+        return withStatement(sql, javaType, columns, SqlCommandType.SELECT, null, null, false, msId -> exeSql(sqlSession, session -> session.selectOne(msId, context)));
     }
 
     @Override
     public <T> void queryCallBack(SqlSession sqlSession, String sql, Object context, List<SelectColumn> columns, Class<T> resultClass, ResultHandler<T> handler) {
-        String msId = dynamicSql(sql, resultClass, columns, SqlCommandType.SELECT, null, null);
         // 回调方法 不受 rowLimit 控制
-        exeSql(sqlSession, session -> {
+        withStatement(sql, resultClass, columns, SqlCommandType.SELECT, null, null, true, msId -> exeSql(sqlSession, session -> {
             session.select(msId, context, handler);
             return null;
-        });
+        }));
     }
 
     @Override
     public <T> Cursor<T> queryCursor(SqlSession sqlSession, String sql, Object context, List<SelectColumn> columns, Class<T> resultClass) {
-        String msId = dynamicSql(sql, resultClass, columns, SqlCommandType.SELECT, null, null);
+        // 游标读取期间仍需按ID查找嵌套 ResultMap，语句在游标关闭时才释放
+        RegisteredStatement statement = dynamicSql(sql, resultClass, columns, SqlCommandType.SELECT, null, null, true);
+        String msId = statement.getId();
 
         Function<SqlSession, Cursor<T>> function = session -> {
             if (rowLimit != null && rowLimit > 0) {
@@ -118,12 +196,17 @@ public class MybatisHelperImpl implements MybatisHelper {
             }
         };
 
-        if (sqlSession != null) {
-            return function.apply(sqlSession);
+        boolean newSession = sqlSession == null;
+        SqlSession session = newSession ? sqlSessionFactory.openSession(true) : sqlSession;
+        try {
+            return new ExtendedCursorImpl<>(session, function.apply(session), newSession, statement);
+        } catch (RuntimeException | Error e) {
+            statement.release();
+            if (newSession) {
+                session.close();
+            }
+            throw e;
         }
-
-        sqlSession = sqlSessionFactory.openSession(true);
-        return new ExtendedCursorImpl<>(sqlSession, function.apply(sqlSession));
     }
 
     private static class ExtendedCursorImpl<T> implements ExtendedCursor<T> {
@@ -134,15 +217,31 @@ public class MybatisHelperImpl implements MybatisHelper {
         @Delegate
         final Cursor<T> result;
 
-        ExtendedCursorImpl(SqlSession sqlSession, Cursor<T> result) {
+        final boolean closeSession;
+
+        final RegisteredStatement statement;
+
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        ExtendedCursorImpl(SqlSession sqlSession, Cursor<T> result, boolean closeSession, RegisteredStatement statement) {
             this.sqlSession = sqlSession;
             this.result = result;
+            this.closeSession = closeSession;
+            this.statement = statement;
         }
 
         @Override
         public void close() throws IOException {
-            result.close();
-            sqlSession.close();
+            try {
+                result.close();
+                if (closeSession) {
+                    sqlSession.close();
+                }
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    statement.release();
+                }
+            }
         }
     }
 
@@ -156,12 +255,16 @@ public class MybatisHelperImpl implements MybatisHelper {
             keyGenerator = createSelectKeyGenerator(keyGeneratorSequenceName);
         }
 
-        String msId = dynamicSql(sql, Integer.class, SqlCommandType.INSERT, keyGenerator, keyGeneratorColumn);
-        return exeSql(sqlSession, session -> session.insert(msId, context));
+        return withStatement(sql, Integer.class, null, SqlCommandType.INSERT, keyGenerator, keyGeneratorColumn, false, msId -> exeSql(sqlSession, session -> session.insert(msId, context)));
     }
 
     @Override
     public boolean batchInsert(String sql, List<Object> contexts, int batchSize, KeyGeneratorMode keyGeneratorMode, String keyGeneratorColumn, String keyGeneratorSequenceName) {
+        return batchInsert(null, sql, contexts, batchSize, keyGeneratorMode, keyGeneratorColumn, keyGeneratorSequenceName, false);
+    }
+
+    @Override
+    public boolean batchInsert(SqlSession sqlSession, String sql, List<Object> contexts, int batchSize, KeyGeneratorMode keyGeneratorMode, String keyGeneratorColumn, String keyGeneratorSequenceName, boolean groupBySql) {
         KeyGenerator keyGenerator = NoKeyGenerator.INSTANCE;
 
         if (keyGeneratorMode == KeyGeneratorMode.AUTO_INCREMENT) {
@@ -170,35 +273,117 @@ public class MybatisHelperImpl implements MybatisHelper {
             keyGenerator = createSelectKeyGenerator(keyGeneratorSequenceName);
         }
 
-        String msId = dynamicSql(sql, Integer.class, SqlCommandType.INSERT, keyGenerator, keyGeneratorColumn);
-        return executeBatch(contexts, batchSize, (session, entity) -> session.insert(msId, entity));
+        return withStatement(sql, Integer.class, null, SqlCommandType.INSERT, keyGenerator, keyGeneratorColumn, false,
+                msId -> executeBatch(sqlSession, ExecutorType.BATCH, groupBySql ? groupBySql(sql, contexts) : contexts, batchSize, (session, entity) -> session.insert(msId, entity)));
+    }
+
+    @Override
+    public boolean batchInsertRows(SqlSession sqlSession, List<BatchItem> items, int batchSize, KeyGeneratorMode keyGeneratorMode, String keyGeneratorColumn) {
+        boolean autoIncrement = keyGeneratorMode == KeyGeneratorMode.AUTO_INCREMENT;
+        KeyGenerator keyGenerator = autoIncrement ? Jdbc3KeyGenerator.INSTANCE : NoKeyGenerator.INSTANCE;
+        // BATCH 执行器下多条语句的自增主键会按参数对象逐个分配，需要取回主键时逐条执行
+        return executeBatch(sqlSession, autoIncrement ? ExecutorType.SIMPLE : ExecutorType.BATCH, items, batchSize, (session, item) -> {
+            withStatement(item.getSql(), Integer.class, null, SqlCommandType.INSERT, keyGenerator, autoIncrement ? keyGeneratorColumn : null, false, msId -> session.insert(msId, item.getContext()));
+            if (autoIncrement) {
+                physicalBatchCount.incrementAndGet();
+            }
+        });
     }
 
     @Override
     public boolean batchUpdate(String sql, List<Object> contexts, int batchSize) {
-        String msId = dynamicSql(sql, Integer.class, SqlCommandType.UPDATE, null, null);
-        return executeBatch(contexts, batchSize, (session, entity) -> session.update(msId, entity));
+        return batchUpdate(null, sql, contexts, batchSize, false);
+    }
+
+    @Override
+    public boolean batchUpdate(SqlSession sqlSession, String sql, List<Object> contexts, int batchSize, boolean groupBySql) {
+        return withStatement(sql, Integer.class, null, SqlCommandType.UPDATE, null, null, false,
+                msId -> executeBatch(sqlSession, ExecutorType.BATCH, groupBySql ? groupBySql(sql, contexts) : contexts, batchSize, (session, entity) -> session.update(msId, entity)));
+    }
+
+    @Override
+    public long getPhysicalBatchCount() {
+        return physicalBatchCount.get();
+    }
+
+    /**
+     * 按替换 ${} 后的SQL文本对上下文分组，各组按首次出现的顺序排列。
+     * BatchExecutor 在SQL变化时会新建 Statement，分组后相同SQL的语句连续执行，合并为同一个JDBC批次。
+     */
+    private List<Object> groupBySql(String sql, List<Object> contexts) {
+        if (contexts.size() <= 1 || (sql.contains("<") && sql.contains(">"))) {
+            return contexts;
+        }
+        TextSqlNode sqlNode = new TextSqlNode(sql);
+        if (!sqlNode.isDynamic()) {
+            return contexts;
+        }
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Map<String, List<Object>> groups = new LinkedHashMap<>();
+        for (Object context : contexts) {
+            DynamicContext dynamicContext = new DynamicContext(configuration, context);
+            sqlNode.apply(dynamicContext);
+            groups.computeIfAbsent(dynamicContext.getSql(), k -> new ArrayList<>()).add(context);
+        }
+        if (groups.size() == 1) {
+            return contexts;
+        }
+        List<Object> result = new ArrayList<>(contexts.size());
+        groups.values().forEach(result::addAll);
+        return result;
     }
 
     @Override
     public boolean batchUpdates(List<BatchItem> items, int batchSize) {
-        try (SqlSession batchSqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
-            int size = items.size();
-            for (int i = 0; i < size; i++) {
-                BatchItem item = items.get(i);
-                String sql = item.getSql();
-                Object context = item.getContext();
+        return batchUpdates(null, items, batchSize);
+    }
 
-                String msId = dynamicSql(sql, Integer.class, SqlCommandType.UPDATE, null, null);
-                batchSqlSession.update(msId, context);
+    @Override
+    public boolean batchUpdates(SqlSession sqlSession, List<BatchItem> items, int batchSize) {
+        return executeBatch(sqlSession, ExecutorType.BATCH, items, batchSize, (session, item) -> {
+            withStatement(item.getSql(), Integer.class, null, SqlCommandType.UPDATE, null, null, false, msId -> session.update(msId, item.getContext()));
+        });
+    }
 
-                if ((i + 1) % batchSize == 0 || i == size - 1) {
-                    batchSqlSession.flushStatements();
-                    batchSqlSession.commit();
-                    batchSqlSession.clearCache();
+    @Override
+    public <T> T executeInTransaction(Function<SqlSession, T> action) {
+        try (SqlSession session = sqlSessionFactory.openSession(false)) {
+            SqlSession previous = transactionSession.get();
+            transactionSession.set(session);
+            try {
+                T result = action.apply(session);
+                session.commit(true);
+                return result;
+            } catch (RuntimeException | Error e) {
+                session.rollback(true);
+                throw e;
+            } finally {
+                if (previous == null) {
+                    transactionSession.remove();
+                } else {
+                    transactionSession.set(previous);
                 }
             }
-            return true;
+        }
+    }
+
+    @Override
+    public long bulkLoad(SqlSession sqlSession, BulkLoader bulkLoader, String table, List<String> columns, Iterator<Object[]> rows) {
+        Connection connection = getJoinableConnection(sqlSession);
+        try {
+            if (connection != null) {
+                long count = bulkLoader.load(connection, table, columns, new JdbcValueIterator(rows));
+                sqlSession.clearCache();
+                markDirty(sqlSession);
+                return count;
+            }
+            try (SqlSession session = sqlSessionFactory.openSession()) {
+                long count = bulkLoader.load(session.getConnection(), table, columns, new JdbcValueIterator(rows));
+                session.commit(true);
+                return count;
+            }
+        } catch (SQLException e) {
+            throw new SqlException("Bulk load into " + table + " failed", e);
         }
     }
 
@@ -212,8 +397,7 @@ public class MybatisHelperImpl implements MybatisHelper {
      **/
     @Override
     public int update(SqlSession sqlSession, String sql, Object context) {
-        String msId = dynamicSql(sql, Integer.class, SqlCommandType.UPDATE, null, null);
-        return exeSql(sqlSession, session -> session.update(msId, context));
+        return withStatement(sql, Integer.class, null, SqlCommandType.UPDATE, null, null, false, msId -> exeSql(sqlSession, session -> session.update(msId, context)));
     }
 
     /**
@@ -226,46 +410,72 @@ public class MybatisHelperImpl implements MybatisHelper {
      **/
     @Override
     public int delete(SqlSession sqlSession, String sql, Object context) {
-        String msId = dynamicSql(sql, Integer.class, SqlCommandType.DELETE, null, null);
-        return exeSql(sqlSession, session -> session.delete(msId, context));
+        return withStatement(sql, Integer.class, null, SqlCommandType.DELETE, null, null, false, msId -> exeSql(sqlSession, session -> session.delete(msId, context)));
     }
 
-    private String dynamicSql(String mybatisSQL, Class<?> resultClass, SqlCommandType type, KeyGenerator keyGenerator, String keyProperty) {
-        return this.dynamicSql(mybatisSQL, resultClass, null, type, keyGenerator, keyProperty);
+    /**
+     * 获取已注册的语句执行，执行期间语句及其 ResultMap 不会从 Configuration 中移除
+     */
+    private <T> T withStatement(String mybatisSQL, Class<?> resultClass, List<SelectColumn> columns, SqlCommandType type, KeyGenerator keyGenerator, String keyProperty, boolean resultOrdered, Function<String, T> action) {
+        RegisteredStatement statement = dynamicSql(mybatisSQL, resultClass, columns, type, keyGenerator, keyProperty, resultOrdered);
+        try {
+            return action.apply(statement.getId());
+        } finally {
+            statement.release();
+        }
     }
 
     /**
-     * sql缓存及处理
+     * sql缓存及处理，返回的语句已被占用，使用完毕后需调用 release
      *
-     * @param mybatisSQL
-     * @param resultClass
-     * @param type
-     * @return java.lang.String
-     * @date 2022/10/27
-     **/
-    private String dynamicSql(String mybatisSQL, Class<?> resultClass, List<SelectColumn> columns, SqlCommandType type, KeyGenerator keyGenerator, String keyProperty) {
+     * @param resultOrdered 结果按主对象分组有序，嵌套结果在主对象的行结束后即交付并清除已处理的对象，用于游标和回调查询
+     */
+    private RegisteredStatement dynamicSql(String mybatisSQL, Class<?> resultClass, List<SelectColumn> columns, SqlCommandType type, KeyGenerator keyGenerator, String keyProperty, boolean resultOrdered) {
         Configuration configuration = sqlSessionFactory.getConfiguration();
-        LanguageDriver languageDriver = configuration.getDefaultScriptingLanguageInstance();
 
-        String resultMapId = getResultMap(resultClass, columns);
-        String msId = getMappedStatementId(mybatisSQL, type, resultMapId, keyGenerator, keyProperty);
+        RegisteredResultMap resultMap = getResultMap(resultClass, columns);
+        StatementKey key = new StatementKey(mybatisSQL, type, resultMap.getId(), keyGenerator == null ? null : keyGenerator.getClass().getSimpleName(), keyProperty, resultOrdered);
+
+        RegisteredStatement statement = statementCache.get(key);
+        if (statement != null && statement.acquire()) {
+            resultMap.release();
+            return statement;
+        }
 
-        if (configuration.hasStatement(msId, false)) {
-            return msId;
+        synchronized (configuration) {
+            statement = statementCache.peek(key);
+            if (statement != null && statement.acquire()) {
+                resultMap.release();
+                return statement;
+            }
+            String msId = createMappedStatementId(mybatisSQL, type);
+            MappedStatement ms = createMappedStatement(msId, mybatisSQL, configuration.getResultMap(resultMap.getId()), type, keyGenerator, keyProperty, resultOrdered);
+            configuration.addMappedStatement(ms);
+            // 语句持有 ResultMap 的占用，语句移除时释放
+            statement = new RegisteredStatement(msId, resultMap);
+            statement.acquire();
+            statementCache.put(key, statement);
+            return statement;
         }
+    }
 
-        String expressionSQL;
+    private MappedStatement createMappedStatement(String msId, String mybatisSQL, ResultMap resultMap, SqlCommandType type, KeyGenerator keyGenerator, String keyProperty, boolean resultOrdered) {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        LanguageDriver languageDriver = configuration.getDefaultScriptingLanguageInstance();
+
+        SqlSource sqlSource;
         if (mybatisSQL.contains("<") && mybatisSQL.contains(">")) {
-            expressionSQL = SCRIPT_TAG_BEGIN + sqlPreprocessing(mybatisSQL) + SCRIPT_TAG_END;
+            String expressionSQL = SCRIPT_TAG_BEGIN + sqlPreprocessing(mybatisSQL) + SCRIPT_TAG_END;
+            sqlSource = languageDriver.createSqlSource(configuration, expressionSQL, null);
+        } else if (new TextSqlNode(mybatisSQL).isDynamic()) {
+            // 仅含 ${} 文本替换的SQL，按替换后的文本缓存编译结果，避免每次执行都重新解析 #{} 参数
+            sqlSource = new CompiledSqlSource(configuration, mybatisSQL, sqlSourceCache);
         } else {
-            expressionSQL = mybatisSQL;
+            sqlSource = languageDriver.createSqlSource(configuration, mybatisSQL, null);
         }
-
-        SqlSource sqlSource = languageDriver.createSqlSource(configuration, expressionSQL, null);
         MappedStatement.Builder msb = new MappedStatement.Builder(configuration, msId, sqlSource, type);
-
-        ResultMap resultMap = configuration.getResultMap(resultMapId);
         msb.resultMaps(Collections.singletonList(resultMap));
+        msb.resultOrdered(resultOrdered);
 
         if (timeoutSeconds != null && timeoutSeconds > 0) {
             msb.timeout(timeoutSeconds);
@@ -281,83 +491,116 @@ public class MybatisHelperImpl implements MybatisHelper {
         if (log.isTraceEnabled()) {
             log.trace(ms.getSqlSource().toString());
         }
-
-        synchronized (configuration) {
-            if (!configuration.hasStatement(msId, false)) {
-                configuration.addMappedStatement(ms);
-            }
-        }
-        return msId;
+        return ms;
     }
 
-    private String getMappedStatementId(String mybatisSQL, SqlCommandType type, String resultMapId, KeyGenerator keyGenerator, String keyProperty) {
-        String msId = "DynamicModel." + type.toString() + "_" + mybatisSQL.hashCode() + "_" + resultMapId + (keyGenerator != null ? "_" + keyGenerator.getClass().getSimpleName() + "_" + keyProperty : "");
+    /**
+     * 生成 MappedStatement ID，使用递增序号保证唯一，SQL内容由 StatementKey 比较
+     */
+    private String createMappedStatementId(String mybatisSQL, SqlCommandType type) {
+        String msId = STATEMENT_NAMESPACE + type.toString() + "_" + ID_SEQUENCE.incrementAndGet();
         if (mybatisSQL.contains("/* IgnoreTenantLine */")) {
             msId = msId + "-IgnoreTenantLine";
         }
         return msId;
     }
 
-    private String getResultMap(Class<?> resultClass, List<SelectColumn> columns) {
+    private void removeMappedStatement(String msId) {
         Configuration configuration = sqlSessionFactory.getConfiguration();
+        synchronized (configuration) {
+            MappedStatement ms = configuration.hasStatement(msId, false) ? configuration.getMappedStatement(msId, false) : null;
+            Collection<String> names = configuration.getMappedStatementNames();
+            names.remove(msId);
+            // StrictMap 同时以短名称注册，仅当短名称指向同一语句时移除
+            String shortName = msId.substring(STATEMENT_NAMESPACE.length());
+            try {
+                if (ms != null && configuration.hasStatement(shortName, false) && configuration.getMappedStatement(shortName, false) == ms) {
+                    names.remove(shortName);
+                }
+            } catch (IllegalArgumentException e) {
+                // 短名称存在歧义，保留
+            }
+        }
+    }
 
-        if (columns == null) {
-            columns = Collections.emptyList();
-        } else {
-            columns = columns.stream().sorted().collect(Collectors.toList());
+    private void removeResultMaps(List<String> ids) {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        synchronized (configuration) {
+            configuration.getResultMapNames().removeAll(ids);
         }
+    }
+
+    /**
+     * 获取已注册的 ResultMap，返回的 ResultMap 已被占用，使用完毕后需调用 release
+     */
+    private RegisteredResultMap getResultMap(Class<?> resultClass, List<SelectColumn> columns) {
+        columns = sortColumns(columns);
 
-        String id = getResultMapId(resultClass, columns);
-        if (configuration.hasResultMap(id)) {
-            return id;
+        ResultMapKey key = new ResultMapKey(resultClass, columns);
+        RegisteredResultMap registered = resultMapCache.get(key);
+        if (registered != null && registered.acquire()) {
+            return registered;
+        }
+
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        synchronized (configuration) {
+            registered = resultMapCache.peek(key);
+            if (registered != null && registered.acquire()) {
+                return registered;
+            }
+            // 嵌套的 ResultMap 归属于顶层条目，随顶层条目一同淘汰
+            List<String> ids = new ArrayList<>();
+            String id = createResultMap(resultClass, columns, ids);
+            registered = new RegisteredResultMap(id, ids);
+            registered.acquire();
+            resultMapCache.put(key, registered);
+            return registered;
         }
+    }
+
+    private String createResultMap(Class<?> resultClass, List<SelectColumn> columns, List<String> ids) {
         if (resultClass != null && !DataUtil.isBasicType(resultClass)) {
             SubTypes anno = resultClass.getDeclaredAnnotation(SubTypes.class);
             if (anno != null && !ObjectUtil.isEmpty(anno.subTypes())) {
-                return createDiscriminatorResultMap(id, resultClass, columns, anno);
+                return createDiscriminatorResultMap(resultClass, columns, anno, ids);
             }
         }
-        return doConvertToResultMap(resultClass, columns);
+        return doConvertToResultMap(resultClass, columns, ids);
     }
 
-    private String createDiscriminatorResultMap(String id, Class<?> resultClass, List<SelectColumn> columns, SubTypes anno) {
+    private String createDiscriminatorResultMap(Class<?> resultClass, List<SelectColumn> columns, SubTypes anno, List<String> ids) {
         Configuration configuration = sqlSessionFactory.getConfiguration();
 
         Map<String, String> discriminatorMap = new HashMap<>();
         for (SubTypes.SubType subType : anno.subTypes()) {
             Class<?> type = subType.value();
             String name = StringUtil.hasText(subType.name()) ? subType.name() : type.getSimpleName();
-            String subId = doConvertToResultMap(type, columns);
+            String subId = doConvertToResultMap(type, columns, ids);
             discriminatorMap.put(name, subId);
         }
         Discriminator discriminator = new Discriminator.Builder(configuration,
                 new ResultMapping.Builder(configuration, null, anno.subTypeFieldName(), String.class).build(),
                 discriminatorMap).build();
 
-        synchronized (configuration) {
-            if (!configuration.hasResultMap(id)) {
-                configuration.addResultMap(new ResultMap.Builder(configuration, id, resultClass, new ArrayList<>()).discriminator(discriminator).build());
-            }
-        }
-
+        String id = createResultMapId(resultClass);
+        configuration.addResultMap(new ResultMap.Builder(configuration, id, resultClass, new ArrayList<>()).discriminator(discriminator).build());
+        ids.add(id);
         return id;
     }
 
-    private static String getResultMapId(Class<?> resultClass, List<SelectColumn> columns) {
-        return "ResultMap-" + (resultClass == null ? "Object" : resultClass.getName()) + (ObjectUtil.isEmpty(columns) ? "" : columns.hashCode());
+    /**
+     * 生成 ResultMap ID，使用递增序号保证唯一，不含"."以避免 StrictMap 注册短名称
+     */
+    private String createResultMapId(Class<?> resultClass) {
+        return "ResultMap-" + (resultClass == null ? "Object" : resultClass.getSimpleName()) + "-" + ID_SEQUENCE.incrementAndGet();
     }
 
     /**
      * 创建resultMap
      */
-    protected String doConvertToResultMap(Class<?> resultClass, List<SelectColumn> columns) {
+    protected String doConvertToResultMap(Class<?> resultClass, List<SelectColumn> columns, List<String> ids) {
         Configuration configuration = sqlSessionFactory.getConfiguration();
 
-        String id = getResultMapId(resultClass, columns);
-        if (configuration.hasResultMap(id)) {
-            return id;
-        }
-
         List<ResultMapping> resultMappings = new ArrayList<>();
 
         PropertyConvertor pc = new PropertyConvertor(resultClass);
@@ -390,23 +633,210 @@ public class MybatisHelperImpl implements MybatisHelper {
                     builder.javaType(List.class);
                     builder.column(null);
                     builder.columnPrefix(column.getProperty() + ".");
-                    builder.nestedResultMapId(getResultMap(subJavaType, column.getComposites()));
+                    builder.nestedResultMapId(createResultMap(subJavaType, sortColumns(column.getComposites()), ids));
                 } else if (column.getType() == SelectColumn.Type.ASSOCIATION) {
                     Class<?> subJavaType = javaType == null ? Map.class : javaType;
                     builder.javaType(subJavaType);
                     builder.column(null);
                     builder.columnPrefix(column.getProperty() + ".");
-                    builder.nestedResultMapId(getResultMap(subJavaType, column.getComposites()));
+                    builder.nestedResultMapId(createResultMap(subJavaType, sortColumns(column.getComposites()), ids));
                 }
                 resultMappings.add(builder.build());
             }
         }
-        synchronized (configuration) {
-            if (!configuration.hasResultMap(id)) {
-                configuration.addResultMap(new ResultMap.Builder(configuration, id, resultClass, resultMappings).build());
+        String id = createResultMapId(resultClass);
+        configuration.addResultMap(new ResultMap.Builder(configuration, id, resultClass, resultMappings).build());
+        ids.add(id);
+        return id;
+    }
+
+    private static List<SelectColumn> sortColumns(List<SelectColumn> columns) {
+        return columns == null ? Collections.emptyList() : columns.stream().sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * 动态 MappedStatement 注册key，按SQL全文比较
+     */
+    @EqualsAndHashCode
+    @ToString
+    static class StatementKey {
+        final String sql;
+        final SqlCommandType type;
+        final String resultMapId;
+        final String keyGenerator;
+        final String keyProperty;
+        final boolean resultOrdered;
+
+        StatementKey(String sql, SqlCommandType type, String resultMapId, String keyGenerator, String keyProperty, boolean resultOrdered) {
+            this.sql = sql;
+            this.type = type;
+            this.resultMapId = resultMapId;
+            this.keyGenerator = keyGenerator;
+            this.keyProperty = keyProperty;
+            this.resultOrdered = resultOrdered;
+        }
+    }
+
+    /**
+     * 动态 ResultMap 注册key，按返回类型及返回列内容比较
+     */
+    @EqualsAndHashCode
+    @ToString
+    static class ResultMapKey {
+        final Class<?> resultClass;
+        final List<SelectColumn> columns;
+
+        ResultMapKey(Class<?> resultClass, List<SelectColumn> columns) {
+            this.resultClass = resultClass;
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * 注册到 Configuration 的条目，按引用计数延迟移除。
+     * 执行中的语句会按ID查找 MappedStatement 及嵌套 ResultMap，条目被淘汰时若仍被占用，则在最后一次释放时才从 Configuration 中移除。
+     */
+    abstract static class Registration {
+        private int refCount;
+        private boolean evicted;
+
+        /**
+         * 占用条目，已淘汰的条目返回false
+         */
+        synchronized boolean acquire() {
+            if (evicted) {
+                return false;
             }
+            refCount++;
+            return true;
+        }
+
+        void release() {
+            boolean remove;
+            synchronized (this) {
+                refCount--;
+                remove = evicted && refCount == 0;
+            }
+            if (remove) {
+                remove();
+            }
+        }
+
+        void evict() {
+            boolean remove;
+            synchronized (this) {
+                if (evicted) {
+                    return;
+                }
+                evicted = true;
+                remove = refCount == 0;
+            }
+            if (remove) {
+                remove();
+            }
+        }
+
+        synchronized int getRefCount() {
+            return refCount;
+        }
+
+        /**
+         * 从 Configuration 中移除
+         */
+        protected abstract void remove();
+    }
+
+    /**
+     * 已注册的 MappedStatement
+     */
+    @Getter
+    class RegisteredStatement extends Registration {
+        final String id;
+        final RegisteredResultMap resultMap;
+
+        RegisteredStatement(String id, RegisteredResultMap resultMap) {
+            this.id = id;
+            this.resultMap = resultMap;
+        }
+
+        @Override
+        protected void remove() {
+            removeMappedStatement(id);
+            resultMap.release();
+        }
+    }
+
+    /**
+     * 已注册的 ResultMap
+     */
+    @Getter
+    class RegisteredResultMap extends Registration {
+        /**
+         * 顶层 ResultMap ID
+         */
+        final String id;
+        /**
+         * 包括嵌套 ResultMap 在内的全部 ID
+         */
+        final List<String> ids;
+
+        RegisteredResultMap(String id, List<String> ids) {
+            this.id = id;
+            this.ids = ids;
+        }
+
+        @Override
+        protected void remove() {
+            removeResultMaps(ids);
+        }
+    }
+
+    /**
+     * 编译后SQL缓存key
+     */
+    @EqualsAndHashCode
+    @ToString
+    static class CompiledSqlKey {
+        final String sql;
+        final Class<?> parameterType;
+
+        CompiledSqlKey(String sql, Class<?> parameterType) {
+            this.sql = sql;
+            this.parameterType = parameterType;
+        }
+    }
+
+    /**
+     * 只包含 ${} 文本替换的SqlSource。
+     * 每次执行时只做 ${} 替换，替换后的SQL按文本从缓存中获取已解析 #{} 参数映射的 StaticSqlSource。
+     */
+    static class CompiledSqlSource implements SqlSource {
+        private final Configuration configuration;
+        private final TextSqlNode rootSqlNode;
+        private final LruCache<CompiledSqlKey, SqlSource> cache;
+
+        CompiledSqlSource(Configuration configuration, String text, LruCache<CompiledSqlKey, SqlSource> cache) {
+            this.configuration = configuration;
+            this.rootSqlNode = new TextSqlNode(text);
+            this.cache = cache;
+        }
+
+        @Override
+        public BoundSql getBoundSql(Object parameterObject) {
+            DynamicContext context = new DynamicContext(configuration, parameterObject);
+            rootSqlNode.apply(context);
+            Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+            CompiledSqlKey key = new CompiledSqlKey(context.getSql(), parameterType);
+            SqlSource sqlSource = cache.computeIfAbsent(key, k -> new SqlSourceBuilder(configuration).parse(k.sql, k.parameterType, context.getBindings()));
+            BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+            context.getBindings().forEach(boundSql::setAdditionalParameter);
+            return boundSql;
+        }
+
+        @Override
+        public String toString() {
+            return "CompiledSqlSource";
         }
-        return id;
     }
 
     private static String sqlPreprocessing(String sql) {
@@ -491,20 +921,141 @@ public class MybatisHelperImpl implements MybatisHelper {
         }
     }
 
-    private <E> boolean executeBatch(List<Object> contexts, int batchSize, BiConsumer<SqlSession, E> consumer) {
-        try (SqlSession batchSqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
-            int size = contexts.size();
+    /**
+     * 分批执行，每 batchSize 条刷新一次语句。
+     * 加入调用方事务时只刷新不提交，提交或回滚由调用方负责；否则使用独立会话并在每批后提交。
+     */
+    private <E> boolean executeBatch(SqlSession callerSession, ExecutorType executorType, List<E> items, int batchSize, BiConsumer<SqlSession, E> consumer) {
+        Connection connection = getJoinableConnection(callerSession);
+        try (SqlSession batchSqlSession = connection != null ? openJoinedSession(connection, executorType) : sqlSessionFactory.openSession(executorType)) {
+            int size = items.size();
             for (int i = 0; i < size; i++) {
-                @SuppressWarnings("unchecked")
-                E entity = (E) contexts.get(i);
-                consumer.accept(batchSqlSession, entity);
+                consumer.accept(batchSqlSession, items.get(i));
                 if ((i + 1) % batchSize == 0 || i == size - 1) {
-                    batchSqlSession.flushStatements();
-                    batchSqlSession.commit();
+                    physicalBatchCount.addAndGet(batchSqlSession.flushStatements().size());
+                    if (connection == null) {
+                        batchSqlSession.commit();
+                    }
                     batchSqlSession.clearCache();
                 }
             }
-            return true;
+        }
+        if (connection != null) {
+            // 调用方会话的一级缓存可能包含已被修改的数据
+            callerSession.clearCache();
+            markDirty(callerSession);
+        }
+        return true;
+    }
+
+    /**
+     * 标记调用方会话已修改，使其 commit()、rollback() 不被跳过。
+     * DefaultSqlSession 仅在经自身执行 update 后才会提交，加入其连接的写入需手动标记。
+     */
+    private static void markDirty(SqlSession callerSession) {
+        if (callerSession instanceof DefaultSqlSession) {
+            SystemMetaObject.forObject(callerSession).setValue("dirty", true);
+        }
+    }
+
+    /**
+     * 得到可加入的调用方连接，调用方会话为空、未开启加入调用方事务且不是 executeInTransaction 的会话、或连接已关闭时返回null
+     */
+    private Connection getJoinableConnection(SqlSession callerSession) {
+        if (callerSession == null || (!batchJoinTransaction && callerSession != transactionSession.get())) {
+            return null;
+        }
+        // 先执行调用方会话中尚未发送的语句，保证执行顺序
+        callerSession.flushStatements();
+        Connection connection = callerSession.getConnection();
+        try {
+            return connection == null || connection.isClosed() ? null : connection;
+        } catch (SQLException e) {
+            throw new SqlException("Failed to check connection of caller session", e);
+        }
+    }
+
+    private SqlSession openJoinedSession(Connection connection, ExecutorType executorType) {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Executor executor = configuration.newExecutor(new JoinedTransaction(connection), executorType);
+        return new DefaultSqlSession(configuration, executor, false);
+    }
+
+    /**
+     * 将行值逐行按默认类型处理器的规则转换为JDBC值，如 java.util.Date 转为 Timestamp、枚举转为名称
+     */
+    static class JdbcValueIterator implements Iterator<Object[]> {
+        private final Iterator<Object[]> rows;
+
+        JdbcValueIterator(Iterator<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public Object[] next() {
+            Object[] values = rows.next();
+            Object[] result = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = toJdbcValue(values[i]);
+            }
+            return result;
+        }
+
+        static Object toJdbcValue(Object value) {
+            if (value instanceof java.sql.Date || value instanceof java.sql.Time || value instanceof Timestamp) {
+                return value;
+            } else if (value instanceof Date) {
+                return new Timestamp(((Date) value).getTime());
+            } else if (value instanceof LocalDateTime) {
+                return Timestamp.valueOf((LocalDateTime) value);
+            } else if (value instanceof LocalDate) {
+                return java.sql.Date.valueOf((LocalDate) value);
+            } else if (value instanceof LocalTime) {
+                return java.sql.Time.valueOf((LocalTime) value);
+            } else if (value instanceof Instant) {
+                return Timestamp.from((Instant) value);
+            } else if (value instanceof Enum) {
+                return ((Enum<?>) value).name();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 加入调用方事务的事务对象，复用调用方连接，提交、回滚及关闭连接均由调用方负责
+     */
+    static class JoinedTransaction implements Transaction {
+        private final Connection connection;
+
+        JoinedTransaction(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Connection getConnection() {
+            return connection;
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void rollback() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Integer getTimeout() {
+            return null;
         }
     }
 
@@ -0,0 +1,36 @@
+package io.github.myacelw.mybatis.dynamic.core.exception.database;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 并行分区批量写入异常，部分分区重试后仍失败；成功的分区已各自提交。
+ *
+ * @author liuwei
+ */
+@Getter
+public class PartitionedBatchException extends SqlException {
+
+    /**
+     * 分区总数
+     */
+    private final int partitionCount;
+
+    /**
+     * 失败的分区序号，分区按输入顺序连续划分
+     */
+    private final List<Integer> failedPartitions;
+
+    /**
+     * 已提交的数据行数
+     */
+    private final long committedRows;
+
+    public PartitionedBatchException(String message, Throwable cause, int partitionCount, List<Integer> failedPartitions, long committedRows) {
+        super(message, cause);
+        this.partitionCount = partitionCount;
+        this.failedPartitions = failedPartitions;
+        this.committedRows = committedRows;
+    }
+}
@@ -106,6 +106,16 @@ public class Model implements ExtProperties, Cloneable, Serializable {
      */
     private Map<String, Object> extProperties;
 
+    /**
+     * 按ID查询的实体缓存条目数，大于0时开启缓存
+     */
+    private Integer entityCacheSize;
+
+    /**
+     * 实体缓存过期秒数，为空时300秒
+     */
+    private Integer entityCacheTtlSeconds;
+
     public Model addField(Field field) {
         fields.add(field);
         return this;
@@ -0,0 +1,35 @@
+package io.github.myacelw.mybatis.dynamic.core.metadata.query;
+
+/**
+ * 分页查询总记录数统计策略
+ *
+ * @author liuwei
+ */
+public enum CountStrategy {
+
+    /**
+     * 精确统计，页未满时由当前页数据推算，否则执行 COUNT 查询
+     */
+    EXACT,
+
+    /**
+     * 精确统计结果按最终统计SQL和参数值缓存指定秒数，权限、查询条件和关联均体现在其中
+     */
+    CACHED,
+
+    /**
+     * 使用数据库执行计划的估算行数，方言不支持时退化为精确统计
+     */
+    ESTIMATE,
+
+    /**
+     * 数据查询附加 COUNT(*) OVER() 窗口函数列，一次查询同时返回分页数据和总记录数，方言不支持窗口函数时退化为精确统计
+     */
+    WINDOW,
+
+    /**
+     * 不统计总记录数，多查询一行判断是否有下一页
+     */
+    HAS_NEXT
+
+}
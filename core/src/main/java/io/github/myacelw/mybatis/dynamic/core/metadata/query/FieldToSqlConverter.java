@@ -13,6 +13,35 @@ public interface FieldToSqlConverter {
 
     String convertColumn(String fieldName);
 
+    /**
+     * 绑定条件值，返回SQL占位符中使用的取值表达式。
+     * 默认直接返回条件对象上的取值路径表达式，如 c1.c[0].v；扁平参数绑定时将值加入参数列表并返回下标表达式，如 _p[3]。
+     *
+     * @param valueExpression 条件对象上的取值路径表达式
+     * @param value           条件值
+     */
+    default String bindValue(String valueExpression, Object value) {
+        return valueExpression;
+    }
+
+    /**
+     * IN 列表实际生成的占位符个数，大于值个数时以最后一个值补齐。
+     * 默认与值个数相同；开启IN列表分桶时向上取整到分桶大小，使不同长度的列表生成相同SQL。
+     *
+     * @param size 值个数
+     */
+    default int inListSize(int size) {
+        return size;
+    }
+
+    /**
+     * 超长 IN 列表阈值，值个数超过该阈值时改写为数据库方言的派生表形式（如 VALUES 列表），避免超出单条语句的参数或IN元素上限。
+     * 默认0表示不改写。
+     */
+    default int getLargeInListThreshold() {
+        return 0;
+    }
+
     default ConvertExistsSqlResult convertExistsSql(String fieldPath, List<Join> joins) {
         throw new UnsupportedOperationException("not support");
     }
@@ -1,6 +1,7 @@
 package io.github.myacelw.mybatis.dynamic.core.metadata.query;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.DataBaseDialect;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.ConditionBuilder;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.GroupCondition;
@@ -135,6 +136,20 @@ public class Join implements Cloneable {
     }
 
 
+    /**
+     * 框架内部使用该方法，返回不含条件值的结构签名，返回null表示不支持缓存
+     */
+    public String innerGetShape(DataBaseDialect dialect, FieldToSqlConverter converter) {
+        String conditionShape = "";
+        if (condition != null) {
+            conditionShape = condition.innerGetShape(dialect, converter);
+            if (conditionShape == null) {
+                return null;
+            }
+        }
+        return "J(" + Condition.shapeText(fieldPath) + type + (ignoreLogicDelete ? "!" : "") + conditionShape + ")";
+    }
+
     @SneakyThrows
     @Override
     public Join clone() {
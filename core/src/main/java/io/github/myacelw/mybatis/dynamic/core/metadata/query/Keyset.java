@@ -0,0 +1,53 @@
+package io.github.myacelw.mybatis.dynamic.core.metadata.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 键集分页（seek分页）位置。
+ * 以上一页最后一行的排序字段值为起点生成范围条件，不使用 OFFSET，查询耗时与页深无关。
+ * 排序项末尾总是追加主键字段作为唯一排序，主键以外的排序字段需声明为非空。
+ *
+ * @author liuwei
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Keyset {
+
+    /**
+     * 上一页最后一行的排序字段值，按排序项顺序排列，包含末尾追加的主键值；为空时查询第一页
+     */
+    List<Object> after;
+
+    /**
+     * 不透明游标，取自上一页结果的 nextCursor；设置后忽略 after
+     */
+    String cursor;
+
+    /**
+     * 查询第一页
+     */
+    public static Keyset first() {
+        return new Keyset();
+    }
+
+    /**
+     * 从指定排序字段值之后开始查询
+     */
+    public static Keyset after(Object... values) {
+        return new Keyset(Arrays.asList(values), null);
+    }
+
+    /**
+     * 从游标位置之后开始查询，游标为空时查询第一页
+     */
+    public static Keyset cursor(String cursor) {
+        return new Keyset(null, cursor);
+    }
+
+}
@@ -1,5 +1,6 @@
 package io.github.myacelw.mybatis.dynamic.core.metadata.query;
 
+import lombok.AllArgsConstructor;
 import lombok.Value;
 
 import java.util.List;
@@ -10,6 +11,7 @@ import java.util.List;
  * @author liuwei
  */
 @Value
+@AllArgsConstructor
 public class PageResult<T> {
     /**
      * 分页查询结果数据
@@ -17,7 +19,21 @@ public class PageResult<T> {
     List<T> data;
 
     /**
-     * 总记录数
+     * 总记录数，不统计时为null
      */
     Integer total;
-}
\ No newline at end of file
+
+    /**
+     * 键集分页时下一页的游标，没有下一页时为null
+     */
+    String nextCursor;
+
+    /**
+     * 是否有下一页，无法确定时为null
+     */
+    Boolean hasNext;
+
+    public PageResult(List<T> data, Integer total) {
+        this(data, total, null, null);
+    }
+}
@@ -61,6 +61,24 @@ public interface Condition extends Cloneable {
         return Collections.emptyList();
     }
 
+    /**
+     * 框架内部使用该方法。
+     * 返回不含条件值的结构签名，结构签名相同的条件生成的SQL相同，用于查询计划缓存；返回null表示不支持缓存。
+     *
+     * @param dialect   数据库方言，生成的SQL与方言相关时使用
+     * @param converter 字段转换器，仅用于获取IN列表分桶等影响生成SQL的配置，可为空
+     */
+    default String innerGetShape(DataBaseDialect dialect, FieldToSqlConverter converter) {
+        return null;
+    }
+
+    /**
+     * 结构签名中的文本，加入长度前缀避免不同结构拼接后相同
+     */
+    static String shapeText(String text) {
+        return text == null ? "-" : text.length() + ":" + text;
+    }
+
     /**
      * 条件构建器
      */
@@ -72,6 +72,17 @@ public class CustomCondition implements Condition {
         return field == null ? sql : Condition.replacePlaceholders(valueExpression, fieldToSqlConverter, sql, field);
     }
 
+    @Override
+    public String innerGetShape(DataBaseDialect dialect, FieldToSqlConverter converter) {
+        StringBuilder sb = new StringBuilder("C(").append(Condition.shapeText(sqlTemplate)).append(",").append(Condition.shapeText(field)).append(",");
+        if (fields != null) {
+            for (String f : fields) {
+                sb.append(Condition.shapeText(f)).append(",");
+            }
+        }
+        return sb.append(")").toString();
+    }
+
     @Override
     public List<String> innerGetSimpleConditionFields() {
         List<String> result = new ArrayList<>();
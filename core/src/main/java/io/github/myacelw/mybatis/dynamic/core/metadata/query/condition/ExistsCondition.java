@@ -101,6 +101,28 @@ public class ExistsCondition implements Condition {
         return notStr + "EXISTS (" + sql + ")";
     }
 
+    @Override
+    public String innerGetShape(DataBaseDialect dialect, FieldToSqlConverter converter) {
+        StringBuilder sb = new StringBuilder("E").append(not ? "!" : "").append("(").append(Condition.shapeText(field)).append(",");
+        if (joins != null) {
+            for (Join join : joins) {
+                String shape = join.innerGetShape(dialect, converter);
+                if (shape == null) {
+                    return null;
+                }
+                sb.append(shape).append(",");
+            }
+        }
+        if (condition != null) {
+            String shape = condition.innerGetShape(dialect, converter);
+            if (shape == null) {
+                return null;
+            }
+            sb.append(shape);
+        }
+        return sb.append(")").toString();
+    }
+
     @Override
     public Boolean match(@NonNull Object data) {
         Object subData = BeanUtil.getProperty(data, field);
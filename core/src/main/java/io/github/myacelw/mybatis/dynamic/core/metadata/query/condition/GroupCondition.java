@@ -94,6 +94,26 @@ public class GroupCondition implements Condition {
         return sql(logic, list);
     }
 
+    @Override
+    public String innerGetShape(DataBaseDialect dialect, FieldToSqlConverter converter) {
+        StringBuilder sb = new StringBuilder("G").append(logic).append("(");
+        if (conditions != null) {
+            for (Condition c : conditions) {
+                if (c == null) {
+                    sb.append("-");
+                } else {
+                    String shape = c.innerGetShape(dialect, converter);
+                    if (shape == null) {
+                        return null;
+                    }
+                    sb.append(shape);
+                }
+                sb.append(",");
+            }
+        }
+        return sb.append(")").toString();
+    }
+
     @Override
     public Boolean match(@NonNull Object data) {
         Set<Boolean> results = conditions.stream().filter(Objects::nonNull).map(c -> c.match(data)).filter(Objects::nonNull).collect(Collectors.toSet());
@@ -60,6 +60,15 @@ public class NotCondition implements Condition {
         return "";
     }
 
+    @Override
+    public String innerGetShape(DataBaseDialect dialect, FieldToSqlConverter converter) {
+        if (condition == null) {
+            return "N()";
+        }
+        String shape = condition.innerGetShape(dialect, converter);
+        return shape == null ? null : "N(" + shape + ")";
+    }
+
     @Override
     public Boolean match(@NonNull Object data) {
         Boolean b = condition.match(data);
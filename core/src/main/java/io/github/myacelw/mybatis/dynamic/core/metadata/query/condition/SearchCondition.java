@@ -86,6 +86,11 @@ public class SearchCondition implements Condition {
         }
     }
 
+    @Override
+    public String innerGetShape(DataBaseDialect dialect, FieldToSqlConverter converter) {
+        return "T(" + Condition.shapeText(field) + mode + ")";
+    }
+
     @Override
     public List<String> innerGetSimpleConditionFields() {
         return Collections.singletonList(field);
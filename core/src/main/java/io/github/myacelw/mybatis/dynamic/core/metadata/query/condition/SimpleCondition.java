@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.github.myacelw.mybatis.dynamic.core.database.dialect.DataBaseDialect;
 import io.github.myacelw.mybatis.dynamic.core.exception.crud.ConditionParameterException;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.FieldToSqlConverter;
+import io.github.myacelw.mybatis.dynamic.core.typehandler.CollectionArrayTypeHandler;
 import io.github.myacelw.mybatis.dynamic.core.util.BeanUtil;
 import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
 import io.github.myacelw.mybatis.dynamic.core.util.StringUtil;
@@ -14,6 +15,8 @@ import lombok.NoArgsConstructor;
 import lombok.NonNull;
 
 import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -383,7 +386,173 @@ public class SimpleCondition implements Condition {
             return "";
         }
         String dot = StringUtil.hasText(valueExpression) ? "." : "";
-        return operation.sql(fieldToSqlConverter == null ? field : fieldToSqlConverter.convertColumn(field), valueExpression + dot + "v", value);
+        String column = fieldToSqlConverter == null ? field : fieldToSqlConverter.convertColumn(field);
+        if (useArrayParameter(dialect)) {
+            String expression = valueExpression + dot + "v";
+            if (fieldToSqlConverter != null) {
+                expression = fieldToSqlConverter.bindValue(expression, value);
+            }
+            String placeholder = "#{" + expression + ",typeHandler=" + CollectionArrayTypeHandler.class.getName() + "}";
+            return operation == Operation.notIn ? column + " <> ALL(" + placeholder + ")" : column + " = ANY(" + placeholder + ")";
+        }
+        String largeInListSql = largeInListSql(column, valueExpression + dot + "v", fieldToSqlConverter, dialect);
+        if (largeInListSql != null) {
+            return largeInListSql;
+        }
+        return operation.sql(column, valueExpression + dot + "v", value, fieldToSqlConverter);
+    }
+
+    /**
+     * IN 条件是否以单个数组参数绑定，数据库方言支持且值元素类型可转换为数组时使用
+     */
+    private boolean useArrayParameter(DataBaseDialect dialect) {
+        if (dialect == null || !dialect.supportArrayParameter()) {
+            return false;
+        }
+        if (operation == Operation.in || operation == Operation.notIn) {
+            return CollectionArrayTypeHandler.isSupported(value);
+        }
+        if (operation == Operation.eqOrIn) {
+            return value instanceof Collection && ((Collection<?>) value).size() > 1 && CollectionArrayTypeHandler.isSupported(value);
+        }
+        return false;
+    }
+
+    /**
+     * 超长 IN 列表改写为数据库方言的派生表形式，未超过阈值或方言不支持时返回null。
+     * 元素个数超过方言单条语句参数上限的一半时，整数值直接以字面量写入SQL，不再逐个绑定参数，此时生成的SQL与值相关，不使用查询计划缓存。
+     */
+    private String largeInListSql(String column, String valueExpression, FieldToSqlConverter binder, DataBaseDialect dialect) {
+        if (dialect == null) {
+            return null;
+        }
+        int n = getInListLength();
+        if (n < 0) {
+            return null;
+        }
+        int threshold = binder == null ? 0 : binder.getLargeInListThreshold();
+        boolean exceedParameterLimit = isExceedParameterLimit(dialect, n);
+        if (!exceedParameterLimit && (threshold <= 0 || n <= threshold)) {
+            return null;
+        }
+        List<String> placeholders;
+        if (exceedParameterLimit) {
+            placeholders = toIntegerLiterals(n);
+            if (placeholders == null) {
+                throw new ConditionParameterException("IN query on '" + field + "' has " + n + " values, exceeding the parameter limit of " + dialect.getName() + "; only integer values can be inlined, please split the query");
+            }
+        } else {
+            placeholders = IntStream.range(0, n).mapToObj(i -> "#{" + bindElement(binder, valueExpression, value, i) + "}").collect(Collectors.toList());
+        }
+        boolean not = operation == Operation.notIn;
+        String sql = dialect.getLargeInListSql(column, not, placeholders);
+        if (sql == null && exceedParameterLimit) {
+            sql = column + (not ? " NOT IN (" : " IN (") + String.join(",", placeholders) + ")";
+        }
+        return sql;
+    }
+
+    /**
+     * 结构签名中的IN列表长度：开启分桶时为补齐后的占位符个数，同一分桶内的列表生成相同SQL；
+     * 超过超长列表阈值时改写为派生表形式，占位符个数与值个数相同
+     */
+    private static int inListShapeSize(FieldToSqlConverter converter, int n) {
+        if (converter == null) {
+            return n;
+        }
+        int threshold = converter.getLargeInListThreshold();
+        if (threshold > 0 && n > threshold) {
+            return n;
+        }
+        return Operation.inListSize(converter, n);
+    }
+
+    /**
+     * IN 条件的值个数，非 IN 条件或值不是列表、数组时返回-1
+     */
+    private int getInListLength() {
+        if (operation != Operation.in && operation != Operation.notIn && operation != Operation.eqOrIn) {
+            return -1;
+        }
+        if (value instanceof List) {
+            return ((List<?>) value).size();
+        } else if (value != null && value.getClass().isArray()) {
+            return Array.getLength(value);
+        }
+        return -1;
+    }
+
+    /**
+     * 值个数是否超过方言单条语句参数上限的一半，预留一半参数给语句中的其他条件；超过时值以字面量写入SQL
+     */
+    private static boolean isExceedParameterLimit(DataBaseDialect dialect, int n) {
+        return dialect != null && n > dialect.getMaxParameterCount() / 2;
+    }
+
+    /**
+     * 全部元素为整数时转换为SQL字面量，否则返回null
+     */
+    private List<String> toIntegerLiterals(int n) {
+        List<String> literals = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Object element = value instanceof List ? ((List<?>) value).get(i) : Array.get(value, i);
+            if (!(element instanceof Long || element instanceof Integer || element instanceof Short || element instanceof Byte || element instanceof BigInteger)) {
+                return null;
+            }
+            literals.add(element.toString());
+        }
+        return literals;
+    }
+
+    private static String bindElement(FieldToSqlConverter binder, String valueExpression, Object value, int i) {
+        String expression = valueExpression + "[" + i + "]";
+        if (binder == null) {
+            return expression;
+        }
+        return binder.bindValue(expression, value instanceof List ? ((List<?>) value).get(i) : Array.get(value, i));
+    }
+
+    /**
+     * IN 列表分桶大小：256以内取不小于n的2的幂，超过256按256的倍数向上取整；
+     * n不超过1000时分桶大小也不超过1000，兼容Oracle单个IN列表的元素上限。
+     */
+    public static int inListBucketSize(int n) {
+        if (n <= 1) {
+            return n;
+        }
+        if (n <= 256) {
+            return Integer.highestOneBit(n - 1) << 1;
+        }
+        int size = (n + 255) / 256 * 256;
+        return n <= 1000 ? Math.min(size, 1000) : size;
+    }
+
+    @Override
+    public String innerGetShape(DataBaseDialect dialect, FieldToSqlConverter converter) {
+        if (!StringUtil.hasText(field)) {
+            return "S-";
+        }
+        if (ignoreIfValueEmpty && operation.needValueExpression() && ObjectUtil.isEmpty(value)) {
+            return "S()";
+        }
+        String valueShape = "";
+        if (useArrayParameter(dialect)) {
+            // 数组参数与值个数无关
+            valueShape = "A";
+        } else if (isExceedParameterLimit(dialect, getInListLength())) {
+            // 值以字面量写入SQL，生成的SQL与值相关，不支持缓存
+            return null;
+        } else if (operation == Operation.in || operation == Operation.notIn || (operation == Operation.eqOrIn && value instanceof Collection)) {
+            // IN 条件的占位符数量与值个数相关
+            if (value instanceof Collection) {
+                valueShape = "#" + inListShapeSize(converter, ((Collection<?>) value).size());
+            } else if (value != null && value.getClass().isArray()) {
+                valueShape = "#" + inListShapeSize(converter, Array.getLength(value));
+            } else {
+                valueShape = "#" + (value == null ? "null" : value.getClass().getName());
+            }
+        }
+        return "S(" + Condition.shapeText(field) + operation + valueShape + ")";
     }
 
     @Override
@@ -523,7 +692,8 @@ public class SimpleCondition implements Condition {
         },
         @JsonAlias({"IN", "In"})
         in("EXPR") {
-            public String sql(String column, String valueExpression, Object value) {
+            @Override
+            public String sql(String column, String valueExpression, Object value, FieldToSqlConverter binder) {
                 if (value == null) {
                     throw new ConditionParameterException("Parameter for IN query cannot be null");
                 }
@@ -540,7 +710,7 @@ public class SimpleCondition implements Condition {
                 if (n == 0) {
                     throw new ConditionParameterException("Parameter for IN query cannot be an empty collection");
                 }
-                String s = IntStream.range(0, n).mapToObj(i -> "#{" + valueExpression + "[" + i + "]}").collect(Collectors.joining(","));
+                String s = IntStream.range(0, inListSize(binder, n)).mapToObj(i -> "#{" + bindElement(binder, valueExpression, value, Math.min(i, n - 1)) + "}").collect(Collectors.joining(","));
                 return column + " IN (" + s + ")";
             }
 
@@ -556,7 +726,8 @@ public class SimpleCondition implements Condition {
 
         @JsonAlias({"NOT_IN", "NotIn"})
         notIn("EXPR") {
-            public String sql(String column, String valueExpression, Object value) {
+            @Override
+            public String sql(String column, String valueExpression, Object value, FieldToSqlConverter binder) {
                 if (value == null) {
                     throw new ConditionParameterException("Parameter for NOT IN query cannot be null");
                 }
@@ -573,7 +744,7 @@ public class SimpleCondition implements Condition {
                 if (n == 0) {
                     throw new ConditionParameterException("Parameter for NOT IN query cannot be an empty collection");
                 }
-                String s = IntStream.range(0, n).mapToObj(i -> "#{" + valueExpression + "[" + i + "]}").collect(Collectors.joining(","));
+                String s = IntStream.range(0, inListSize(binder, n)).mapToObj(i -> "#{" + bindElement(binder, valueExpression, value, Math.min(i, n - 1)) + "}").collect(Collectors.joining(","));
                 return column + " NOT IN (" + s + ")";
             }
 
@@ -590,18 +761,19 @@ public class SimpleCondition implements Condition {
 
         @JsonAlias({"EQ_OR_IN", "EqOrIn"})
         eqOrIn("EXPR") {
-            public String sql(String column, String valueExpression, Object value) {
+            @Override
+            public String sql(String column, String valueExpression, Object value, FieldToSqlConverter binder) {
                 if (value instanceof Collection) {
                     Collection<?> collection = ((Collection<?>) value);
                     if (collection.isEmpty()) {
                         throw new ConditionParameterException("Collection parameter for EqOrIn query cannot be empty");
                     } else if (collection.size() == 1) {
-                        return eq.sql(column, valueExpression + "[0]", value);
+                        return eq.sql(column, valueExpression + "[0]", collection.iterator().next(), binder);
                     } else {
-                        return in.sql(column, valueExpression, value);
+                        return in.sql(column, valueExpression, value, binder);
                     }
                 } else {
-                    return eq.sql(column, valueExpression, value);
+                    return eq.sql(column, valueExpression, value, binder);
                 }
             }
 
@@ -626,7 +798,22 @@ public class SimpleCondition implements Condition {
         }
 
         public String sql(String column, String valueExpression, Object value) {
-            return this.format.replace("EXPR", valueExpression).replace("$COL", column);
+            return sql(column, valueExpression, value, null);
+        }
+
+        /**
+         * 生成SQL片段
+         *
+         * @param binder 条件值绑定器，为空时使用取值路径表达式
+         */
+        public String sql(String column, String valueExpression, Object value, FieldToSqlConverter binder) {
+            String expression = binder == null || !needValueExpression() ? valueExpression : binder.bindValue(valueExpression, value);
+            return this.format.replace("EXPR", expression).replace("$COL", column);
+        }
+
+        private static int inListSize(FieldToSqlConverter binder, int n) {
+            int size = binder == null ? n : binder.inListSize(n);
+            return Math.max(size, n);
         }
 
         /**
@@ -0,0 +1,12 @@
+package io.github.myacelw.mybatis.dynamic.core.service;
+
+/**
+ * 异步任务装饰器。
+ * 在提交任务的线程上调用，用于捕获当前用户、权限等线程上下文，并在执行线程上恢复，
+ * 使填充器和权限获取器在异步执行、并行批量写入等任务中看到与调用方一致的上下文。
+ *
+ * @author liuwei
+ */
+public interface AsyncTaskDecorator {
+    Runnable decorate(Runnable task);
+}
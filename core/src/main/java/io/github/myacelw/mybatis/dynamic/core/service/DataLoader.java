@@ -0,0 +1,347 @@
+package io.github.myacelw.mybatis.dynamic.core.service;
+
+import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.vo.FieldValue;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.IdUtil;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
+import io.github.myacelw.mybatis.dynamic.core.util.Assert;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.SqlSession;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 按ID加载数据的批量加载器，作用域为一次请求或一个工作单元。
+ * 通过 {@link #load} 登记的ID在 {@link #dispatch()} 时按模型合并为一次 IN 查询；同一作用域内已加载的数据保存在标识映射中，重复ID直接返回同一对象。
+ * <p>
+ * 通过 {@link #open} 绑定到当前线程后，该线程上无关联、无指定字段且无权限限制的 getById、getByIds 调用自动经由加载器：
+ * 命中标识映射时不再查询，未命中时与已登记的ID一起查询。当前线程上的写操作会清除对应模型的已加载数据，
+ * 为此首次 {@link #open} 时向数据管理器获取器追加清除用的拦截器。
+ * <p>
+ * 调用方的SqlSession与加载器的不同时，仅在两者均不处于事务中（如事务外的 SqlSessionTemplate）时经由加载器，否则直接查询。
+ * <pre>
+ * try (DataLoader loader = DataLoader.open(modelService)) {
+ *     orders.forEach(order -&gt; loader.load("User", order.getUserId(), User.class).thenAccept(order::setUser));
+ *     loader.dispatch();
+ * }
+ * </pre>
+ *
+ * @author liuwei
+ */
+@Slf4j
+public class DataLoader implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+    /**
+     * 绑定到线程的加载器，在写操作后清除对应模型的已加载数据
+     */
+    private static final DataChangeInterceptor INVALIDATOR = new Invalidator();
+
+    private static final ThreadLocal<DataLoader> CURRENT = new ThreadLocal<>();
+
+    private static final Object NOT_FOUND = new Object();
+
+    @Getter
+    private final DataManagerGetter dataManagerGetter;
+
+    @Getter
+    private final SqlSession sqlSession;
+
+    /**
+     * 单次 IN 查询的最大ID数
+     */
+    @Getter
+    @Setter
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+    /**
+     * 已执行的查询次数
+     */
+    @Getter
+    private int queryCount;
+
+    private final Map<BatchKey, Map<Object, Object>> loaded = new HashMap<>();
+
+    private final Map<BatchKey, Map<Object, Pending>> pending = new LinkedHashMap<>();
+
+    private boolean dispatching;
+
+    private boolean bound;
+
+    private DataLoader previous;
+
+    public DataLoader(DataManagerGetter dataManagerGetter) {
+        this(dataManagerGetter, null);
+    }
+
+    public DataLoader(DataManagerGetter dataManagerGetter, SqlSession sqlSession) {
+        this.dataManagerGetter = dataManagerGetter;
+        this.sqlSession = sqlSession;
+    }
+
+    /**
+     * 创建加载器并绑定到当前线程，关闭时恢复之前绑定的加载器
+     */
+    public static DataLoader open(DataManagerGetter dataManagerGetter) {
+        return open(dataManagerGetter, null);
+    }
+
+    public static DataLoader open(DataManagerGetter dataManagerGetter, SqlSession sqlSession) {
+        dataManagerGetter.addInterceptor(INVALIDATOR);
+        DataLoader loader = new DataLoader(dataManagerGetter, sqlSession);
+        loader.previous = CURRENT.get();
+        loader.bound = true;
+        CURRENT.set(loader);
+        return loader;
+    }
+
+    /**
+     * 当前线程绑定的加载器，未绑定时返回null
+     */
+    public static DataLoader current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 模型上下文对应的按ID查询是否可由该加载器处理，SqlSession不同时要求两者均不处于事务中
+     */
+    public synchronized boolean isApplicable(ModelContext modelContext) {
+        return !dispatching && modelContext.getPermission() == null
+                && modelContext.getDataManagerGetter() == dataManagerGetter
+                && (modelContext.getSqlSession() == sqlSession
+                || (!modelContext.isTransactional() && !modelContext.getTransactionSupport().isTransactional(sqlSession)));
+    }
+
+    /**
+     * 登记要加载的ID，返回在 {@link #dispatch()} 后完成的结果，数据不存在时结果为null
+     *
+     * @param modelName 模型名
+     * @param id        主键值
+     * @param clazz     返回类型，为空时为Map
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CompletableFuture<T> load(String modelName, Object id, Class<T> clazz) {
+        BatchKey batchKey = new BatchKey(modelName, clazz == null ? Map.class : clazz);
+        Object key = IdUtil.getIdKey(getModel(modelName), id);
+        Assert.notNull(key, "ID [" + id + "] of model [" + modelName + "] is invalid");
+
+        Map<Object, Object> values = loaded.get(batchKey);
+        if (values != null && values.containsKey(key)) {
+            Object value = values.get(key);
+            return CompletableFuture.completedFuture(value == NOT_FOUND ? null : (T) value);
+        }
+        return (CompletableFuture<T>) pending.computeIfAbsent(batchKey, k -> new LinkedHashMap<>())
+                .computeIfAbsent(key, k -> new Pending(id)).future;
+    }
+
+    /**
+     * 按ID获取数据，未加载时与已登记的ID一起查询
+     */
+    public synchronized <T> T get(String modelName, Object id, Class<T> clazz) {
+        CompletableFuture<T> future = load(modelName, id, clazz);
+        if (!future.isDone()) {
+            dispatch();
+        }
+        return join(future);
+    }
+
+    /**
+     * 按ID列表获取数据，结果按ID顺序排列，重复及不存在的ID忽略
+     */
+    public synchronized <T> List<T> getAll(String modelName, Collection<?> ids, Class<T> clazz) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            futures.add(load(modelName, id, clazz));
+        }
+        if (futures.stream().anyMatch(t -> !t.isDone())) {
+            dispatch();
+        }
+        Set<Object> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> result = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            T value = join(future);
+            if (value != null && added.add(value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 执行全部登记的加载，每个模型和返回类型按批次大小合并为 IN 查询
+     */
+    public synchronized void dispatch() {
+        while (!pending.isEmpty()) {
+            Map<BatchKey, Map<Object, Pending>> batches = new LinkedHashMap<>(pending);
+            pending.clear();
+            batches.forEach(this::dispatch);
+        }
+    }
+
+    private void dispatch(BatchKey batchKey, Map<Object, Pending> batch) {
+        Map<Object, Object> values = loaded.computeIfAbsent(batchKey, k -> new HashMap<>());
+        List<Pending> all = new ArrayList<>(batch.values());
+        dispatching = true;
+        try {
+            DataManager<Object> dataManager = dataManagerGetter.getDataManager(batchKey.modelName, sqlSession);
+            Model model = dataManager.getModel();
+            for (int i = 0; i < all.size(); i += maxBatchSize) {
+                List<Object> ids = new ArrayList<>();
+                all.subList(i, Math.min(i + maxBatchSize, all.size())).forEach(t -> ids.add(t.id));
+                queryCount++;
+                for (Object row : dataManager.getByIdsChain(batchKey.clazz).ids(ids).exec()) {
+                    Object key = IdUtil.getDataIdKey(model, row);
+                    if (key != null) {
+                        values.put(key, row);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            batch.values().forEach(t -> t.future.completeExceptionally(e));
+            return;
+        } finally {
+            dispatching = false;
+        }
+        batch.forEach((key, p) -> {
+            Object value = values.computeIfAbsent(key, k -> NOT_FOUND);
+            p.future.complete(value == NOT_FOUND ? null : value);
+        });
+    }
+
+    /**
+     * 清除模型的已加载数据
+     */
+    public synchronized void clear(String modelName) {
+        loaded.keySet().removeIf(t -> t.modelName.equals(modelName));
+    }
+
+    public synchronized void clearAll() {
+        loaded.clear();
+    }
+
+    /**
+     * 解除线程绑定，未执行的登记加载不再执行
+     */
+    @Override
+    public synchronized void close() {
+        if (bound) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+            bound = false;
+        }
+        pending.values().forEach(batch -> batch.values().forEach(t -> t.future.cancel(false)));
+        pending.clear();
+    }
+
+    private Model getModel(String modelName) {
+        return dataManagerGetter.getDataManager(modelName, sqlSession).getModel();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class BatchKey {
+        private final String modelName;
+
+        private final Class<?> clazz;
+
+        private BatchKey(String modelName, Class<?> clazz) {
+            this.modelName = modelName;
+            this.clazz = clazz;
+        }
+    }
+
+    private static class Pending {
+        private final Object id;
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Pending(Object id) {
+            this.id = id;
+        }
+    }
+
+    private static class Invalidator implements DataChangeInterceptor {
+
+        private void changed(DataManager<Object> dataManager) {
+            DataLoader loader = CURRENT.get();
+            if (loader != null) {
+                loader.clear(dataManager.getModel().getName());
+            }
+        }
+
+        @Override
+        public void afterInsert(DataManager<Object> dataManager, Object data, Object id) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterUpdate(DataManager<Object> dataManager, Object id, Object data, List<FieldValue> fieldValues) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterUpdateByCondition(DataManager<Object> dataManager, Condition condition, Object data, List<FieldValue> fieldValues) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterLogicDelete(DataManager<Object> dataManager, Object ids, List<FieldValue> updateData) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterPhysicalDelete(DataManager<Object> dataManager, Object idOrIds) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterPhysicalDeleteByCondition(DataManager<Object> dataManager, Condition condition) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterLogicDeleteByCondition(DataManager<Object> dataManager, Condition condition) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterBatchInsert(DataManager<Object> dataManager, List<?> dataList, List<?> idList) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterBatchUpdate(DataManager<Object> dataManager, List<?> dataList) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterBatchUpdateByCondition(DataManager<Object> dataManager, List<?> updates) {
+            changed(dataManager);
+        }
+
+        @Override
+        public void afterBatchInsertOrUpdate(DataManager<Object> dataManager, List<?> dataList) {
+            changed(dataManager);
+        }
+    }
+}
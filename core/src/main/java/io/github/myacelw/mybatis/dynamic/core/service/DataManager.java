@@ -16,6 +16,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -41,6 +43,35 @@ public interface DataManager<ID> {
      */
     <R> R execCommand(@NonNull Command command);
 
+    /**
+     * 在模型服务配置的执行器上异步执行一个命令。
+     * <p>
+     * SqlSession 非线程安全，异步任务不使用当前数据管理器绑定的会话，而是在执行线程上按需打开独立会话，
+     * 因此不参与调用方事务，也看不到调用方未提交的数据。未配置执行器时在当前线程执行。
+     * <p>
+     * 填充器、权限获取器等依赖 ThreadLocal 的上下文不会自动传递到执行线程，需通过
+     * {@link io.github.myacelw.mybatis.dynamic.core.service.ModelServiceBuilder#taskDecorator} 设置任务装饰器传递。
+     */
+    default <R> CompletableFuture<R> execCommandAsync(@NonNull Command command) {
+        Executor executor = getModelContext().getExecutor();
+        if (executor == null) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            try {
+                future.complete(execCommand(command));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        DataManager<ID> taskDataManager = withoutSqlSession();
+        return CompletableFuture.supplyAsync(() -> taskDataManager.execCommand(command), executor);
+    }
+
+    /**
+     * 得到不绑定会话的数据管理器，权限与当前数据管理器相同，用于在其他线程上执行命令；当前未绑定会话时返回自身
+     */
+    DataManager<ID> withoutSqlSession();
+
     /**
      * 插入单条数据。
      * <p>
@@ -80,6 +111,18 @@ public interface DataManager<ID> {
         return execCommand(command);
     }
 
+    /**
+     * 获取流式批量插入的处理链。
+     * <p>
+     * 数据从 Iterator、Stream 等数据源按批读取并插入，内存占用只与批量大小有关，适用于超过内存容量的数据导入；
+     * 各批插入的主键通过回调返回。
+     *
+     * @return StreamInsertChain 实例。
+     */
+    default StreamInsertChain<ID> streamInsertChain() {
+        return new StreamInsertChain<>(this);
+    }
+
     /**
      * 获取更新操作的处理链。
      * <p>
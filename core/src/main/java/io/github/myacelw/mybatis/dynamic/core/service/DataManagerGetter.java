@@ -23,6 +23,12 @@ public interface DataManagerGetter {
 
     boolean isModelExist(String modelName);
 
+    /**
+     * 为全部模型追加数据变更拦截器，已存在时忽略；不支持时不做处理
+     */
+    default void addInterceptor(DataChangeInterceptor interceptor) {
+    }
+
     default ModelContext getModelContext(String modelName) {
         DataManager<?> dataManager = getDataManager(modelName, null);
         return dataManager.getModelContext();
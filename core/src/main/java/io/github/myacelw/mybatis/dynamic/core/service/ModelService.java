@@ -13,7 +13,14 @@ import java.util.List;
  *
  * @author liuwei
  */
-public interface ModelService extends DataManagerGetter {
+public interface ModelService extends DataManagerGetter, AutoCloseable {
+
+    /**
+     * 释放服务持有的资源，如默认创建的执行器；关闭后不能再执行并行写入及异步操作
+     */
+    @Override
+    default void close() {
+    }
 
     /**
      * 更新模型，变更存储数据涉及的数据库表结构、索引等。
@@ -1,6 +1,5 @@
 package io.github.myacelw.mybatis.dynamic.core.service;
 
-import io.github.myacelw.mybatis.dynamic.core.database.MybatisHelper;
 import io.github.myacelw.mybatis.dynamic.core.database.TableManager;
 import io.github.myacelw.mybatis.dynamic.core.database.dialect.DataBaseDialect;
 import io.github.myacelw.mybatis.dynamic.core.database.impl.DataBaseMetaDataHelperImpl;
@@ -12,13 +11,16 @@ import io.github.myacelw.mybatis.dynamic.core.service.handler.ColumnTypeHandler;
 import io.github.myacelw.mybatis.dynamic.core.service.impl.Class2ModelTransferImpl;
 import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelServiceImpl;
 import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelToTableConverterImpl;
+import io.github.myacelw.mybatis.dynamic.core.util.tuple.Tuple;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.session.SqlSessionFactory;
 
 import java.lang.annotation.Annotation;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * 模型服务构建器
@@ -33,6 +35,66 @@ public class ModelServiceBuilder {
     DataBaseDialect dialect;
     Integer rowLimit;
     Integer timeoutSeconds;
+    /**
+     * 编译后SQL缓存条目数，默认 2048，小于等于0时不缓存
+     */
+    Integer sqlSourceCacheSize;
+    /**
+     * 动态 MappedStatement 及 ResultMap 注册条目数，默认 4096，超出后按LRU淘汰
+     */
+    Integer statementCacheSize;
+    /**
+     * 查询计划缓存条目数，默认 1024，小于等于0时不缓存
+     */
+    Integer queryPlanCacheSize;
+    /**
+     * 分页总记录数缓存条目数，默认 1024，小于等于0时不缓存
+     */
+    Integer pageCountCacheSize;
+    /**
+     * 查询结果缓存条目数，默认不缓存
+     */
+    Integer resultCacheSize;
+    /**
+     * 查询结果缓存过期秒数，默认 60
+     */
+    Integer resultCacheTtlSeconds;
+    /**
+     * 查询结果缓存单个条目最大行数，默认 1000，结果行数超过时不缓存
+     */
+    Integer resultCacheMaxRows;
+    /**
+     * 实体缓存配置，key为模型名，值为缓存条数和过期秒数
+     */
+    Map<String, Tuple<Integer, Integer>> entityCaches = new LinkedHashMap<>();
+    /**
+     * 是否使用扁平参数绑定，条件值按下标引用，避免MyBatis逐级导航条件对象取值
+     */
+    Boolean flatParameterBinding;
+    /**
+     * 是否开启IN列表分桶，IN列表按分桶大小以最后一个值补齐，减少不同长度列表产生的SQL种类
+     */
+    Boolean inListBucketing;
+    /**
+     * 超长IN列表阈值，值个数超过该阈值时改写为 VALUES 派生表等形式，避免超出参数个数或IN元素上限，默认0不改写
+     */
+    Integer largeInListThreshold;
+    /**
+     * 批量写入是否加入调用方会话的事务，开启后复用调用方连接执行批量语句且不单独提交
+     */
+    Boolean batchJoinTransaction;
+    /**
+     * 并行批量写入及异步执行使用的执行器，默认 JDK 21 及以上使用虚拟线程，否则使用线程数有限的守护线程池，关闭模型服务时一并关闭
+     */
+    Executor executor;
+    /**
+     * 异步任务装饰器，用于将调用方线程上下文传递到执行线程
+     */
+    AsyncTaskDecorator taskDecorator;
+    /**
+     * 事务判断支持，用于缓存和并行查询判断当前操作是否处于调用方事务中
+     */
+    TransactionSupport transactionSupport;
     List<Filler> fillers;
     List<DataChangeInterceptor> interceptors;
     PermissionGetter permissionGetter;
@@ -85,6 +147,88 @@ public class ModelServiceBuilder {
         return this;
     }
 
+    public ModelServiceBuilder sqlSourceCacheSize(Integer sqlSourceCacheSize) {
+        this.sqlSourceCacheSize = sqlSourceCacheSize;
+        return this;
+    }
+
+    public ModelServiceBuilder statementCacheSize(Integer statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+        return this;
+    }
+
+    public ModelServiceBuilder executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public ModelServiceBuilder taskDecorator(AsyncTaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+        return this;
+    }
+
+    public ModelServiceBuilder transactionSupport(TransactionSupport transactionSupport) {
+        this.transactionSupport = transactionSupport;
+        return this;
+    }
+
+    public ModelServiceBuilder batchJoinTransaction(Boolean batchJoinTransaction) {
+        this.batchJoinTransaction = batchJoinTransaction;
+        return this;
+    }
+
+    public ModelServiceBuilder queryPlanCacheSize(Integer queryPlanCacheSize) {
+        this.queryPlanCacheSize = queryPlanCacheSize;
+        return this;
+    }
+
+    public ModelServiceBuilder pageCountCacheSize(Integer pageCountCacheSize) {
+        this.pageCountCacheSize = pageCountCacheSize;
+        return this;
+    }
+
+    public ModelServiceBuilder resultCacheSize(Integer resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+        return this;
+    }
+
+    public ModelServiceBuilder resultCacheTtlSeconds(Integer resultCacheTtlSeconds) {
+        this.resultCacheTtlSeconds = resultCacheTtlSeconds;
+        return this;
+    }
+
+    public ModelServiceBuilder resultCacheMaxRows(Integer resultCacheMaxRows) {
+        this.resultCacheMaxRows = resultCacheMaxRows;
+        return this;
+    }
+
+    /**
+     * 开启模型的实体缓存，缓存按ID查询的结果
+     *
+     * @param modelName  模型名
+     * @param size       缓存条数，小于等于0时不缓存
+     * @param ttlSeconds 过期秒数
+     */
+    public ModelServiceBuilder entityCache(String modelName, int size, int ttlSeconds) {
+        this.entityCaches.put(modelName, new Tuple<>(size, ttlSeconds));
+        return this;
+    }
+
+    public ModelServiceBuilder flatParameterBinding(Boolean flatParameterBinding) {
+        this.flatParameterBinding = flatParameterBinding;
+        return this;
+    }
+
+    public ModelServiceBuilder inListBucketing(Boolean inListBucketing) {
+        this.inListBucketing = inListBucketing;
+        return this;
+    }
+
+    public ModelServiceBuilder largeInListThreshold(Integer largeInListThreshold) {
+        this.largeInListThreshold = largeInListThreshold;
+        return this;
+    }
+
     public ModelServiceBuilder fillers(List<Filler> fillers) {
         this.fillers = fillers;
         return this;
@@ -153,7 +297,8 @@ public class ModelServiceBuilder {
 
     public ModelServiceImpl build() {
         DataBaseMetaDataHelperImpl dataBaseMetaDataHelper = new DataBaseMetaDataHelperImpl(sqlSessionFactory);
-        MybatisHelper mybatisHelper = new MybatisHelperImpl(sqlSessionFactory, rowLimit, timeoutSeconds);
+        MybatisHelperImpl mybatisHelper = new MybatisHelperImpl(sqlSessionFactory, rowLimit, timeoutSeconds, sqlSourceCacheSize, statementCacheSize);
+        mybatisHelper.setBatchJoinTransaction(Boolean.TRUE.equals(batchJoinTransaction));
         if (this.dialect == null) {
             String dbProductName = dataBaseMetaDataHelper.getDatabaseProductName();
             for (DataBaseDialect instance : DataBaseDialect.getInstances()) {
@@ -167,6 +312,7 @@ public class ModelServiceBuilder {
                 throw new IllegalArgumentException("No supported database type found for: " + dbProductName + ", please specify database dialect directly");
             }
         }
+        dialect.setDatabaseVersion(dataBaseMetaDataHelper.getDatabaseProductVersion());
 
         TableManager tableManager = new TableManagerImpl(dataBaseMetaDataHelper, mybatisHelper, dialect);
         Map<String, Filler> mergedFiller = new HashMap<>();
@@ -205,6 +351,38 @@ public class ModelServiceBuilder {
 
         modelService.setLogPath(logPath);
 
+        if (queryPlanCacheSize != null) {
+            modelService.setQueryPlanCacheSize(queryPlanCacheSize);
+        }
+
+        if (pageCountCacheSize != null) {
+            modelService.setPageCountCacheSize(pageCountCacheSize);
+        }
+
+        if (resultCacheSize != null) {
+            modelService.setResultCache(resultCacheSize,
+                    resultCacheTtlSeconds == null ? ModelServiceImpl.DEFAULT_RESULT_CACHE_TTL_SECONDS : resultCacheTtlSeconds,
+                    resultCacheMaxRows == null ? ModelServiceImpl.DEFAULT_RESULT_CACHE_MAX_ROWS : resultCacheMaxRows);
+        }
+
+        entityCaches.forEach((modelName, config) -> modelService.setEntityCache(modelName, config.v1, config.v2));
+
+        modelService.setFlatParameterBinding(flatParameterBinding == Boolean.TRUE);
+
+        modelService.setInListBucketing(inListBucketing == Boolean.TRUE);
+
+        if (largeInListThreshold != null) {
+            modelService.setLargeInListThreshold(largeInListThreshold);
+        }
+
+        if (executor != null) {
+            modelService.setExecutor(executor);
+        }
+
+        modelService.setTaskDecorator(taskDecorator);
+
+        modelService.setTransactionSupport(transactionSupport);
+
         return modelService;
 
     }
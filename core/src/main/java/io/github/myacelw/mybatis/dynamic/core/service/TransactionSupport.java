@@ -0,0 +1,37 @@
+package io.github.myacelw.mybatis.dynamic.core.service;
+
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * 事务判断支持，供实体缓存、查询结果缓存、批量加载器及并行查询判断当前操作是否处于调用方事务中。
+ * 事务内读到的数据可能未提交，不放入缓存、不并行执行；事务内的写操作在事务结束后再次失效缓存。
+ * <p>
+ * 默认实现认为指定了SqlSession即处于事务中，且无法感知事务结束。
+ *
+ * @author liuwei
+ */
+public interface TransactionSupport {
+
+    TransactionSupport DEFAULT = new TransactionSupport() {
+    };
+
+    /**
+     * 当前操作是否处于调用方事务中
+     *
+     * @param sqlSession 模型上下文中的SqlSession，可为空
+     */
+    default boolean isTransactional(SqlSession sqlSession) {
+        return sqlSession != null;
+    }
+
+    /**
+     * 注册在当前事务结束（提交或回滚）后执行的操作
+     *
+     * @param sqlSession 模型上下文中的SqlSession，可为空
+     * @param action     事务结束后执行的操作
+     * @return 无法注册时返回false
+     */
+    default boolean afterCompletion(SqlSession sqlSession, Runnable action) {
+        return false;
+    }
+}
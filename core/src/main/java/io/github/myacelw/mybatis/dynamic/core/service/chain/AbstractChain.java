@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -43,6 +44,11 @@ public abstract class AbstractChain<ID, R, C extends Command, B extends Abstract
         return dataManager.execCommand(build());
     }
 
+    @Override
+    public final CompletableFuture<R> execAsync() {
+        return dataManager.execCommandAsync(build());
+    }
+
     /**
      * 集合中放入新元素
      */
@@ -110,4 +110,16 @@ public abstract class AbstractQueryChain<ID, T, R, C extends AbstractQueryComman
         return self();
     }
 
+    /**
+     * 使用查询结果缓存，需在模型服务中开启查询结果缓存；涉及模型发生写操作时缓存失效
+     */
+    public B cacheResult() {
+        return cacheResult(true);
+    }
+
+    public B cacheResult(boolean cacheResult) {
+        command.setCacheResult(cacheResult);
+        return self();
+    }
+
 }
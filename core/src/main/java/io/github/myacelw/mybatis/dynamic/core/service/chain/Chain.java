@@ -1,5 +1,7 @@
 package io.github.myacelw.mybatis.dynamic.core.service.chain;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 命令处理链
  *
@@ -7,4 +9,18 @@ package io.github.myacelw.mybatis.dynamic.core.service.chain;
  */
 public interface Chain<R> {
     R exec();
+
+    /**
+     * 在模型服务配置的执行器上异步执行，任务使用独立会话，见 {@link io.github.myacelw.mybatis.dynamic.core.service.DataManager#execCommandAsync}；
+     * 默认实现在当前线程同步执行
+     */
+    default CompletableFuture<R> execAsync() {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            future.complete(exec());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
 }
@@ -66,6 +66,21 @@ public class FillDataChain<ID> extends AbstractChain<ID, Void, FillDataCommand,
         return this;
     }
 
+    /**
+     * 每次关联查询的最大ID数，默认 1000
+     */
+    public FillDataChain<ID> chunkSize(int chunkSize) {
+        command.setChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * 关联查询的最大并行数，默认 4，小于等于1时顺序执行
+     */
+    public FillDataChain<ID> parallelism(int parallelism) {
+        command.setParallelism(parallelism);
+        return this;
+    }
 
     public static class FillFieldBuilder {
 
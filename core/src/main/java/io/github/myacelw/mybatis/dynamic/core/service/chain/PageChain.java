@@ -1,5 +1,7 @@
 package io.github.myacelw.mybatis.dynamic.core.service.chain;
 
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.CountStrategy;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Keyset;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.PageResult;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
@@ -33,5 +35,46 @@ public class PageChain<ID, T> extends AbstractSelectQueryChain<ID, T, PageResult
         return this;
     }
 
+    /**
+     * 设置键集分页位置，按排序字段值定位，不使用 OFFSET
+     */
+    public PageChain<ID, T> keyset(Keyset keyset) {
+        command.setKeyset(keyset);
+        return this;
+    }
+
+    /**
+     * 键集分页，从游标位置之后查询 size 条数据；游标为空时查询第一页
+     */
+    public PageChain<ID, T> keyset(String cursor, int size) {
+        command.setKeyset(Keyset.cursor(cursor));
+        command.setPage(new Page(1, size));
+        return this;
+    }
+
+    /**
+     * 设置总记录数统计策略
+     */
+    public PageChain<ID, T> countStrategy(CountStrategy countStrategy) {
+        command.setCountStrategy(countStrategy);
+        return this;
+    }
+
+    /**
+     * 总记录数按查询条件缓存指定秒数
+     */
+    public PageChain<ID, T> cachedCount(int seconds) {
+        command.setCountStrategy(CountStrategy.CACHED);
+        command.setCountCacheSeconds(seconds);
+        return this;
+    }
+
+    /**
+     * 总记录数统计与数据查询并发执行
+     */
+    public PageChain<ID, T> concurrentCount() {
+        command.setConcurrentCount(true);
+        return this;
+    }
 
 }
@@ -39,4 +39,19 @@ public class QueryChain<ID, T> extends AbstractSelectQueryChain<ID, T, List<T>,
         return this;
     }
 
+    /**
+     * 一对多关联拆分查询，每个一对多关联按主查询结果的主键单独批量查询
+     */
+    public QueryChain<ID, T> splitQuery() {
+        return splitQuery(true);
+    }
+
+    /**
+     * 设置是否拆分查询一对多关联，为null时按关联数量自动选择
+     */
+    public QueryChain<ID, T> splitQuery(Boolean splitQuery) {
+        command.setSplitQuery(splitQuery);
+        return this;
+    }
+
 }
@@ -0,0 +1,52 @@
+package io.github.myacelw.mybatis.dynamic.core.service.chain;
+
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCursorCommand;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+
+/**
+ * 游标查询的 Reactor 适配，需要 reactor-core。
+ * 独立于 {@link QueryCursorChain}，未引入 reactor-core 时不影响游标查询链的使用。
+ *
+ * @author liuwei
+ */
+@Slf4j
+public final class ReactorCursors {
+
+    private ReactorCursors() {
+    }
+
+    /**
+     * 以 Flux 形式流式返回游标查询结果。
+     * 在 boundedElastic 调度器上打开游标并按下游请求逐行读取，完成、出错或取消时关闭游标并释放会话和连接。
+     */
+    public static <ID, T> Flux<T> flux(QueryCursorChain<ID, T> chain) {
+        return flux(chain, Schedulers.boundedElastic());
+    }
+
+    /**
+     * 以 Flux 形式流式返回游标查询结果，阻塞的JDBC操作在指定调度器上执行。
+     * 查询使用独立会话，不参与调用方事务。
+     */
+    public static <ID, T> Flux<T> flux(QueryCursorChain<ID, T> chain, Scheduler scheduler) {
+        DataManager<ID> taskDataManager = chain.dataManager.withoutSqlSession();
+        QueryCursorCommand<T> cursorCommand = chain.build();
+        return Flux.using(() -> taskDataManager.<Cursor<T>>execCommand(cursorCommand), Flux::fromIterable, ReactorCursors::closeCursor)
+                .subscribeOn(scheduler);
+    }
+
+    private static void closeCursor(Cursor<?> cursor) {
+        try {
+            cursor.close();
+        } catch (IOException e) {
+            log.warn("Failed to close cursor", e);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.github.myacelw.mybatis.dynamic.core.service.chain;
+
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.command.StreamInsertCommand;
+import lombok.NonNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 流式批量插入处理链，数据源可以是 Iterator、Iterable、Stream 或 Spliterator，返回插入总行数。
+ * 每批数据单独执行批量插入，未开启加入调用方事务时各批独立提交。
+ *
+ * @author liuwei
+ */
+public class StreamInsertChain<ID> extends AbstractChain<ID, Long, StreamInsertCommand, StreamInsertChain<ID>> {
+
+    public StreamInsertChain(DataManager<ID> dataManager) {
+        super(dataManager, StreamInsertCommand::new);
+    }
+
+    public StreamInsertChain<ID> data(@NonNull Iterator<?> data) {
+        command.setData(data);
+        return self();
+    }
+
+    public StreamInsertChain<ID> data(@NonNull Iterable<?> data) {
+        return data(data.iterator());
+    }
+
+    /**
+     * 设置数据流，流由调用方负责关闭
+     */
+    public StreamInsertChain<ID> data(@NonNull Stream<?> data) {
+        return data(data.iterator());
+    }
+
+    public StreamInsertChain<ID> data(@NonNull Spliterator<?> data) {
+        return data(Spliterators.iterator(data));
+    }
+
+    /**
+     * 设置每批读取并插入的数据条数
+     */
+    public StreamInsertChain<ID> batchSize(int batchSize) {
+        command.setBatchSize(batchSize);
+        return self();
+    }
+
+    /**
+     * 设置每条 INSERT 语句插入的最大行数
+     */
+    public StreamInsertChain<ID> rowsPerStatement(int rowsPerStatement) {
+        command.setRowsPerStatement(rowsPerStatement);
+        return self();
+    }
+
+    public StreamInsertChain<ID> disableGenerateId() {
+        command.setDisableGenerateId(true);
+        return self();
+    }
+
+    /**
+     * 使用数据库批量加载（如 PostgreSQL 的 COPY）写入
+     */
+    public StreamInsertChain<ID> bulkLoad() {
+        command.setBulkLoad(true);
+        return self();
+    }
+
+    /**
+     * 设置每批插入后的主键回调
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StreamInsertChain<ID> idConsumer(Consumer<List<ID>> idConsumer) {
+        command.setIdConsumer((Consumer) idConsumer);
+        return self();
+    }
+}
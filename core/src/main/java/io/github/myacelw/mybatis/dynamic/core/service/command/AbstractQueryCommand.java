@@ -43,6 +43,11 @@ public abstract class AbstractQueryCommand<T> implements Command {
      */
     boolean ignoreLogicDelete;
 
+    /**
+     * 是否使用查询结果缓存，需在模型服务中开启查询结果缓存
+     */
+    boolean cacheResult;
+
     /**
      * 拷贝属性设置
      */
@@ -52,6 +57,7 @@ public abstract class AbstractQueryCommand<T> implements Command {
         setOrderItems(source.getOrderItems());
         setClazz(source.getClazz());
         setIgnoreLogicDelete(source.isIgnoreLogicDelete());
+        setCacheResult(source.isCacheResult());
     }
 
 }
@@ -28,4 +28,33 @@ public class BatchInsertCommand implements Command {
       * 批量插入的大小，默认值为1000
       */
     int batchSize = 1000;
+
+    /**
+     * 每条 INSERT 语句插入的最大行数，大于1时使用 INSERT ... VALUES (...), (...) 多行插入，
+     * 实际行数还受数据库方言的参数个数上限约束；默认0表示每行一条语句
+     */
+    int rowsPerStatement = 0;
+
+    /**
+     * 是否按插入列分组执行，使每个JDBC批次只包含同一SQL；分组会改变插入顺序及自增主键的分配顺序。
+     * 默认按输入顺序执行，仅合并相邻的相同SQL
+     */
+    boolean groupBySql;
+
+    /**
+     * 是否使用数据库批量加载（如 PostgreSQL 的 COPY）写入，适用于大批量导入；
+     * 仅在方言支持且主键无需由数据库生成时生效，否则按普通批量插入执行
+     */
+    boolean bulkLoad;
+
+    /**
+     * 并行度，大于1时数据按输入顺序连续划分为多个分区，各分区在独立线程上使用独立连接写入并各自提交，
+     * 分区之间的执行顺序不确定；处于调用方事务中时不并行
+     */
+    int parallelism = 1;
+
+    /**
+     * 并行写入时每个分区失败后的重试次数，分区在一个事务内写入，失败时整体回滚后重试
+     */
+    int maxRetries = 0;
 }
@@ -28,4 +28,19 @@ public class BatchInsertOrUpdateCommand implements Command {
       */
     int batchSize = 1000;
 
+    /**
+     * 数据库方言支持批量插入或更新语法时，每条语句包含的最大行数，实际行数还受参数个数上限约束
+     */
+    int rowsPerStatement = 100;
+
+    /**
+     * 并行度，大于1时数据按输入顺序连续划分为多个分区，各分区在独立线程上使用独立连接写入并各自提交，
+     * 分区之间的执行顺序不确定；处于调用方事务中时不并行
+     */
+    int parallelism = 1;
+
+    /**
+     * 并行写入时每个分区失败后的重试次数，分区在一个事务内写入，失败时整体回滚后重试
+     */
+    int maxRetries = 0;
 }
@@ -30,4 +30,14 @@ public class CountCommand implements Command {
      */
     List<Join> joins;
 
+    /**
+     * 是否使用查询结果缓存，需在模型服务中开启查询结果缓存
+     */
+    boolean cacheResult;
+
+    public CountCommand(Condition condition, List<Join> joins) {
+        this.condition = condition;
+        this.joins = joins;
+    }
+
 }
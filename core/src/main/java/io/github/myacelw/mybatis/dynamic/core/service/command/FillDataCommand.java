@@ -11,11 +11,14 @@ import java.util.List;
  * @author liuwei
  */
 @Data
-@AllArgsConstructor
 @RequiredArgsConstructor
 @NoArgsConstructor
 public class FillDataCommand implements Command {
 
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    public static final int DEFAULT_PARALLELISM = 4;
+
     /**
      * 待填充的数据
      */
@@ -27,6 +30,20 @@ public class FillDataCommand implements Command {
      */
     List<FillField> fillFields;
 
+    /**
+     * 每次关联查询的最大ID数，ID集合按该大小分批查询
+     */
+    int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * 关联查询的最大并行数，小于等于1时顺序执行；在调用方事务（指定SqlSession）内时总是顺序执行
+     */
+    int parallelism = DEFAULT_PARALLELISM;
+
+    public FillDataCommand(@NonNull List data, List<FillField> fillFields) {
+        this.data = data;
+        this.fillFields = fillFields;
+    }
 
     @Data
     @AllArgsConstructor
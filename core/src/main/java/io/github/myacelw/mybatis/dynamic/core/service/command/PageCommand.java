@@ -1,5 +1,7 @@
 package io.github.myacelw.mybatis.dynamic.core.service.command;
 
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.CountStrategy;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Keyset;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -20,6 +22,27 @@ public class PageCommand<T> extends AbstractSelectQueryCommand<T> {
      */
     Page page;
 
+    /**
+     * 键集分页位置，不为空时按排序字段值定位，此时分页的页号被忽略，结果不统计总记录数
+     */
+    Keyset keyset;
+
+    /**
+     * 总记录数统计策略，为空时精确统计
+     */
+    CountStrategy countStrategy;
+
+    /**
+     * 缓存统计策略下总记录数的缓存秒数
+     */
+    int countCacheSeconds = 60;
+
+    /**
+     * 是否在独立会话中与数据查询并发执行总记录数统计，不可见调用方会话中未提交的修改。
+     * 第一页未满时总记录数由当前页数据推算，因此第一页不并发统计；处于调用方事务中时不并发统计
+     */
+    boolean concurrentCount;
+
     public static PageCommand<Map<String, Object>> build() {
         return new PageCommand<>();
     }
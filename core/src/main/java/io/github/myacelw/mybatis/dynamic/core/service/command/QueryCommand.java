@@ -1,5 +1,6 @@
 package io.github.myacelw.mybatis.dynamic.core.service.command;
 
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Keyset;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -20,6 +21,23 @@ public class QueryCommand<T> extends AbstractSelectQueryCommand<T> {
      */
     Page page;
 
+    /**
+     * 键集分页位置，不为空时按排序字段值定位，此时分页的页号被忽略。
+     * 查询结果不返回下一页游标，需要游标时使用 {@link PageCommand}
+     */
+    Keyset keyset;
+
+    /**
+     * 分页时多查询一行用于判断是否有下一页，偏移量不变
+     */
+    boolean lookAhead;
+
+    /**
+     * 一对多关联拆分查询：主查询不再 Join 主模型的一对多关联字段，按主查询结果的主键为每个关联分别批量查询后在内存中组装。
+     * 为null时，未分页且存在多个一对多关联时自动拆分；拆分后分页按主模型行数计算。
+     */
+    Boolean splitQuery;
+
 
     public static QueryCommand<Map<String, Object>> build() {
         return new QueryCommand<>();
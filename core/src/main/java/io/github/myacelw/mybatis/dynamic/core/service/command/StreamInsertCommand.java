@@ -0,0 +1,47 @@
+package io.github.myacelw.mybatis.dynamic.core.service.command;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 流式批量插入命令，数据按批读取并插入，内存占用只与批量大小有关，返回插入总行数
+ *
+ * @author liuwei
+ */
+@Data
+@NoArgsConstructor
+public class StreamInsertCommand implements Command {
+
+    @NonNull
+    Iterator<?> data;
+
+    /**
+     * 禁用主键生成
+     */
+    private boolean disableGenerateId;
+
+    /**
+     * 每批读取并插入的数据条数，默认值为1000
+     */
+    int batchSize = 1000;
+
+    /**
+     * 每条 INSERT 语句插入的最大行数，含义同 {@link BatchInsertCommand#getRowsPerStatement()}
+     */
+    int rowsPerStatement = 0;
+
+    /**
+     * 是否使用数据库批量加载写入，含义同 {@link BatchInsertCommand#isBulkLoad()}
+     */
+    boolean bulkLoad;
+
+    /**
+     * 每批插入后的主键回调，主键顺序与该批数据顺序一致
+     */
+    Consumer<List<Object>> idConsumer;
+}
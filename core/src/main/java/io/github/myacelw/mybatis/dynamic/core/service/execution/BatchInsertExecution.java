@@ -1,5 +1,8 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
+import io.github.myacelw.mybatis.dynamic.core.database.BulkLoader;
+import io.github.myacelw.mybatis.dynamic.core.database.MybatisHelper;
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.DataBaseDialect;
 import io.github.myacelw.mybatis.dynamic.core.event.data.BatchInsertDataEvent;
 import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
 import io.github.myacelw.mybatis.dynamic.core.metadata.enums.KeyGeneratorMode;
@@ -13,6 +16,7 @@ import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -34,15 +38,32 @@ public class BatchInsertExecution<ID> extends AbstractExecution<ID, List<ID>, Ba
     @Override
     public List<ID> exec(BatchInsertCommand command, DataManager<ID> dataManager) {
         ModelContext modelContext = dataManager.getModelContext();
-        Model model = modelContext.getModel();
-        KeyGeneratorMode keyGeneratorMode = command.isDisableGenerateId() ? KeyGeneratorMode.NONE : model.getUsedKeyGeneratorModel(modelContext.getDialect());
-        BasicField generateValueField = model.getFirstPrimaryKeyFieldObj();
-
         List<?> dataList = command.getData();
         if (dataList == null || dataList.isEmpty()) {
             return new ArrayList<>();
         }
+        if (PartitionedBatchSupport.isParallel(modelContext, command.getParallelism(), dataList.size())) {
+            // 拦截器及事件针对整批数据只触发一次，分区失败重试时不重复触发
+            modelContext.getInterceptor().beforeBatchInsert((DataManager<Object>) dataManager, dataList);
+            List<List<ID>> results = PartitionedBatchSupport.execute(dataManager, dataList, command.getParallelism(), command.getMaxRetries(),
+                    (partitionDataManager, partition) -> insert(partitionCommand(command, partition), partitionDataManager, false));
+            List<ID> idList = results.stream().flatMap(List::stream).collect(Collectors.toList());
+            modelContext.getInterceptor().afterBatchInsert((DataManager<Object>) dataManager, dataList, idList);
+            modelContext.sendEvent(new BatchInsertDataEvent(modelContext.getModel(), dataList));
+            return idList;
+        }
+        return insert(command, dataManager, true);
+    }
 
+    /**
+     * @param notify 是否触发拦截器及事件
+     */
+    private List<ID> insert(BatchInsertCommand command, DataManager<ID> dataManager, boolean notify) {
+        ModelContext modelContext = dataManager.getModelContext();
+        Model model = modelContext.getModel();
+        KeyGeneratorMode keyGeneratorMode = command.isDisableGenerateId() ? KeyGeneratorMode.NONE : model.getUsedKeyGeneratorModel(modelContext.getDialect());
+        BasicField generateValueField = model.getFirstPrimaryKeyFieldObj();
+        List<?> dataList = command.getData();
         List<Object> genValueList = null;
         List<String> skipFields = new ArrayList<>();
         List<List<FieldValue>> fieldValuesList = new ArrayList<>();
@@ -70,10 +91,23 @@ public class BatchInsertExecution<ID> extends AbstractExecution<ID, List<ID>, Ba
             InsertExecution.convertTableDataForInsert(dataManager, dataIterator.next(), fieldValues, skipFields, false);
         }
 
-        modelContext.getInterceptor().beforeBatchInsert((DataManager<Object>) dataManager, dataList);
+        if (notify) {
+            modelContext.getInterceptor().beforeBatchInsert((DataManager<Object>) dataManager, dataList);
+        }
 
         // 执行 insert 返回产生的值
-        List<Object> insertGenValueList = batchInsert(modelContext, keyGeneratorMode, fieldValuesList, command.getBatchSize());
+        List<Object> insertGenValueList;
+        BulkLoader bulkLoader = command.isBulkLoad() ? getBulkLoader(modelContext, keyGeneratorMode) : null;
+        List<MybatisHelper.BatchItem> multiRowItems = bulkLoader == null && useMultiRowInsert(modelContext, keyGeneratorMode, command.getRowsPerStatement()) ?
+                getMultiRowInsertItems(modelContext, fieldValuesList, command.getRowsPerStatement()) : null;
+        if (bulkLoader != null) {
+            bulkLoad(modelContext, bulkLoader, keyGeneratorMode, fieldValuesList, command.getBatchSize());
+            insertGenValueList = null;
+        } else if (multiRowItems != null) {
+            insertGenValueList = multiRowInsert(modelContext, keyGeneratorMode, multiRowItems, command.getBatchSize() / command.getRowsPerStatement());
+        } else {
+            insertGenValueList = batchInsert(modelContext, keyGeneratorMode, fieldValuesList, command.getBatchSize(), command.isGroupBySql());
+        }
 
 
         // 处理主键生成
@@ -93,19 +127,143 @@ public class BatchInsertExecution<ID> extends AbstractExecution<ID, List<ID>, Ba
         }
         //得到主键值
 
-        modelContext.getInterceptor().afterBatchInsert((DataManager<Object>) dataManager, dataList, idList);
-        modelContext.sendEvent(new BatchInsertDataEvent(modelContext.getModel(), dataList));
+        if (notify) {
+            modelContext.getInterceptor().afterBatchInsert((DataManager<Object>) dataManager, dataList, idList);
+            modelContext.sendEvent(new BatchInsertDataEvent(modelContext.getModel(), dataList));
+        }
 
         return idList;
     }
 
-    private static List<Object> batchInsert(ModelContext modelContext, KeyGeneratorMode keyGeneratorMode, List<List<FieldValue>> fieldValuesList, int batchSize) {
+    private static BatchInsertCommand partitionCommand(BatchInsertCommand command, List<?> partition) {
+        BatchInsertCommand partitionCommand = new BatchInsertCommand();
+        partitionCommand.setData(partition);
+        partitionCommand.setDisableGenerateId(command.isDisableGenerateId());
+        partitionCommand.setBatchSize(command.getBatchSize());
+        partitionCommand.setRowsPerStatement(command.getRowsPerStatement());
+        partitionCommand.setBulkLoad(command.isBulkLoad());
+        partitionCommand.setGroupBySql(command.isGroupBySql());
+        return partitionCommand;
+    }
+
+    /**
+     * 得到批量加载器，方言不支持或主键需由数据库生成时返回null
+     */
+    private static BulkLoader getBulkLoader(ModelContext modelContext, KeyGeneratorMode keyGeneratorMode) {
+        if (keyGeneratorMode == KeyGeneratorMode.AUTO_INCREMENT || keyGeneratorMode == KeyGeneratorMode.SEQUENCE) {
+            return null;
+        }
+        return modelContext.getDialect().getBulkLoader();
+    }
+
+    /**
+     * 将连续的、插入列相同的行作为一次批量加载，行值在加载时按需读取。
+     * 含指定了类型处理器的列时批量加载器无法转换其值，这部分行按普通批量插入执行
+     */
+    private static void bulkLoad(ModelContext modelContext, BulkLoader bulkLoader, KeyGeneratorMode keyGeneratorMode, List<List<FieldValue>> fieldValuesList, int batchSize) {
+        String table = modelContext.getModel().getSchemaAndTableName();
+        int size = fieldValuesList.size();
+        int start = 0;
+        while (start < size) {
+            List<FieldValue> first = fieldValuesList.get(start);
+            int end = start + 1;
+            while (end < size && sameFields(first, fieldValuesList.get(end))) {
+                end++;
+            }
+            if (first.stream().anyMatch(t -> t.getField().getTypeHandlerClass() != null)) {
+                batchInsert(modelContext, keyGeneratorMode, fieldValuesList.subList(start, end), batchSize, false);
+            } else {
+                List<String> columns = first.stream().map(t -> t.getField().getColumnName()).collect(Collectors.toList());
+                Iterator<Object[]> rows = fieldValuesList.subList(start, end).stream()
+                        .map(fieldValues -> fieldValues.stream().map(FieldValue::getValue).toArray())
+                        .iterator();
+                modelContext.getMybatisHelper().bulkLoad(modelContext.getSqlSession(), bulkLoader, table, columns, rows);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * 是否使用多行插入，序列主键需逐行取值，自增主键需方言支持多行返回
+     */
+    private static boolean useMultiRowInsert(ModelContext modelContext, KeyGeneratorMode keyGeneratorMode, int rowsPerStatement) {
+        if (rowsPerStatement <= 1 || keyGeneratorMode == KeyGeneratorMode.SEQUENCE) {
+            return false;
+        }
+        return keyGeneratorMode != KeyGeneratorMode.AUTO_INCREMENT || modelContext.getDialect().supportMultiRowInsertGeneratedKeys();
+    }
+
+    /**
+     * 将连续的、插入列相同的行合并为多行插入语句，每条语句行数不超过 rowsPerStatement 且参数个数不超过方言上限；
+     * 方言不支持多行插入时返回null
+     */
+    private static List<MybatisHelper.BatchItem> getMultiRowInsertItems(ModelContext modelContext, List<List<FieldValue>> fieldValuesList, int rowsPerStatement) {
+        DataBaseDialect dialect = modelContext.getDialect();
+        String table = modelContext.getModel().getSchemaAndTableName();
+        List<MybatisHelper.BatchItem> items = new ArrayList<>();
+        int size = fieldValuesList.size();
+        int start = 0;
+        while (start < size) {
+            List<FieldValue> first = fieldValuesList.get(start);
+            int maxRows = Math.max(1, Math.min(rowsPerStatement, dialect.getMaxParameterCount() / Math.max(1, first.size())));
+            int end = start + 1;
+            while (end < size && end - start < maxRows && sameFields(first, fieldValuesList.get(end))) {
+                end++;
+            }
+
+            List<Object> rowContexts = new ArrayList<>(end - start);
+            List<String> rows = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                Map<String, Object> rowContext = new HashMap<>();
+                rowContext.put("data", fieldValuesList.get(i));
+                rowContexts.add(rowContext);
+                rows.add(InsertExecution.getValuesSql(fieldValuesList.get(i), "list[" + (i - start) + "].data"));
+            }
+            String columns = first.stream().map(t -> t.getField().getColumnName()).collect(Collectors.joining(","));
+            String sql = dialect.getMultiRowInsertSql(table, columns, rows);
+            if (sql == null) {
+                return null;
+            }
+            items.add(new MybatisHelper.BatchItem(sql, rowContexts));
+            start = end;
+        }
+        return items;
+    }
+
+    static boolean sameFields(List<FieldValue> a, List<FieldValue> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).getField() != b.get(i).getField()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> multiRowInsert(ModelContext modelContext, KeyGeneratorMode keyGeneratorMode, List<MybatisHelper.BatchItem> items, int batchSize) {
+        modelContext.getMybatisHelper().batchInsertRows(modelContext.getSqlSession(), items, Math.max(1, batchSize), keyGeneratorMode, "genValue");
+        if (keyGeneratorMode == KeyGeneratorMode.AUTO_INCREMENT) {
+            List<Object> genValueList = new ArrayList<>();
+            for (MybatisHelper.BatchItem item : items) {
+                for (Object context : (List<Object>) item.getContext()) {
+                    genValueList.add(((Map<String, Object>) context).get("genValue"));
+                }
+            }
+            return genValueList;
+        }
+        return null;
+    }
+
+    private static List<Object> batchInsert(ModelContext modelContext, KeyGeneratorMode keyGeneratorMode, List<List<FieldValue>> fieldValuesList, int batchSize, boolean groupBySql) {
         List<Object> contexts = new ArrayList<>();
         for (List<FieldValue> fieldValues : fieldValuesList) {
             contexts.add(InsertExecution.getSqlContext(modelContext, fieldValues));
         }
 
-        modelContext.getMybatisHelper().batchInsert(InsertExecution.SQL, contexts, batchSize, keyGeneratorMode, "genValue", modelContext.getModel().getTableDefine().getKeyGeneratorSequenceName());
+        modelContext.getMybatisHelper().batchInsert(modelContext.getSqlSession(), InsertExecution.SQL, contexts, batchSize, keyGeneratorMode, "genValue", modelContext.getModel().getTableDefine().getKeyGeneratorSequenceName(), groupBySql);
         if (keyGeneratorMode == KeyGeneratorMode.AUTO_INCREMENT || keyGeneratorMode == KeyGeneratorMode.SEQUENCE) {
             List<Object> genValueList = new ArrayList<>();
             for (Object context : contexts) {
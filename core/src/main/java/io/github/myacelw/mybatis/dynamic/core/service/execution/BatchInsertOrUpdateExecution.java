@@ -1,14 +1,20 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
-import io.github.myacelw.mybatis.dynamic.core.metadata.vo.FieldValue;
+import io.github.myacelw.mybatis.dynamic.core.database.MybatisHelper;
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.DataBaseDialect;
 import io.github.myacelw.mybatis.dynamic.core.event.data.BatchInsertDataEvent;
+import io.github.myacelw.mybatis.dynamic.core.exception.model.ModelException;
 import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
+import io.github.myacelw.mybatis.dynamic.core.metadata.enums.KeyGeneratorMode;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.BasicField;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.Field;
+import io.github.myacelw.mybatis.dynamic.core.metadata.vo.FieldValue;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.BatchInsertOrUpdateCommand;
 import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.IdUtil;
 import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
+import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,6 +39,27 @@ public class BatchInsertOrUpdateExecution<ID> extends AbstractExecution<ID, Void
         if (dataList == null || dataList.isEmpty()) {
             return null;
         }
+        if (ObjectUtil.isEmpty(modelContext.getModel().getPrimaryKeyFields())) {
+            throw new ModelException("Model [" + modelContext.getModel().getName() + "] has no primary key field configured");
+        }
+        if (PartitionedBatchSupport.isParallel(modelContext, command.getParallelism(), dataList.size())) {
+            // 拦截器及事件针对整批数据只触发一次，分区失败重试时不重复触发
+            modelContext.getInterceptor().beforeBatchInsertOrUpdate((DataManager) dataManager, dataList);
+            PartitionedBatchSupport.execute(dataManager, dataList, command.getParallelism(), command.getMaxRetries(),
+                    (partitionDataManager, partition) -> insertOrUpdate(partitionCommand(command, partition), partitionDataManager, false));
+            modelContext.getInterceptor().afterBatchInsertOrUpdate((DataManager) dataManager, dataList);
+            modelContext.sendEvent(new BatchInsertDataEvent(dataManager.getModel(), dataList));
+            return null;
+        }
+        return insertOrUpdate(command, dataManager, true);
+    }
+
+    /**
+     * @param notify 是否触发拦截器及事件
+     */
+    private Void insertOrUpdate(BatchInsertOrUpdateCommand command, DataManager<ID> dataManager, boolean notify) {
+        ModelContext modelContext = dataManager.getModelContext();
+        List<?> dataList = command.getData();
         Set<String> updateIgnoreColumns = getUpdateIgnoreColumns(command, modelContext);
 
         Field field =  dataManager.getModelContext().getField(Model.FIELD_DELETE_FLAG);
@@ -47,13 +74,33 @@ public class BatchInsertOrUpdateExecution<ID> extends AbstractExecution<ID, Void
             newDataList.add(fieldValues);
         }
 
-        modelContext.getInterceptor().beforeBatchInsertOrUpdate((DataManager) dataManager, dataList);
-        batchInsertOrUpdate(modelContext, newDataList, command.getBatchSize());
-        modelContext.getInterceptor().beforeBatchInsertOrUpdate((DataManager) dataManager, dataList);
-        modelContext.sendEvent(new BatchInsertDataEvent(dataManager.getModel(), dataList));
+        if (notify) {
+            modelContext.getInterceptor().beforeBatchInsertOrUpdate((DataManager) dataManager, dataList);
+        }
+        List<MybatisHelper.BatchItem> upsertItems = getBatchUpsertItems(modelContext, newDataList, updateIgnoreColumns, command.getRowsPerStatement());
+        if (upsertItems != null) {
+            modelContext.getMybatisHelper().batchInsertRows(modelContext.getSqlSession(), upsertItems, Math.max(1, command.getBatchSize() / Math.max(1, command.getRowsPerStatement())), KeyGeneratorMode.NONE, null);
+        } else {
+            // 同一主键多次写入时分组会改变执行顺序，此时按原顺序执行
+            boolean groupBySql = !IdUtil.hasEmptyOrDuplicateId(modelContext.getModel(), dataList);
+            batchInsertOrUpdate(modelContext, newDataList, updateIgnoreColumns, command.getBatchSize(), groupBySql);
+        }
+        if (notify) {
+            modelContext.getInterceptor().afterBatchInsertOrUpdate((DataManager) dataManager, dataList);
+            modelContext.sendEvent(new BatchInsertDataEvent(dataManager.getModel(), dataList));
+        }
         return null;
     }
 
+    private static BatchInsertOrUpdateCommand partitionCommand(BatchInsertOrUpdateCommand command, List<?> partition) {
+        BatchInsertOrUpdateCommand partitionCommand = new BatchInsertOrUpdateCommand();
+        partitionCommand.setData(partition);
+        partitionCommand.setUpdateIgnoreFields(command.getUpdateIgnoreFields());
+        partitionCommand.setBatchSize(command.getBatchSize());
+        partitionCommand.setRowsPerStatement(command.getRowsPerStatement());
+        return partitionCommand;
+    }
+
     private Set<String> getUpdateIgnoreColumns(BatchInsertOrUpdateCommand command, ModelContext modelContext) {
         Set<String> updateIgnoreColumns = new HashSet<>();
         if (command.getUpdateIgnoreFields() != null) {
@@ -68,18 +115,76 @@ public class BatchInsertOrUpdateExecution<ID> extends AbstractExecution<ID, Void
         return updateIgnoreColumns;
     }
 
-    private static void batchInsertOrUpdate(ModelContext modelContext, List<List<FieldValue>> fieldValuesList, int batchSize) {
-        List<Object> contexts = fieldValuesList.stream().map(t -> getSqlContext(modelContext, t)).collect(Collectors.toList());
-        modelContext.getMybatisHelper().batchUpdate(SQL, contexts, batchSize);
+    /**
+     * 按数据库方言的批量插入或更新语法生成多行语句，方言不支持时返回null。
+     * 连续的、插入列相同且主键不重复的行合并为一条语句。
+     */
+    private static List<MybatisHelper.BatchItem> getBatchUpsertItems(ModelContext modelContext, List<List<FieldValue>> fieldValuesList, Set<String> updateIgnoreColumns, int rowsPerStatement) {
+        Model model = modelContext.getModel();
+        DataBaseDialect dialect = modelContext.getDialect();
+        List<String> keyColumns = model.getPrimaryKeyFieldObjs().stream().map(BasicField::getColumnName).collect(Collectors.toList());
+        List<MybatisHelper.BatchItem> items = new ArrayList<>();
+        int size = fieldValuesList.size();
+        int start = 0;
+        while (start < size) {
+            List<FieldValue> first = fieldValuesList.get(start);
+            int maxRows = Math.max(1, Math.min(rowsPerStatement, dialect.getMaxParameterCount() / Math.max(1, first.size())));
+            Set<List<Object>> keys = new HashSet<>();
+            keys.add(getKey(model, first));
+            int end = start + 1;
+            while (end < size && end - start < maxRows && BatchInsertExecution.sameFields(first, fieldValuesList.get(end)) && keys.add(getKey(model, fieldValuesList.get(end)))) {
+                end++;
+            }
+
+            List<String> columns = first.stream().map(t -> t.getField().getColumnName()).collect(Collectors.toList());
+            if (!columns.containsAll(keyColumns)) {
+                return null;
+            }
+            List<String> updateColumns = columns.stream().filter(t -> !keyColumns.contains(t) && !updateIgnoreColumns.contains(t)).collect(Collectors.toList());
+            List<Object> rowContexts = new ArrayList<>(end - start);
+            List<List<String>> rows = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                Map<String, Object> rowContext = new HashMap<>();
+                rowContext.put("data", fieldValuesList.get(i));
+                rowContexts.add(rowContext);
+                rows.add(InsertExecution.getValueParams(fieldValuesList.get(i), "list[" + (i - start) + "].data"));
+            }
+            String sql = dialect.getBatchUpsertSql(model.getSchemaAndTableName(), columns, keyColumns, updateColumns, rows);
+            if (sql == null) {
+                return null;
+            }
+            items.add(new MybatisHelper.BatchItem(sql, rowContexts));
+            start = end;
+        }
+        return items;
+    }
+
+    private static List<Object> getKey(Model model, List<FieldValue> fieldValues) {
+        List<Object> key = new ArrayList<>();
+        for (FieldValue fieldValue : fieldValues) {
+            if (model.isPrimaryKeyField(fieldValue.getField().getName())) {
+                key.add(fieldValue.getValue());
+            }
+        }
+        return key;
+    }
+
+    private static void batchInsertOrUpdate(ModelContext modelContext, List<List<FieldValue>> fieldValuesList, Set<String> updateIgnoreColumns, int batchSize, boolean groupBySql) {
+        List<Object> contexts = fieldValuesList.stream().map(t -> getSqlContext(modelContext, t, updateIgnoreColumns)).collect(Collectors.toList());
+        modelContext.getMybatisHelper().batchUpdate(modelContext.getSqlSession(), SQL, contexts, batchSize, groupBySql);
     }
 
     public static Map<String, Object> getSqlContext(ModelContext modelContext, List<FieldValue> fieldValues) {
+        return getSqlContext(modelContext, fieldValues, Collections.emptySet());
+    }
+
+    public static Map<String, Object> getSqlContext(ModelContext modelContext, List<FieldValue> fieldValues, Set<String> updateIgnoreColumns) {
         Map<String, Object> context = InsertExecution.getSqlContext(modelContext, fieldValues);
 
         int i = 0;
         List<String> setList = new ArrayList<>();
         for (FieldValue fieldValue : fieldValues) {
-            if (!modelContext.getModel().isPrimaryKeyField(fieldValue.getField().getName())) {
+            if (!modelContext.getModel().isPrimaryKeyField(fieldValue.getField().getName()) && !updateIgnoreColumns.contains(fieldValue.getField().getColumnName())) {
                 setList.add(fieldValue.getField().getColumnName() + " = #{data[" + i + "].value}");
             }
             i++;
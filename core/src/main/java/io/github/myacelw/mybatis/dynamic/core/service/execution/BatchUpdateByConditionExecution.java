@@ -53,7 +53,7 @@ public class BatchUpdateByConditionExecution<ID> extends AbstractExecution<ID, V
         }
 
         modelContext.getInterceptor().beforeBatchUpdateByCondition((DataManager) dataManager, updates);
-        modelContext.getMybatisHelper().batchUpdates(batchItems, command.getBatchSize());
+        modelContext.getMybatisHelper().batchUpdates(modelContext.getSqlSession(), batchItems, command.getBatchSize());
         modelContext.getInterceptor().afterBatchUpdateByCondition((DataManager) dataManager, updates);
 
         modelContext.sendEvent(new BatchUpdateByConditionDataEvent(modelContext.getModel(), updates));
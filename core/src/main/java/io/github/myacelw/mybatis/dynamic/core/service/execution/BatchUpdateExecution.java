@@ -58,7 +58,9 @@ public class BatchUpdateExecution<ID> extends AbstractExecution<ID, Void, BatchU
         }
 
         modelContext.getInterceptor().beforeBatchUpdate((DataManager) dataManager, dataList);
-        modelContext.getMybatisHelper().batchUpdate(UpdateExecution.SQL, sqlContextList, command.getBatchSize());
+        // 同一主键多次更新时分组会改变执行顺序，此时按原顺序执行
+        boolean groupBySql = !IdUtil.hasEmptyOrDuplicateId(model, dataList);
+        modelContext.getMybatisHelper().batchUpdate(modelContext.getSqlSession(), UpdateExecution.SQL, sqlContextList, command.getBatchSize(), groupBySql);
         modelContext.getInterceptor().afterBatchUpdate((DataManager) dataManager, dataList);
         modelContext.sendEvent(new BatchUpdateDataEvent(dataManager.getModel(), dataList));
         return null;
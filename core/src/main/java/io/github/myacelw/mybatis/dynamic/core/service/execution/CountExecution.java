@@ -24,7 +24,9 @@ public class CountExecution<ID> extends AbstractExecution<ID, Integer, CountComm
         List<Integer> list = dataManager.aggQuery(Integer.class)
                 .aggSelectItem(AggSelectItem.COUNT)
                 .where(command.getCondition())
-                .joins(command.getJoins()).exec();
+                .joins(command.getJoins())
+                .cacheResult(command.isCacheResult())
+                .exec();
 
         Integer count = list.get(0);
 
@@ -1,10 +1,10 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
 import io.github.myacelw.mybatis.dynamic.core.exception.crud.FieldParameterException;
-import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.Field;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.ToManyField;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.ToOneField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Join;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
 import io.github.myacelw.mybatis.dynamic.core.service.command.FillDataCommand;
@@ -13,13 +13,21 @@ import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
 import io.github.myacelw.mybatis.dynamic.core.util.Assert;
 import io.github.myacelw.mybatis.dynamic.core.util.DataUtil;
 import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
+import lombok.EqualsAndHashCode;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * 填充数据执行器
+ * 填充数据执行器。
+ * 先收集全部填充字段的关联查询，目标模型、关联字段、返回类型、查询字段和Join都相同的查询合并ID后只查询一次，
+ * 共用查询的第二个及之后的填充字段设置结果的深拷贝，各字段的填充值互不共享；
+ * ID集合按分批大小拆分，不处于调用方事务中时各批次查询在执行器上并行执行，全部完成后在当前线程设置填充值。
  *
  * @author liuwei
  */
@@ -38,22 +46,38 @@ public class FillDataExecution<ID> extends AbstractExecution<ID, Void, FillDataC
         }
 
         if (command.getFillFields() != null) {
+            Map<Lookup, Lookup> lookups = new LinkedHashMap<>();
+            List<Assignment> assignments = new ArrayList<>();
             for (FillDataCommand.FillField fill : command.getFillFields()) {
                 Field field = modelContext.getPermissionedField(fill.getFieldName(), true);
+                Assignment assignment;
                 if (field instanceof ToOneField) {
-                    fillManyToOneData(dataManager, command, (ToOneField) field, fill);
+                    assignment = prepareManyToOne(dataManager, command, (ToOneField) field, fill, lookups);
                 } else if (field instanceof ToManyField) {
-                    fillOneToManyData(dataManager, command, (ToManyField) field, fill);
+                    assignment = prepareOneToMany(dataManager, command, (ToManyField) field, fill, lookups);
                 } else {
                     throw new FieldParameterException("Field [" + fill.getFieldName() + "] in model [" + modelContext.getModel().getName() + "] is not an association type");
                 }
+                if (assignment != null) {
+                    assignments.add(assignment);
+                }
+            }
+
+            query(lookups.keySet(), command, modelContext);
+
+            for (Assignment assignment : assignments) {
+                if (assignment.toMany) {
+                    setToManyValues(dataManager, command, assignment);
+                } else {
+                    setToOneValues(assignment);
+                }
             }
         }
 
         return null;
     }
 
-    private void fillOneToManyData(DataManager<ID> dataManager, FillDataCommand command, ToManyField field, FillDataCommand.FillField fill) {
+    private Assignment prepareOneToMany(DataManager<ID> dataManager, FillDataCommand command, ToManyField field, FillDataCommand.FillField fill, Map<Lookup, Lookup> lookups) {
         ModelContext modelContext = dataManager.getModelContext();
         DataManager<Object> targetDataManager = modelContext.getDataManagerGetter().getDataManager(field.getTargetModel(), dataManager.getModelContext().getSqlSession());
 
@@ -66,27 +90,17 @@ public class FillDataExecution<ID> extends AbstractExecution<ID, Void, FillDataC
 
         List<Object> ids = getIdList(command.getData(), dataManager.getModel().getPrimaryKeyFields());
         if (ObjectUtil.isEmpty(ids)) {
-            return;
-        }
-
-        List<?> relValueList = targetDataManager.queryChain(field.getJavaClass())
-                .where(IdUtil.getIdsCondition(joinTargetFields, ids))
-                .select(fill.getSelectFields())
-                .joins(fill.getJoins())
-                .exec();
-
-        Map<Object, List<Object>> extValueMap = new HashMap<>();
-        for (Object item : relValueList) {
-            Object fkId = DataUtil.getSingleOrMultiValue(item, field.getJoinTargetFields());
-            extValueMap.computeIfAbsent(fkId, k -> new ArrayList<>()).add(item);
+            return null;
         }
 
-        setFieldValues(dataManager, command, fill.getFieldName(), extValueMap, ArrayList::new);
+        Lookup lookup = getLookup(lookups, new Lookup(targetDataManager, joinTargetFields, field.getJavaClass(), fill));
+        lookup.ids.addAll(ids);
+        return new Assignment(fill.getFieldName(), true, lookup, lookup.assignmentCount++ > 0, ids, null);
     }
 
-    private void fillManyToOneData(DataManager<ID> dataManager, FillDataCommand command, ToOneField field, FillDataCommand.FillField fill) {
+    private Assignment prepareManyToOne(DataManager<ID> dataManager, FillDataCommand command, ToOneField field, FillDataCommand.FillField fill, Map<Lookup, Lookup> lookups) {
         ModelContext modelContext = dataManager.getModelContext();
-        DataManager<?> targetDataManager = modelContext.getDataManagerGetter().getDataManager(field.getTargetModel(), dataManager.getModelContext().getSqlSession());
+        DataManager<Object> targetDataManager = modelContext.getDataManagerGetter().getDataManager(field.getTargetModel(), dataManager.getModelContext().getSqlSession());
 
         if (targetDataManager == null) {
             throw new FieldParameterException("Associated model [" + field.getTargetModel() + "] for fill field in model [" + modelContext.getModel().getName() + "] not found");
@@ -95,7 +109,7 @@ public class FillDataExecution<ID> extends AbstractExecution<ID, Void, FillDataC
 
         Assert.isTrue(joinLocalFields.length == targetDataManager.getModel().getPrimaryKeyFields().length, "Associated field count must match target model primary key count. Model [ " + dataManager.getModel().getName() + "], Field [" + field.getName() +"]");
 
-        Map<Object, List<Object>> fkIdToDataMap = new HashMap<>();
+        Map<Object, List<Object>> fkIdToDataMap = new LinkedHashMap<>();
 
         for (Object item : command.getData()) {
             Object fkId = DataUtil.getSingleOrMultiValue(item, joinLocalFields);
@@ -105,43 +119,113 @@ public class FillDataExecution<ID> extends AbstractExecution<ID, Void, FillDataC
         }
 
         if (ObjectUtil.isEmpty(fkIdToDataMap)) {
-            return;
+            return null;
         }
 
-        List<?> relValueList = targetDataManager.queryChain(field.getJavaClass())
-                .where(IdUtil.getIdsCondition(targetDataManager.getModel().getPrimaryKeyFields(), fkIdToDataMap.keySet()))
-                .select(fill.getSelectFields())
-                .joins(fill.getJoins())
-                .exec();
-        setToOneValues(targetDataManager.getModel(), fkIdToDataMap, relValueList, field.getName());
+        Lookup lookup = getLookup(lookups, new Lookup(targetDataManager, targetDataManager.getModel().getPrimaryKeyFields(), field.getJavaClass(), fill));
+        lookup.ids.addAll(fkIdToDataMap.keySet());
+        return new Assignment(field.getName(), false, lookup, lookup.assignmentCount++ > 0, null, fkIdToDataMap);
+    }
+
+    private static Lookup getLookup(Map<Lookup, Lookup> lookups, Lookup lookup) {
+        return lookups.computeIfAbsent(lookup, k -> k);
+    }
+
+    /**
+     * 按分批大小拆分各关联查询的ID集合并执行，调用方事务内或未配置执行器时顺序执行
+     */
+    private void query(Collection<Lookup> lookups, FillDataCommand command, ModelContext modelContext) {
+        int chunkSize = command.getChunkSize() > 0 ? command.getChunkSize() : FillDataCommand.DEFAULT_CHUNK_SIZE;
+        List<Lookup> taskLookups = new ArrayList<>();
+        List<Supplier<List<?>>> tasks = new ArrayList<>();
+        for (Lookup lookup : lookups) {
+            List<Object> ids = new ArrayList<>(lookup.ids);
+            for (int i = 0; i < ids.size(); i += chunkSize) {
+                List<Object> chunk = ids.subList(i, Math.min(i + chunkSize, ids.size()));
+                taskLookups.add(lookup);
+                tasks.add(() -> lookup.targetDataManager.queryChain(lookup.javaClass)
+                        .where(IdUtil.getIdsCondition(lookup.keyFields.toArray(new String[0]), chunk))
+                        .select(lookup.selectFields)
+                        .joins(lookup.joins)
+                        .exec());
+            }
+        }
+
+        Executor executor = modelContext.isTransactional() ? null : modelContext.getExecutor();
+        List<?>[] results = run(tasks, executor == null ? 1 : command.getParallelism(), executor);
+
+        for (int i = 0; i < results.length; i++) {
+            Lookup lookup = taskLookups.get(i);
+            String[] keyFields = lookup.keyFields.toArray(new String[0]);
+            for (Object item : results[i]) {
+                Object key = DataUtil.getSingleOrMultiValue(item, keyFields);
+                lookup.result.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+            }
+        }
+    }
+
+    /**
+     * 以不超过并行数的工作者执行任务，当前线程作为其中一个工作者
+     */
+    private static List<?>[] run(List<Supplier<List<?>>> tasks, int parallelism, Executor executor) {
+        List<?>[] results = new List<?>[tasks.size()];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < tasks.size()) {
+                try {
+                    results[i] = tasks.get(i).get();
+                } catch (RuntimeException e) {
+                    next.set(tasks.size());
+                    throw e;
+                }
+            }
+        };
+
+        int workers = Math.min(parallelism, tasks.size());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 1; i < workers; i++) {
+            futures.add(CompletableFuture.runAsync(worker, executor));
+        }
+        try {
+            worker.run();
+        } finally {
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        }
+        return results;
     }
 
-    private void setFieldValues(DataManager<ID> dataManager, FillDataCommand command, String fieldName, Map<Object, ?> valueMap, Supplier<?> defaultValue) {
-        if (ObjectUtil.isEmpty(valueMap)) {
+    private void setToManyValues(DataManager<ID> dataManager, FillDataCommand command, Assignment assignment) {
+        Map<Object, List<Object>> valueMap = assignment.lookup.result;
+        if (assignment.ids.stream().noneMatch(valueMap::containsKey)) {
             return;
         }
         String[] primaryKeyFieldNames = dataManager.getModel().getPrimaryKeyFields();
         for (Object data : command.getData()) {
             Object id = DataUtil.getSingleOrMultiValue(data, primaryKeyFieldNames);
-            Object value = valueMap.get(id);
-            if (value != null) {
-                DataUtil.setProperty(data, fieldName, value);
-            } else {
-                DataUtil.setProperty(data, fieldName, defaultValue.get());
-            }
+            List<Object> value = valueMap.get(id);
+            DataUtil.setProperty(data, assignment.fieldName, value == null ? new ArrayList<>() : assignment.copy ? DataUtil.deepCopy(value) : new ArrayList<>(value));
         }
     }
 
-    public void setToOneValues(Model targetModel, Map<Object, List<Object>> fkIdToDataMap, List<?> relValueList, String fieldName) {
-        if (ObjectUtil.isEmpty(relValueList)) {
-            return;
-        }
-        for (Object v : relValueList) {
-            Object id = DataUtil.getSingleOrMultiValue(v, targetModel.getPrimaryKeyFields());
-            for (Object data : fkIdToDataMap.get(id)) {
-                DataUtil.setProperty(data, fieldName, v);
+    private void setToOneValues(Assignment assignment) {
+        assignment.fkIdToDataMap.forEach((fkId, dataList) -> {
+            List<Object> values = assignment.lookup.result.get(fkId);
+            if (values != null) {
+                Object value = values.get(values.size() - 1);
+                Object fieldValue = assignment.copy ? DataUtil.deepCopy(value) : value;
+                dataList.forEach(data -> DataUtil.setProperty(data, assignment.fieldName, fieldValue));
             }
-        }
+        });
     }
 
     private static List<Object> getIdList(List<?> result, String[] primaryKeyFieldNames) {
@@ -151,5 +235,76 @@ public class FillDataExecution<ID> extends AbstractExecution<ID, Void, FillDataC
         return result.stream().filter(Objects::nonNull).map(t -> DataUtil.getSingleOrMultiValue(t, primaryKeyFieldNames)).filter(Objects::nonNull).distinct().collect(Collectors.toList());
     }
 
+    /**
+     * 关联查询，查询条件相同的填充字段共用
+     */
+    @EqualsAndHashCode(onlyExplicitlyIncluded = true)
+    private static class Lookup {
+        @EqualsAndHashCode.Include
+        private final String targetModel;
+
+        @EqualsAndHashCode.Include
+        private final List<String> keyFields;
+
+        @EqualsAndHashCode.Include
+        private final Class<?> javaClass;
+
+        @EqualsAndHashCode.Include
+        private final List<String> selectFields;
+
+        @EqualsAndHashCode.Include
+        private final List<Join> joins;
+
+        private final DataManager<Object> targetDataManager;
+
+        private final Set<Object> ids = new LinkedHashSet<>();
+
+        private final Map<Object, List<Object>> result = new HashMap<>();
+
+        /**
+         * 共用该查询的填充字段数
+         */
+        private int assignmentCount;
+
+        private Lookup(DataManager<Object> targetDataManager, String[] keyFields, Class<?> javaClass, FillDataCommand.FillField fill) {
+            this.targetModel = targetDataManager.getModel().getName();
+            this.keyFields = Arrays.asList(keyFields);
+            this.javaClass = javaClass;
+            this.selectFields = fill.getSelectFields();
+            this.joins = fill.getJoins();
+            this.targetDataManager = targetDataManager;
+        }
+    }
+
+    private static class Assignment {
+        private final String fieldName;
 
+        private final boolean toMany;
+
+        private final Lookup lookup;
+
+        /**
+         * 是否设置查询结果的深拷贝，查询被之前的填充字段使用时为true
+         */
+        private final boolean copy;
+
+        /**
+         * 一对多填充时的主数据ID
+         */
+        private final List<Object> ids;
+
+        /**
+         * 多对一填充时外键值对应的数据
+         */
+        private final Map<Object, List<Object>> fkIdToDataMap;
+
+        private Assignment(String fieldName, boolean toMany, Lookup lookup, boolean copy, List<Object> ids, Map<Object, List<Object>> fkIdToDataMap) {
+            this.fieldName = fieldName;
+            this.toMany = toMany;
+            this.lookup = lookup;
+            this.copy = copy;
+            this.ids = ids;
+            this.fkIdToDataMap = fkIdToDataMap;
+        }
+    }
 }
@@ -151,15 +151,33 @@ public class InsertExecution<ID> extends AbstractExecution<ID, Object, InsertCom
         context.put("data", fieldValues);
         context.put("table", modelContext.getModel().getSchemaAndTableName());
         context.put("columns", fieldValues.stream().map(t -> t.getField().getColumnName()).collect(Collectors.joining(",")));
+        context.put("values", getValuesSql(fieldValues, "data"));
+        return context;
+    }
+
+    /**
+     * 生成字段值占位符，逗号分隔
+     *
+     * @param dataExpression 字段值列表的取值表达式
+     */
+    public static String getValuesSql(List<FieldValue> fieldValues, String dataExpression) {
+        return String.join(",", getValueParams(fieldValues, dataExpression));
+    }
+
+    /**
+     * 生成各字段值占位符
+     *
+     * @param dataExpression 字段值列表的取值表达式
+     */
+    public static List<String> getValueParams(List<FieldValue> fieldValues, String dataExpression) {
         List<String> params = new ArrayList<>(fieldValues.size());
         for (int j = 0; j < fieldValues.size(); j++) {
             FieldValue fieldValue = fieldValues.get(j);
             String typeHandler = fieldValue.getField().getTypeHandlerClass() != null ? ",typeHandler=" + fieldValue.getField().getTypeHandlerClass().getName() : "";
-            String param = "#{data[" + j + "].value" + typeHandler + "}";
+            String param = "#{" + dataExpression + "[" + j + "].value" + typeHandler + "}";
             params.add(param);
         }
-        context.put("values", String.join(",", params));
-        return context;
+        return params;
     }
 
     /**
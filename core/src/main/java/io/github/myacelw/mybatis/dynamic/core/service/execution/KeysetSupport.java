@@ -0,0 +1,206 @@
+package io.github.myacelw.mybatis.dynamic.core.service.execution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.myacelw.mybatis.dynamic.core.exception.crud.ConditionParameterException;
+import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
+import io.github.myacelw.mybatis.dynamic.core.metadata.field.BasicField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.field.Field;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Keyset;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.GroupCondition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.SimpleCondition;
+import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCommand;
+import io.github.myacelw.mybatis.dynamic.core.util.BeanUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.StringUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 键集分页（seek分页）。
+ * 排序项末尾追加主键保证排序唯一，按上一页最后一行的排序字段值生成展开形式的范围条件：
+ * a >= ? AND (a > ? OR (a = ? AND b > ?))，降序字段使用反向比较，首个字段的范围条件便于使用索引。
+ * 游标为排序签名和排序字段值的JSON经Base64编码，排序项变化后旧游标不可使用。
+ * 主键以外的排序字段必须声明为非空，查询字段中缺少的排序字段会自动加入。
+ *
+ * @author liuwei
+ */
+class KeysetSupport {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+    private KeysetSupport() {
+    }
+
+    /**
+     * 得到键集分页使用的排序项：用户排序项后追加未包含的主键字段（升序）
+     */
+    static List<OrderItem> getOrderItems(List<OrderItem> orderItems, Model model) {
+        List<String> primaryKeyFields = Arrays.asList(model.getPrimaryKeyFields());
+        List<OrderItem> result = new ArrayList<>();
+        if (orderItems != null) {
+            for (OrderItem orderItem : orderItems) {
+                if (orderItem.getFunctionTemplate() != null) {
+                    throw new ConditionParameterException("Keyset pagination does not support function order item on field '" + orderItem.getField() + "'");
+                }
+                if (!primaryKeyFields.contains(orderItem.getField())) {
+                    BasicField field = model.findBasicField(orderItem.getField());
+                    if (field == null || field.getColumnDefinition() == null || field.getColumnDefinition().getNotNull() != Boolean.TRUE) {
+                        throw new ConditionParameterException("Keyset pagination order field '" + orderItem.getField() + "' of model '" + model.getName()
+                                + "' must be declared NOT NULL, rows with null values can not be located by seek conditions");
+                    }
+                }
+                result.add(orderItem);
+            }
+        }
+        for (String pk : primaryKeyFields) {
+            if (result.stream().noneMatch(t -> pk.equals(t.getField()))) {
+                result.add(OrderItem.asc(pk));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 将键集位置转换为普通查询命令：补全排序项和查询字段，并将范围条件与原条件合并，分页只保留每页条数
+     */
+    static <T> QueryCommand<T> toQueryCommand(QueryCommand<T> command, Model model) {
+        List<OrderItem> orderItems = getOrderItems(command.getOrderItems(), model);
+        List<Object> values = getValues(command.getKeyset(), orderItems, model);
+
+        QueryCommand<T> result = new QueryCommand<>();
+        result.copyProperties(command);
+        result.setOrderItems(orderItems);
+        result.setSelectFields(getSelectFields(command.getSelectFields(), orderItems, model));
+        result.setPage(command.getPage() == null ? null : new Page(1, command.getPage().getSize()));
+        result.setLookAhead(command.isLookAhead());
+        result.setSplitQuery(command.getSplitQuery());
+        if (values != null) {
+            Condition seekCondition = seekCondition(orderItems, values);
+            result.setCondition(command.getCondition() == null ? seekCondition : GroupCondition.and(command.getCondition(), seekCondition));
+        }
+        return result;
+    }
+
+    /**
+     * 查询字段中加入缺少的排序字段，生成游标时需要读取排序字段值；主键总是会被查询
+     */
+    private static List<String> getSelectFields(List<String> selectFields, List<OrderItem> orderItems, Model model) {
+        List<String> missing = new ArrayList<>();
+        for (OrderItem orderItem : orderItems) {
+            if (selectFields == null) {
+                BasicField field = model.findBasicField(orderItem.getField());
+                if (field != null && field.getSelect() == Boolean.FALSE) {
+                    missing.add(orderItem.getField());
+                }
+            } else if (!selectFields.contains(orderItem.getField())) {
+                missing.add(orderItem.getField());
+            }
+        }
+        if (missing.isEmpty()) {
+            return selectFields;
+        }
+        List<String> result = new ArrayList<>(selectFields == null ? Collections.singletonList(Field.ALL_WILDCARD) : selectFields);
+        result.addAll(missing);
+        return result;
+    }
+
+    /**
+     * 由一行数据生成指向其后位置的游标
+     */
+    static String nextCursor(Object row, List<OrderItem> orderItems) {
+        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        node.put("o", signature(orderItems));
+        ArrayNode values = node.putArray("v");
+        for (OrderItem orderItem : orderItems) {
+            Object value = BeanUtil.getProperty(row, orderItem.getField());
+            if (value == null) {
+                throw new ConditionParameterException("Keyset pagination order field '" + orderItem.getField() + "' value is null");
+            }
+            values.add(OBJECT_MAPPER.valueToTree(value));
+        }
+        try {
+            byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(node);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        } catch (Exception e) {
+            throw new ConditionParameterException("Keyset cursor encode failed", e);
+        }
+    }
+
+    private static List<Object> getValues(Keyset keyset, List<OrderItem> orderItems, Model model) {
+        if (keyset == null) {
+            return null;
+        }
+        if (StringUtil.hasText(keyset.getCursor())) {
+            return decodeCursor(keyset.getCursor(), orderItems, model);
+        }
+        return ObjectUtil.isEmpty(keyset.getAfter()) ? null : keyset.getAfter();
+    }
+
+    private static List<Object> decodeCursor(String cursor, List<OrderItem> orderItems, Model model) {
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+        } catch (Exception e) {
+            throw new ConditionParameterException("Invalid keyset cursor: " + cursor, e);
+        }
+        if (node == null || !signature(orderItems).equals(node.path("o").asText()) || node.path("v").size() != orderItems.size()) {
+            throw new ConditionParameterException("Keyset cursor does not match order items: " + signature(orderItems));
+        }
+
+        List<Object> values = new ArrayList<>(orderItems.size());
+        for (int i = 0; i < orderItems.size(); i++) {
+            BasicField field = model.findBasicField(orderItems.get(i).getField());
+            Class<?> javaClass = field == null || field.getJavaClass() == null ? Object.class : field.getJavaClass();
+            values.add(OBJECT_MAPPER.convertValue(node.path("v").get(i), javaClass));
+        }
+        return values;
+    }
+
+    private static Condition seekCondition(List<OrderItem> orderItems, List<Object> values) {
+        if (values.size() != orderItems.size()) {
+            throw new ConditionParameterException("Keyset values size " + values.size() + " does not match order items: " + signature(orderItems));
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == null) {
+                throw new ConditionParameterException("Keyset pagination order field '" + orderItems.get(i).getField() + "' value is null");
+            }
+        }
+
+        List<Condition> or = new ArrayList<>(orderItems.size());
+        for (int i = 0; i < orderItems.size(); i++) {
+            List<Condition> and = new ArrayList<>(i + 1);
+            for (int j = 0; j < i; j++) {
+                and.add(SimpleCondition.eq(orderItems.get(j).getField(), values.get(j)));
+            }
+            OrderItem orderItem = orderItems.get(i);
+            and.add(orderItem.isAsc() ? SimpleCondition.gt(orderItem.getField(), values.get(i)) : SimpleCondition.lt(orderItem.getField(), values.get(i)));
+            or.add(and.size() == 1 ? and.get(0) : GroupCondition.and(and));
+        }
+        if (or.size() == 1) {
+            return or.get(0);
+        }
+
+        OrderItem first = orderItems.get(0);
+        Condition bound = first.isAsc() ? SimpleCondition.gte(first.getField(), values.get(0)) : SimpleCondition.lte(first.getField(), values.get(0));
+        return GroupCondition.and(bound, GroupCondition.or(or));
+    }
+
+    private static String signature(List<OrderItem> orderItems) {
+        return orderItems.stream().map(t -> (t.isAsc() ? "" : "-") + t.getField()).collect(Collectors.joining(","));
+    }
+
+}
@@ -1,13 +1,23 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.CountStrategy;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.PageResult;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
 import io.github.myacelw.mybatis.dynamic.core.service.command.PageCommand;
 import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.QueryResultCache;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
+import io.github.myacelw.mybatis.dynamic.core.util.tuple.Tuple;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 分页查询执行器
@@ -23,22 +33,161 @@ public class PageExecution<ID, T> extends AbstractExecution<ID, PageResult<T>, P
 
     @Override
     public PageResult<T> exec(PageCommand<T> command, DataManager<ID> dataManager) {
+        if (command.getKeyset() != null) {
+            return execKeyset(command, dataManager);
+        }
         Page page = getPage(command);
+        CountStrategy countStrategy = command.getCountStrategy() == null ? CountStrategy.EXACT : command.getCountStrategy();
+        if (countStrategy == CountStrategy.HAS_NEXT) {
+            return execHasNext(command, dataManager, page);
+        }
+        if (countStrategy == CountStrategy.WINDOW && dataManager.getModelContext().getDialect().supportWindowFunction()) {
+            return execWindow(command, dataManager, page);
+        }
 
         QueryCommand<T> queryCommand = new QueryCommand<>();
         queryCommand.copyProperties(command);
         queryCommand.setPage(page);
 
+        CompletableFuture<Integer> countFuture = null;
+        ModelContext modelContext = dataManager.getModelContext();
+        // 第一页未满时总记录数由当前页数据推算，因此只在非第一页时提前发起统计；处于调用方事务中时在当前会话中统计
+        if (command.isConcurrentCount() && page.getCurrent() > 1 && modelContext.getExecutor() != null && !modelContext.isTransactional()) {
+            DataManager<ID> taskDataManager = dataManager.withoutSqlSession();
+            countFuture = CompletableFuture.supplyAsync(() -> count(command, taskDataManager, countStrategy), modelContext.getExecutor());
+        }
+
         List<T> data = dataManager.execCommand(queryCommand);
+        int offset = page.getSize() * (page.getCurrent() - 1);
         int count;
         if (page.getCurrent() == 1 && data.isEmpty()) {
             count = 0;
         } else if (data.size() < page.getSize()) {
-            count = page.getSize() * (page.getCurrent() - 1) + data.size();
+            count = offset + data.size();
+        } else if (countFuture != null) {
+            count = join(countFuture);
         } else {
-            count = dataManager.countChain().where(command.getCondition()).joins(command.getJoins()).exec();
+            count = count(command, dataManager, countStrategy);
+        }
+
+        if (data.size() < page.getSize()) {
+            if (countFuture != null) {
+                countFuture.cancel(false);
+            }
+            return new PageResult<>(data, count, null, false);
+        }
+        // 估算值可能小于已查到的行数
+        count = Math.max(count, offset + data.size());
+        return new PageResult<>(data, count, null, countStrategy == CountStrategy.ESTIMATE ? null : count > offset + data.size());
+    }
+
+    /**
+     * 数据查询附加 COUNT(*) OVER()，一次查询得到分页数据和总记录数；页号超出范围查询结果为空时退化为精确统计
+     */
+    private PageResult<T> execWindow(PageCommand<T> command, DataManager<ID> dataManager, Page page) {
+        QueryCommand<T> queryCommand = new QueryCommand<>();
+        queryCommand.copyProperties(command);
+        queryCommand.setPage(page);
+
+        Tuple<List<T>, Integer> result = QueryExecution.queryWithTotal(queryCommand, dataManager);
+        int offset = page.getSize() * (page.getCurrent() - 1);
+        int count;
+        if (result.v2 != null) {
+            count = result.v2;
+        } else {
+            count = page.getCurrent() == 1 ? 0 : exactCount(command, dataManager);
+        }
+        return new PageResult<>(result.v1, count, null, count > offset + page.getSize());
+    }
+
+    /**
+     * 仅判断是否有下一页：多查询一行，不统计总记录数
+     */
+    private PageResult<T> execHasNext(PageCommand<T> command, DataManager<ID> dataManager, Page page) {
+        QueryCommand<T> queryCommand = new QueryCommand<>();
+        queryCommand.copyProperties(command);
+        queryCommand.setPage(page);
+        queryCommand.setLookAhead(true);
+
+        List<T> data = dataManager.execCommand(queryCommand);
+        boolean hasNext = data.size() > page.getSize();
+        if (hasNext) {
+            data = new ArrayList<>(data.subList(0, page.getSize()));
+        }
+        return new PageResult<>(data, null, null, hasNext);
+    }
+
+    /**
+     * 键集分页：多查询一行判断是否有下一页，不统计总记录数
+     */
+    private PageResult<T> execKeyset(PageCommand<T> command, DataManager<ID> dataManager) {
+        Page page = getPage(command);
+        List<OrderItem> orderItems = KeysetSupport.getOrderItems(command.getOrderItems(), dataManager.getModelContext().getModel());
+
+        QueryCommand<T> queryCommand = new QueryCommand<>();
+        queryCommand.copyProperties(command);
+        queryCommand.setOrderItems(orderItems);
+        queryCommand.setKeyset(command.getKeyset());
+        queryCommand.setPage(new Page(1, page.getSize() + 1));
+
+        List<T> data = dataManager.execCommand(queryCommand);
+        String nextCursor = null;
+        if (data.size() > page.getSize()) {
+            data = new ArrayList<>(data.subList(0, page.getSize()));
+            nextCursor = KeysetSupport.nextCursor(data.get(data.size() - 1), orderItems);
+        }
+        return new PageResult<>(data, null, nextCursor, nextCursor != null);
+    }
+
+    private int count(PageCommand<T> command, DataManager<ID> dataManager, CountStrategy countStrategy) {
+        ModelContext modelContext = dataManager.getModelContext();
+        if (countStrategy == CountStrategy.ESTIMATE) {
+            Long rows = QueryExecution.estimateRows(countQueryCommand(command), modelContext);
+            if (rows != null) {
+                return (int) Math.min(rows, Integer.MAX_VALUE);
+            }
+        } else if (countStrategy == CountStrategy.CACHED && modelContext.getPageCountCache() != null && command.getCountCacheSeconds() > 0) {
+            LruCache<QueryResultCache.Key, Tuple<Integer, Long>> cache = modelContext.getPageCountCache();
+            QueryResultCache.Key key = QueryExecution.createCountCacheKey(countQueryCommand(command), modelContext);
+            if (key == null) {
+                return exactCount(command, dataManager);
+            }
+            Tuple<Integer, Long> cached = cache.get(key);
+            if (cached != null && cached.v2 > System.currentTimeMillis()) {
+                return cached.v1;
+            }
+            int count = exactCount(command, dataManager);
+            cache.put(key, new Tuple<>(count, System.currentTimeMillis() + command.getCountCacheSeconds() * 1000L));
+            return count;
+        }
+        return exactCount(command, dataManager);
+    }
+
+    /**
+     * 与总记录数统计对应的查询：只查询主键，不排序、不分页
+     */
+    private QueryCommand<T> countQueryCommand(PageCommand<T> command) {
+        QueryCommand<T> queryCommand = new QueryCommand<>();
+        queryCommand.copyProperties(command);
+        queryCommand.setOrderItems(null);
+        queryCommand.setSelectFields(Collections.emptyList());
+        queryCommand.setCustomSelectFields(null);
+        return queryCommand;
+    }
+
+    private int exactCount(PageCommand<T> command, DataManager<ID> dataManager) {
+        return dataManager.countChain().where(command.getCondition()).joins(command.getJoins()).cacheResult(command.isCacheResult()).exec();
+    }
+
+    private static int join(CompletableFuture<Integer> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
-        return new PageResult<>(data, count);
     }
 
     private Page getPage(PageCommand<T> command) {
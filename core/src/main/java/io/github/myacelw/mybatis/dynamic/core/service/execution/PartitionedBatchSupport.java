@@ -0,0 +1,96 @@
+package io.github.myacelw.mybatis.dynamic.core.service.execution;
+
+import io.github.myacelw.mybatis.dynamic.core.exception.database.PartitionedBatchException;
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.DataManagerImpl;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+/**
+ * 并行分区批量写入。
+ * 数据按输入顺序连续划分为多个分区，每个分区在执行器的线程上使用独立会话和连接写入，分区内一次提交，失败时回滚后重试。
+ *
+ * @author liuwei
+ */
+@Slf4j
+class PartitionedBatchSupport {
+
+    private PartitionedBatchSupport() {
+    }
+
+    /**
+     * 是否并行写入：处于调用方事务中时保持在调用方事务内，不并行
+     */
+    static boolean isParallel(ModelContext modelContext, int parallelism, int size) {
+        return parallelism > 1 && size > 1 && !modelContext.isTransactional() && modelContext.getExecutor() != null;
+    }
+
+    /**
+     * 并行执行各分区，返回按分区顺序排列的结果
+     *
+     * @param task 分区任务，参数为绑定分区会话的数据管理器和分区数据
+     */
+    static <ID, R> List<R> execute(DataManager<ID> dataManager, List<?> data, int parallelism, int maxRetries, BiFunction<DataManager<ID>, List<?>, R> task) {
+        ModelContext modelContext = dataManager.getModelContext();
+        Executor executor = modelContext.getExecutor();
+        int partitionCount = Math.min(parallelism, data.size());
+        int partitionSize = (data.size() + partitionCount - 1) / partitionCount;
+
+        List<List<?>> partitions = new ArrayList<>(partitionCount);
+        for (int start = 0; start < data.size(); start += partitionSize) {
+            partitions.add(data.subList(start, Math.min(start + partitionSize, data.size())));
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            int partition = i;
+            List<?> partitionData = partitions.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> executePartition(modelContext, partition, partitionData, maxRetries, task), executor));
+        }
+
+        List<R> results = new ArrayList<>(partitions.size());
+        List<Integer> failedPartitions = new ArrayList<>();
+        Throwable failure = null;
+        long committedRows = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).join());
+                committedRows += partitions.get(i).size();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                failedPartitions.add(i);
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw new PartitionedBatchException("Model [" + modelContext.getModel().getName() + "] " + failedPartitions.size() + " of " + partitions.size()
+                    + " partitions failed, " + committedRows + " rows committed", failure, partitions.size(), failedPartitions, committedRows);
+        }
+        return results;
+    }
+
+    private static <ID, R> R executePartition(ModelContext modelContext, int partition, List<?> data, int maxRetries, BiFunction<DataManager<ID>, List<?>, R> task) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return modelContext.getMybatisHelper().executeInTransaction(session ->
+                        task.apply(new DataManagerImpl<>(modelContext.createNew(modelContext.getPermission(), session)), data));
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                log.warn("Model [{}] partition {} failed on attempt {}, retrying: {}", modelContext.getModel().getName(), partition, attempt + 1, e.getMessage());
+            }
+        }
+    }
+}
@@ -6,13 +6,17 @@ import io.github.myacelw.mybatis.dynamic.core.exception.data.NonUniqueDataExcept
 import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Join;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
+import io.github.myacelw.mybatis.dynamic.core.service.DataLoader;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
 import io.github.myacelw.mybatis.dynamic.core.service.command.QueryByIdCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.EntityCache;
 import io.github.myacelw.mybatis.dynamic.core.service.impl.IdUtil;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
 import io.github.myacelw.mybatis.dynamic.core.util.Assert;
 import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -39,14 +43,58 @@ public class QueryByIdExecution<ID, T> extends AbstractExecution<ID, T, QueryByI
 
         Model model = dataManager.getModel();
 
-        List<T> list = dataManager.queryChain(command.getClazz())
+        DataLoader dataLoader = getDataLoader(dataManager.getModelContext(), command.getJoins(), command.getSelectFields());
+        if (dataLoader != null) {
+            T data = dataLoader.get(model.getName(), command.getId(), command.getClazz());
+            return getOne(data == null ? Collections.emptyList() : Collections.singletonList(data), command.isNullThrowException());
+        }
+
+        EntityCache entityCache = getEntityCache(dataManager.getModelContext(), command.getJoins(), command.getSelectFields());
+        if (entityCache != null) {
+            T cached = entityCache.get(command.getId(), command.getClazz());
+            if (cached != null) {
+                return cached;
+            }
+            long version = entityCache.getVersion();
+            List<T> list = query(command, dataManager, model);
+            if (list.size() == 1) {
+                entityCache.put(command.getId(), command.getClazz(), list.get(0), version);
+            }
+            return getOne(list, command.isNullThrowException());
+        }
+
+        return getOne(query(command, dataManager, model), command.isNullThrowException());
+    }
+
+    /**
+     * 得到可用的实体缓存，关联查询、指定查询字段、带权限或处于调用方事务中时不使用缓存
+     */
+    static EntityCache getEntityCache(ModelContext modelContext, List<Join> joins, List<String> selectFields) {
+        if (modelContext.getEntityCache() == null || modelContext.getPermission() != null || !ObjectUtil.isEmpty(joins) || !ObjectUtil.isEmpty(selectFields)
+                || modelContext.isTransactional()) {
+            return null;
+        }
+        return modelContext.getEntityCache();
+    }
+
+    /**
+     * 得到当前线程可用的批量加载器，关联查询、指定查询字段或带权限时不使用
+     */
+    static DataLoader getDataLoader(ModelContext modelContext, List<Join> joins, List<String> selectFields) {
+        DataLoader dataLoader = DataLoader.current();
+        if (dataLoader == null || !ObjectUtil.isEmpty(joins) || !ObjectUtil.isEmpty(selectFields) || !dataLoader.isApplicable(modelContext)) {
+            return null;
+        }
+        return dataLoader;
+    }
+
+    private List<T> query(QueryByIdCommand<ID, T> command, DataManager<ID> dataManager, Model model) {
+        return dataManager.queryChain(command.getClazz())
                 .where(IdUtil.getIdCondition(model, command.getId()))
                 .page(ObjectUtil.isEmpty(command.getJoins()) ? new Page(1, 1) : null)
                 .joins(command.getJoins())
                 .select(command.getSelectFields())
                 .exec();
-
-        return getOne(list, command.isNullThrowException());
     }
 
     private T getOne(List<T> list, boolean nullThrowException) {
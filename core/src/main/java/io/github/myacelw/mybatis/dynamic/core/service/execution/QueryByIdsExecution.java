@@ -2,14 +2,16 @@ package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
 import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
+import io.github.myacelw.mybatis.dynamic.core.service.DataLoader;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
 import io.github.myacelw.mybatis.dynamic.core.service.command.QueryByIdsCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.EntityCache;
 import io.github.myacelw.mybatis.dynamic.core.service.impl.IdUtil;
 import io.github.myacelw.mybatis.dynamic.core.util.Assert;
 import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * 按ID查询一条数据执行器
@@ -29,8 +31,69 @@ public class QueryByIdsExecution<ID, T> extends AbstractExecution<ID, List<T>, Q
         Assert.notEmpty(command.getIds(), "ID cannot be empty");
         Model model = dataManager.getModel();
 
+        DataLoader dataLoader = QueryByIdExecution.getDataLoader(dataManager.getModelContext(), command.getJoins(), command.getSelectFields());
+        if (dataLoader != null) {
+            return dataLoader.getAll(model.getName(), command.getIds(), command.getClazz());
+        }
+
+        EntityCache entityCache = QueryByIdExecution.getEntityCache(dataManager.getModelContext(), command.getJoins(), command.getSelectFields());
+        if (entityCache != null) {
+            return execWithCache(command, dataManager, entityCache);
+        }
+        return query(command.getIds(), command, dataManager, model);
+    }
+
+    /**
+     * 命中缓存的直接返回，未命中的一次查询并放入缓存，结果按传入ID顺序排列
+     */
+    private List<T> execWithCache(QueryByIdsCommand<ID, T> command, DataManager<ID> dataManager, EntityCache entityCache) {
+        Map<Object, T> found = new HashMap<>();
+        Set<Object> keys = new LinkedHashSet<>();
+        List<ID> missIds = new ArrayList<>();
+        for (ID id : command.getIds()) {
+            Object key = entityCache.getKey(id);
+            if (key == null) {
+                return query(command.getIds(), command, dataManager, dataManager.getModel());
+            }
+            if (!keys.add(key)) {
+                continue;
+            }
+            T cached = entityCache.get(id, command.getClazz());
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                missIds.add(id);
+            }
+        }
+
+        List<T> unkeyed = new ArrayList<>();
+        if (!missIds.isEmpty()) {
+            long version = entityCache.getVersion();
+            for (T row : query(missIds, command, dataManager, dataManager.getModel())) {
+                Object key = entityCache.getRowKey(row);
+                if (key == null) {
+                    unkeyed.add(row);
+                    continue;
+                }
+                found.put(key, row);
+                entityCache.put(key, command.getClazz(), row, version);
+            }
+        }
+
+        List<T> result = new ArrayList<>(found.size() + unkeyed.size());
+        keys.forEach(key -> {
+            T row = found.get(key);
+            if (row != null) {
+                result.add(row);
+            }
+        });
+        result.addAll(unkeyed);
+        return result;
+    }
+
+    private List<T> query(Collection<ID> ids, QueryByIdsCommand<ID, T> command, DataManager<ID> dataManager, Model model) {
         return dataManager.queryChain(command.getClazz())
-                .where(IdUtil.getIdsCondition(model, command.getIds()))
+                .where(IdUtil.getIdsCondition(model, ids))
                 .joins(command.getJoins())
                 .select(command.getSelectFields())
                 .exec();
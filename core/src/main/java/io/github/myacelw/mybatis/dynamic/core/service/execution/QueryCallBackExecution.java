@@ -1,6 +1,7 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.CustomSelectField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
 import io.github.myacelw.mybatis.dynamic.core.metadata.table.SelectColumn;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
@@ -36,6 +37,9 @@ import java.util.concurrent.atomic.AtomicInteger;
  * List 查询： MyBatis 会先扫描所有行，在内存中完成所有的聚合，最后才把结果给你。即使 SQL 返回的数据是乱序的（例如 ID 为 1, 2, 1），List 最终也只会包含两个对象，ID 为 1 的对象会自动收集两条子记录。
  * <p>
  * Cursor 查询： 为了节省内存，Cursor 是边读边给。当它读取到 ID=1，接着读到 ID=2 时，它会认为 ID=1 的记录已经“结束”了，从而触发结果交付。如果后面再出现一条 ID=1 的记录，Cursor 无法回头去修改已经交给你的那个 ID=1 的对象，它会重新创建一个新的 ID=1 的对象。
+ * <p>
+ * 查询结果包含 collection 时，排序项自动加入主模型主键（排序项引用一对多关联字段时主键作为首个排序项），保证同一主对象的行相邻；
+ * 语句以 resultOrdered 方式执行，主对象的全部行读取完成后才交付，回调后即释放，内存占用与结果总行数无关。
  *
  * @author liuwei
  */
@@ -66,7 +70,8 @@ public class QueryCallBackExecution<ID, T> extends AbstractExecution<ID, Integer
 
         List<SelectColumn> columns = root.getSelectColumns(false, command.getClazz() != null, command.getCustomSelectFields());
         String tableAndAs = modelContext.getModel().getSchemaAndTableName() + " AS " + root.getTableAsName();
-        String orderBySql = QueryExecution.getOrderBySql(command.getOrderItems(), root, context, modelContext.getDialect());
+        List<OrderItem> orderItems = QueryCursorExecution.getGroupedOrderItems(command.getOrderItems(), columns, modelContext);
+        String orderBySql = QueryExecution.getOrderBySql(orderItems, root, context, modelContext.getDialect());
 
         String sql = QueryExecution.getQuerySql(context, columns, tableAndAs, joinSql, whereSql, orderBySql, command.getLimit(), command.getOffset(), null);
 
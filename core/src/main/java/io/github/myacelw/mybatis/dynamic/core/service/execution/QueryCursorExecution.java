@@ -1,6 +1,10 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
+import io.github.myacelw.mybatis.dynamic.core.metadata.field.Field;
+import io.github.myacelw.mybatis.dynamic.core.metadata.field.RefModel;
+import io.github.myacelw.mybatis.dynamic.core.metadata.field.ToManyField;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.CustomSelectField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
 import io.github.myacelw.mybatis.dynamic.core.metadata.table.SelectColumn;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
@@ -10,6 +14,7 @@ import io.github.myacelw.mybatis.dynamic.core.service.impl.QueryNode;
 import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
 import org.apache.ibatis.cursor.Cursor;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +39,9 @@ import java.util.Map;
  * List 查询： MyBatis 会先扫描所有行，在内存中完成所有的聚合，最后才把结果给你。即使 SQL 返回的数据是乱序的（例如 ID 为 1, 2, 1），List 最终也只会包含两个对象，ID 为 1 的对象会自动收集两条子记录。
  * <p>
  * Cursor 查询： 为了节省内存，Cursor 是边读边给。当它读取到 ID=1，接着读到 ID=2 时，它会认为 ID=1 的记录已经“结束”了，从而触发结果交付。如果后面再出现一条 ID=1 的记录，Cursor 无法回头去修改已经交给你的那个 ID=1 的对象，它会重新创建一个新的 ID=1 的对象。
+ * <p>
+ * 查询结果包含 collection 时，排序项自动加入主模型主键（排序项引用一对多关联字段时主键作为首个排序项），保证同一主对象的行相邻；
+ * 语句以 resultOrdered 方式执行，主对象的全部行读取完成后才交付，交付后即释放，内存占用与结果总行数无关。
  *
  * @author liuwei
  */
@@ -63,7 +71,8 @@ public class QueryCursorExecution<ID, T> extends AbstractExecution<ID, Cursor<T>
 
         List<SelectColumn> columns = root.getSelectColumns(false, command.getClazz() != null, command.getCustomSelectFields());
         String tableAndAs = modelContext.getModel().getSchemaAndTableName() + " AS " + root.getTableAsName();
-        String orderBySql = QueryExecution.getOrderBySql(command.getOrderItems(), root, context, modelContext.getDialect());
+        List<OrderItem> orderItems = getGroupedOrderItems(command.getOrderItems(), columns, modelContext);
+        String orderBySql = QueryExecution.getOrderBySql(orderItems, root, context, modelContext.getDialect());
 
         String sql = QueryExecution.getQuerySql(context, columns, tableAndAs, joinSql, whereSql, orderBySql, command.getLimit(), command.getOffset(), null);
 
@@ -74,5 +83,65 @@ public class QueryCursorExecution<ID, T> extends AbstractExecution<ID, Cursor<T>
         return modelContext.getMybatisHelper().queryCursor(modelContext.getSqlSession(), "${__sql}", context, columns, clazz);
     }
 
+    /**
+     * 查询结果包含 collection 时，返回加入主键后的排序项，保证同一主对象的行相邻；否则返回原排序项
+     */
+    static List<OrderItem> getGroupedOrderItems(List<OrderItem> orderItems, List<SelectColumn> columns, ModelContext modelContext) {
+        String[] primaryKeyFields = modelContext.getModel().getPrimaryKeyFields();
+        if (ObjectUtil.isEmpty(primaryKeyFields) || !hasCollection(columns)) {
+            return orderItems;
+        }
+
+        List<OrderItem> result = new ArrayList<>();
+        if (orderItems == null || orderItems.stream().noneMatch(t -> t.getField() != null && isToManyPath(modelContext, t.getField()))) {
+            if (orderItems != null) {
+                result.addAll(orderItems);
+            }
+            for (String pk : primaryKeyFields) {
+                if (result.stream().noneMatch(t -> pk.equals(t.getField()) && t.getFunctionTemplate() == null)) {
+                    result.add(OrderItem.asc(pk));
+                }
+            }
+        } else {
+            // 一对多关联字段的排序会打散同一主对象的行，主键作为首个排序项
+            for (String pk : primaryKeyFields) {
+                result.add(OrderItem.asc(pk));
+            }
+            result.addAll(orderItems);
+        }
+        return result;
+    }
+
+    private static boolean hasCollection(List<SelectColumn> columns) {
+        if (columns == null) {
+            return false;
+        }
+        for (SelectColumn column : columns) {
+            if (column.getType() == SelectColumn.Type.COLLECTION
+                    || (column.getType() == SelectColumn.Type.ASSOCIATION && hasCollection(column.getComposites()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 字段路径是否经过一对多关联字段
+     */
+    private static boolean isToManyPath(ModelContext modelContext, String fieldPath) {
+        ModelContext current = modelContext;
+        String[] names = fieldPath.split("\\.");
+        for (int i = 0; i < names.length - 1; i++) {
+            Field field = current.getField(names[i]);
+            if (field instanceof ToManyField) {
+                return true;
+            }
+            if (!(field instanceof RefModel)) {
+                return false;
+            }
+            current = current.getDataManagerGetter().getModelContext(((RefModel) field).getTargetModel());
+        }
+        return false;
+    }
 
 }
@@ -2,6 +2,7 @@ package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
 import io.github.myacelw.mybatis.dynamic.core.database.dialect.DataBaseDialect;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.BasicField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.field.ToManyField;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.CustomSelectField;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
@@ -13,13 +14,19 @@ import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
 import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCommand;
 import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
 import io.github.myacelw.mybatis.dynamic.core.service.impl.QueryNode;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.QueryPlan;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.QueryResultCache;
 import io.github.myacelw.mybatis.dynamic.core.util.Assert;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
 import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
 import io.github.myacelw.mybatis.dynamic.core.util.StringUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.tuple.Tuple;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.type.TypeHandler;
 
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +37,10 @@ import java.util.stream.Collectors;
 @Slf4j
 public class QueryExecution<ID, T> extends AbstractExecution<ID, List<T>, QueryCommand<T>> {
 
+    private static final String TOTAL_PROPERTY = "__total";
+
+    private static final String ROW_PROPERTY = "__row";
+
     @Override
     public Class<? extends Command> getCommandClass() {
         return QueryCommand.class;
@@ -37,7 +48,53 @@ public class QueryExecution<ID, T> extends AbstractExecution<ID, List<T>, QueryC
 
     @Override
     public List<T> exec(QueryCommand<T> command, DataManager<ID> dataManager) {
-        return doQuery(command, dataManager.getModelContext(), root -> root.getSelectColumns(false, command.getClazz() != null, command.getCustomSelectFields()));
+        return query(command, dataManager, false).v1;
+    }
+
+    /**
+     * 查询数据，同时通过 COUNT(*) OVER() 得到分页前的总行数；查询结果为空时总行数为null。
+     * 与普通查询经过相同的键集、拆分查询、查询计划缓存和结果缓存流程，仅在查询列中附加窗口函数列。
+     * 每行结果包装为Map，数据行作为关联属性，包装行使用数据行的主键列（无主键列时为全部普通列）作为行键，关联子表数据的归并方式与普通查询一致。
+     */
+    public static <ID, T> Tuple<List<T>, Integer> queryWithTotal(QueryCommand<T> command, DataManager<ID> dataManager) {
+        return query(command, dataManager, true);
+    }
+
+    static <ID, T> Tuple<List<T>, Integer> query(QueryCommand<T> command, DataManager<ID> dataManager, boolean withTotal) {
+        if (command.getKeyset() != null) {
+            return query(KeysetSupport.toQueryCommand(command, dataManager.getModelContext().getModel()), dataManager, withTotal);
+        }
+        ModelContext modelContext = dataManager.getModelContext();
+        List<ToManyField> splitFields = SplitQuerySupport.getSplitFields(command, modelContext);
+        if (!splitFields.isEmpty()) {
+            return SplitQuerySupport.query(command, dataManager, splitFields, withTotal);
+        }
+        Function<QueryNode, List<SelectColumn>> getSelectColumns = root -> {
+            List<SelectColumn> columns = root.getSelectColumns(false, command.getClazz() != null, command.getCustomSelectFields());
+            return withTotal ? getTotalWrapperColumns(columns, command.getClazz()) : columns;
+        };
+        Class<?> resultClass = withTotal ? Map.class : getResultClass(command);
+        LruCache<QueryPlan.Key, QueryPlan> planCache = modelContext.getQueryPlanCache();
+        QueryPlan.Key key = planCache == null ? null : QueryPlan.createKey(command, modelContext, withTotal);
+
+        List<?> rows;
+        QueryPlan plan = key == null ? null : planCache.get(key);
+        Map<String, Object> context = plan == null ? null : plan.bind(command, modelContext);
+        if (context == null) {
+            context = new HashMap<>();
+            QueryNode root = QueryNode.build(modelContext);
+            Tuple<String, List<SelectColumn>> sqlAndColumns = buildQuerySql(command, modelContext, root, context, getSelectColumns, null, false, null);
+            if (key != null) {
+                plan = QueryPlan.create(command, root, context, sqlAndColumns.v1, sqlAndColumns.v2);
+                if (plan != null) {
+                    planCache.put(key, plan);
+                }
+            }
+            rows = executeQuery(command, modelContext, sqlAndColumns.v1, context, sqlAndColumns.v2, () -> getModelNames(root), resultClass);
+        } else {
+            rows = executeQuery(command, modelContext, plan.getSql(), context, plan.getColumns(), plan::getModelNames, resultClass);
+        }
+        return withTotal ? unwrapTotal(rows) : new Tuple<>((List<T>) rows, null);
     }
 
     public static <T> List<T> doQuery(QueryCommand<T> command, ModelContext modelContext, Function<QueryNode, List<SelectColumn>> getSelectColumns) {
@@ -46,11 +103,19 @@ public class QueryExecution<ID, T> extends AbstractExecution<ID, List<T>, QueryC
 
     public static <T> List<T> doQuery(QueryCommand<T> command, ModelContext modelContext, Function<QueryNode, List<SelectColumn>> getSelectColumns, Condition recursiveCondition, boolean recursiveDown, List<String> recursiveFields) {
         Map<String, Object> context = new HashMap<>();
+        QueryNode root = QueryNode.build(modelContext);
+        Tuple<String, List<SelectColumn>> sqlAndColumns = buildQuerySql(command, modelContext, root, context, getSelectColumns, recursiveCondition, recursiveDown, recursiveFields);
+        return executeQuery(command, modelContext, sqlAndColumns.v1, context, sqlAndColumns.v2, () -> getModelNames(root), getResultClass(command));
+    }
+
+    /**
+     * 生成查询SQL和结果列，SQL参数写入context
+     */
+    private static Tuple<String, List<SelectColumn>> buildQuerySql(QueryCommand<?> command, ModelContext modelContext, QueryNode root, Map<String, Object> context, Function<QueryNode, List<SelectColumn>> getSelectColumns, Condition recursiveCondition, boolean recursiveDown, List<String> recursiveFields) {
         if (!ObjectUtil.isEmpty(command.getCustomSelectFields())) {
             context.put(CustomSelectField.CONTEXT_KEY, command.getCustomSelectFields());
         }
 
-        QueryNode root = QueryNode.build(modelContext);
         root.addJoins(command.getJoins());
         root.addJoins(command.getCondition(), command.getOrderItems(), command.getCustomSelectFields());
         root.addSelectFields(command.getSelectFields());
@@ -68,13 +133,11 @@ public class QueryExecution<ID, T> extends AbstractExecution<ID, List<T>, QueryC
             tableAndAs = root.getTableAsName();
         }
 
-        Class<T> entityClass = (command.getClazz() == null ? (Class<T>) Map.class : command.getClazz());
-
         Page page = command.getPage();
         Integer rows = null;
         Integer offset = null;
         if (page != null && page.getSize() > 0) {
-            rows = page.getSize();
+            rows = command.isLookAhead() ? page.getSize() + 1 : page.getSize();
             offset = page.getSize() * (page.getCurrent() - 1);
             if (offset <= 0) {
                 offset = null;
@@ -84,13 +147,102 @@ public class QueryExecution<ID, T> extends AbstractExecution<ID, List<T>, QueryC
         }
 
         String sql = getQuerySql(context, columns, tableAndAs, joinSql, whereSql, orderBySql, rows, offset, sqlPrefix);
+        return new Tuple<>(sql, columns);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Tuple<List<T>, Integer> unwrapTotal(List<?> rows) {
+        List<T> data = rows.stream().map(t -> (T) ((Map<String, Object>) t).get(ROW_PROPERTY)).collect(Collectors.toList());
+        Integer total = rows.isEmpty() ? null : ((Number) ((Map<String, Object>) rows.get(0)).get(TOTAL_PROPERTY)).intValue();
+        return new Tuple<>(data, total);
+    }
+
+    private static List<SelectColumn> getTotalWrapperColumns(List<SelectColumn> columns, Class<?> clazz) {
+        List<SelectColumn> keyColumns = columns.stream().filter(t -> t.getType() == SelectColumn.Type.ID).collect(Collectors.toList());
+        if (keyColumns.isEmpty()) {
+            keyColumns = columns.stream().filter(t -> t.getType() == SelectColumn.Type.COLUMN).collect(Collectors.toList());
+        }
+
+        List<SelectColumn> result = new ArrayList<>();
+        result.add(SelectColumn.column("COUNT(*) OVER()", TOTAL_PROPERTY, Long.class, (TypeHandler<?>) null, null));
+        for (int i = 0; i < keyColumns.size(); i++) {
+            SelectColumn key = keyColumns.get(i).clone();
+            key.setType(SelectColumn.Type.ID);
+            key.setProperty("__k" + i);
+            result.add(key);
+        }
+        result.add(SelectColumn.association(null, ROW_PROPERTY, columns, clazz == null ? Map.class : clazz));
+        return result;
+    }
+
+    /**
+     * 使用数据库执行计划估算查询结果行数，方言不支持或无法读取时返回null
+     */
+    public static Long estimateRows(QueryCommand<?> command, ModelContext modelContext) {
+        Map<String, Object> context = new HashMap<>();
+        String sql = buildQuerySql(command, modelContext, QueryNode.build(modelContext), context, r -> r.getSelectColumns(false, command.getClazz() != null, command.getCustomSelectFields()), null, false, null).v1;
+        String explainSql = modelContext.getDialect().getExplainSql(sql);
+        if (explainSql == null) {
+            return null;
+        }
+
+        log.debug("EXPLAIN SQL: {}, context: {}", explainSql, context);
+
+        context.put("__sql", explainSql);
+        List<Map<String, Object>> result = modelContext.getMybatisHelper().queryList(modelContext.getSqlSession(), "${__sql}", context, (List<SelectColumn>) null);
+        return modelContext.getDialect().getEstimatedRows(result);
+    }
 
+    /**
+     * 总记录数缓存键，由查询最终SQL和绑定参数值生成，权限、条件及关联均体现在其中；参数值无法解析时返回null
+     */
+    public static QueryResultCache.Key createCountCacheKey(QueryCommand<?> command, ModelContext modelContext) {
+        Map<String, Object> context = new HashMap<>();
+        String sql = buildQuerySql(command, modelContext, QueryNode.build(modelContext), context, r -> r.getSelectColumns(false, command.getClazz() != null, command.getCustomSelectFields()), null, false, null).v1;
+        return QueryResultCache.createKey(sql, context, Integer.class);
+    }
+
+    /**
+     * 执行查询，命令开启结果缓存时先从缓存读取
+     *
+     * @param modelNames 查询涉及的模型名，用于缓存失效
+     */
+    private static <T> List<T> executeQuery(QueryCommand<?> command, ModelContext modelContext, String sql, Map<String, Object> context, List<SelectColumn> columns, Supplier<List<String>> modelNames, Class<T> entityClass) {
+        // 调用方事务内可能读到未提交数据，不使用缓存
+        QueryResultCache resultCache = command.isCacheResult() && !modelContext.isTransactional() ? modelContext.getResultCache() : null;
+        QueryResultCache.Key cacheKey = resultCache == null ? null : QueryResultCache.createKey(sql, context, entityClass);
+        if (cacheKey == null) {
+            return executeQuery(modelContext, sql, context, columns, entityClass);
+        }
+
+        List<T> cached = resultCache.get(cacheKey);
+        if (cached != null) {
+            log.debug("QUERY SQL (cached): {}, context: {}", sql, context);
+            return cached;
+        }
+        List<String> names = modelNames.get();
+        long[] versions = resultCache.getVersions(names);
+        List<T> result = executeQuery(modelContext, sql, context, columns, entityClass);
+        resultCache.put(cacheKey, names, result, versions);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Class<T> getResultClass(QueryCommand<T> command) {
+        return command.getClazz() == null ? (Class<T>) Map.class : command.getClazz();
+    }
+
+    private static <T> List<T> executeQuery(ModelContext modelContext, String sql, Map<String, Object> context, List<SelectColumn> columns, Class<T> entityClass) {
         log.debug("QUERY SQL: {}, context: {}", sql, context);
 
         context.put("__sql", sql);
         return modelContext.getMybatisHelper().queryList(modelContext.getSqlSession(), "${__sql}", context, columns, entityClass);
     }
 
+    private static List<String> getModelNames(QueryNode root) {
+        return root.getAllNodes().stream().map(t -> t.getModelContext().getModel().getName()).distinct().collect(Collectors.toList());
+    }
+
     /**
      * 递归查询SQL
      */
@@ -0,0 +1,197 @@
+package io.github.myacelw.mybatis.dynamic.core.service.execution;
+
+import io.github.myacelw.mybatis.dynamic.core.metadata.field.Field;
+import io.github.myacelw.mybatis.dynamic.core.metadata.field.ToManyField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.CustomSelectField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Join;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.GroupCondition;
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.IdUtil;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
+import io.github.myacelw.mybatis.dynamic.core.util.DataUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.tuple.Tuple;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 一对多关联拆分查询。
+ * Join 一对多关联时每个子表行都重复一次主表列，多个一对多关联之间还会形成笛卡尔积。
+ * 拆分后主查询只 Join 其余关联，再按主查询结果的主键为每个一对多关联分别执行 IN 查询，按关联字段分组设置到主数据上。
+ * <p>
+ * 只拆分主模型直接关联的一对多字段（其下级关联随同拆分），INNER 等非 LEFT 类型、或在条件、排序、自定义查询字段中引用的关联会影响主查询结果，不拆分。
+ *
+ * @author liuwei
+ */
+@Slf4j
+class SplitQuerySupport {
+
+    /**
+     * 单次 IN 查询的最大主键数
+     */
+    static final int BATCH_SIZE = 1000;
+
+    private SplitQuerySupport() {
+    }
+
+    /**
+     * 得到需要拆分查询的一对多关联字段，不拆分时返回空列表
+     */
+    static List<ToManyField> getSplitFields(QueryCommand<?> command, ModelContext modelContext) {
+        if (Boolean.FALSE.equals(command.getSplitQuery()) || ObjectUtil.isEmpty(command.getJoins())
+                || ObjectUtil.isEmpty(modelContext.getModel().getPrimaryKeyFields())) {
+            return Collections.emptyList();
+        }
+        if (command.getSplitQuery() == null && command.getPage() != null) {
+            return Collections.emptyList();
+        }
+
+        Set<String> referencedFields = getReferencedFields(command);
+        List<ToManyField> result = new ArrayList<>();
+        for (Join join : command.getJoins()) {
+            String fieldPath = join.getFieldPath();
+            if (fieldPath.contains(".") || (join.getType() != null && join.getType() != Join.JoinType.LEFT)) {
+                continue;
+            }
+            Field field = modelContext.getPermissionedField(fieldPath, true);
+            if (field instanceof ToManyField && referencedFields.stream().noneMatch(t -> isBranchPath(t, fieldPath))
+                    && result.stream().noneMatch(t -> t.getName().equals(fieldPath))) {
+                result.add((ToManyField) field);
+            }
+        }
+        if (command.getSplitQuery() == null && result.size() < 2) {
+            return Collections.emptyList();
+        }
+        return result;
+    }
+
+    private static Set<String> getReferencedFields(QueryCommand<?> command) {
+        Set<String> fields = new HashSet<>();
+        if (command.getCondition() != null) {
+            fields.addAll(command.getCondition().innerGetSimpleConditionFields());
+        }
+        if (command.getOrderItems() != null) {
+            command.getOrderItems().stream().map(OrderItem::getField).filter(Objects::nonNull).forEach(fields::add);
+        }
+        if (command.getCustomSelectFields() != null) {
+            for (CustomSelectField customSelectField : command.getCustomSelectFields()) {
+                if (customSelectField.getFields() != null) {
+                    fields.addAll(customSelectField.getFields());
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static boolean isBranchPath(String path, String fieldName) {
+        return path.equals(fieldName) || path.startsWith(fieldName + ".");
+    }
+
+    /**
+     * 执行主查询，再逐个查询一对多关联数据并设置到主数据
+     *
+     * @param withTotal 主查询是否同时得到分页前的总行数，拆分后按主模型行数计算
+     */
+    static <ID, T> Tuple<List<T>, Integer> query(QueryCommand<T> command, DataManager<ID> dataManager, List<ToManyField> splitFields, boolean withTotal) {
+        ModelContext modelContext = dataManager.getModelContext();
+        Set<String> splitFieldNames = splitFields.stream().map(Field::getName).collect(Collectors.toSet());
+
+        QueryCommand<T> rootCommand = new QueryCommand<>();
+        rootCommand.copyProperties(command);
+        rootCommand.setPage(command.getPage());
+        rootCommand.setLookAhead(command.isLookAhead());
+        rootCommand.setSplitQuery(false);
+        rootCommand.setJoins(command.getJoins().stream()
+                .filter(t -> splitFieldNames.stream().noneMatch(f -> isBranchPath(t.getFieldPath(), f)))
+                .collect(Collectors.toList()));
+        if (command.getSelectFields() != null) {
+            rootCommand.setSelectFields(command.getSelectFields().stream()
+                    .filter(t -> splitFieldNames.stream().noneMatch(f -> isBranchPath(t, f)))
+                    .collect(Collectors.toList()));
+        }
+
+        Tuple<List<T>, Integer> rootResult = QueryExecution.query(rootCommand, dataManager, withTotal);
+        List<T> result = rootResult.v1;
+        if (result.isEmpty()) {
+            return rootResult;
+        }
+
+        String[] primaryKeyFields = modelContext.getModel().getPrimaryKeyFields();
+        List<Object> ids = result.stream().map(t -> DataUtil.getSingleOrMultiValue(t, primaryKeyFields))
+                .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+
+        for (ToManyField field : splitFields) {
+            QueryCommand<Object> branchCommand = createBranchCommand(command, field);
+            if (branchCommand == null) {
+                continue;
+            }
+            log.debug("Split query for field [{}] of model [{}], {} parent ids", field.getName(), modelContext.getModel().getName(), ids.size());
+
+            DataManager<Object> targetDataManager = modelContext.getDataManagerGetter().getDataManager(field.getTargetModel(), modelContext.getSqlSession());
+            String[] joinTargetFields = field.getJoinTargetFields();
+            Condition joinCondition = branchCommand.getCondition();
+            Map<Object, List<Object>> valueMap = new HashMap<>();
+            for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                Condition idsCondition = IdUtil.getIdsCondition(joinTargetFields, ids.subList(i, Math.min(i + BATCH_SIZE, ids.size())));
+                branchCommand.setCondition(joinCondition == null ? idsCondition : GroupCondition.and(idsCondition, joinCondition));
+                List<Object> values = targetDataManager.execCommand(branchCommand);
+                for (Object item : values) {
+                    valueMap.computeIfAbsent(DataUtil.getSingleOrMultiValue(item, joinTargetFields), k -> new ArrayList<>()).add(item);
+                }
+            }
+
+            for (T data : result) {
+                List<Object> value = valueMap.get(DataUtil.getSingleOrMultiValue(data, primaryKeyFields));
+                DataUtil.setProperty(data, field.getName(), value == null ? new ArrayList<>() : value);
+            }
+        }
+        return rootResult;
+    }
+
+    /**
+     * 创建一对多关联的查询命令，指定了查询字段但未包含该关联时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private static QueryCommand<Object> createBranchCommand(QueryCommand<?> command, ToManyField field) {
+        String fieldName = field.getName();
+        String prefix = fieldName + ".";
+
+        List<String> selectFields = null;
+        if (command.getSelectFields() != null && !command.getSelectFields().contains(fieldName)) {
+            selectFields = command.getSelectFields().stream().filter(t -> t.startsWith(prefix))
+                    .map(t -> t.substring(prefix.length())).collect(Collectors.toList());
+            if (selectFields.isEmpty()) {
+                return null;
+            }
+            // 关联字段用于分组
+            selectFields.addAll(Arrays.asList(field.getJoinTargetFields()));
+        }
+
+        Join join = null;
+        List<Join> joins = new ArrayList<>();
+        for (Join t : command.getJoins()) {
+            if (t.getFieldPath().equals(fieldName)) {
+                join = t;
+            } else if (t.getFieldPath().startsWith(prefix)) {
+                Join cloned = t.clone();
+                cloned.setFieldPath(t.getFieldPath().substring(prefix.length()));
+                joins.add(cloned);
+            }
+        }
+
+        QueryCommand<Object> result = new QueryCommand<>();
+        result.setClazz(command.getClazz() == null ? null : (Class<Object>) field.getJavaClass());
+        result.setCondition(join == null ? null : join.getCondition());
+        result.setIgnoreLogicDelete(join != null && join.isIgnoreLogicDelete());
+        result.setJoins(joins);
+        result.setSelectFields(selectFields);
+        result.setCacheResult(command.isCacheResult());
+        result.setSplitQuery(command.getSplitQuery());
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.myacelw.mybatis.dynamic.core.service.execution;
+
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.command.BatchInsertCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.command.Command;
+import io.github.myacelw.mybatis.dynamic.core.service.command.StreamInsertCommand;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 流式批量插入执行器，每读取 batchSize 条数据执行一次批量插入，已插入的数据不再持有
+ *
+ * @author liuwei
+ */
+public class StreamInsertExecution<ID> extends AbstractExecution<ID, Long, StreamInsertCommand> {
+
+    @Override
+    public Class<? extends Command> getCommandClass() {
+        return StreamInsertCommand.class;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Long exec(StreamInsertCommand command, DataManager<ID> dataManager) {
+        int batchSize = Math.max(1, command.getBatchSize());
+        Iterator<?> iterator = command.getData();
+        long count = 0;
+        while (iterator.hasNext()) {
+            List<Object> chunk = new ArrayList<>(batchSize);
+            while (chunk.size() < batchSize && iterator.hasNext()) {
+                chunk.add(iterator.next());
+            }
+
+            BatchInsertCommand batchInsertCommand = new BatchInsertCommand();
+            batchInsertCommand.setData(chunk);
+            batchInsertCommand.setDisableGenerateId(command.isDisableGenerateId());
+            batchInsertCommand.setBatchSize(batchSize);
+            batchInsertCommand.setRowsPerStatement(command.getRowsPerStatement());
+            batchInsertCommand.setBulkLoad(command.isBulkLoad());
+            List<ID> ids = dataManager.execCommand(batchInsertCommand);
+
+            count += chunk.size();
+            if (command.getIdConsumer() != null) {
+                command.getIdConsumer().accept((List) ids);
+            }
+        }
+        return count;
+    }
+}
@@ -103,6 +103,10 @@ public class Class2ModelTransferImpl implements Class2ModelTransfer {
             }
             model.getTableDefine().setDisableTableCreateAndAlter(anno.disableTableCreateAndAlter());
             model.getTableDefine().setPartition(getPartition(anno.partition()));
+            if (anno.entityCacheSize() > 0) {
+                model.setEntityCacheSize(anno.entityCacheSize());
+                model.setEntityCacheTtlSeconds(anno.entityCacheTtlSeconds());
+            }
             logicDelete = anno.logicDelete();
         }
 
@@ -6,9 +6,9 @@ import io.github.myacelw.mybatis.dynamic.core.service.DataChangeInterceptor;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import lombok.Getter;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 数据变更拦截器组
@@ -21,7 +21,14 @@ public class DataChangeInterceptorGroup implements DataChangeInterceptor {
     private final List<DataChangeInterceptor> interceptors;
 
     public DataChangeInterceptorGroup(List<DataChangeInterceptor> interceptors) {
-        this.interceptors = interceptors == null ? new ArrayList<>() : new ArrayList<>(interceptors);
+        this.interceptors = interceptors == null ? new CopyOnWriteArrayList<>() : new CopyOnWriteArrayList<>(interceptors);
+    }
+
+    /**
+     * 追加拦截器，已存在时忽略
+     */
+    public void addInterceptor(DataChangeInterceptor interceptor) {
+        ((CopyOnWriteArrayList<DataChangeInterceptor>) interceptors).addIfAbsent(interceptor);
     }
 
     /**
@@ -37,6 +37,11 @@ public class DataManagerImpl<ID> implements DataManager<ID> {
         return (R) execution.exec(command, this);
     }
 
+    @Override
+    public DataManager<ID> withoutSqlSession() {
+        return modelContext.getSqlSession() == null ? this : new DataManagerImpl<>(modelContext.createNew(modelContext.getPermission(), null));
+    }
+
 //    /**
 //     * 递归查询字段路径对应的模型，并得到数据管理器
 //     *
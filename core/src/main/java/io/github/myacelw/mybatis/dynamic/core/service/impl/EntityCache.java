@@ -0,0 +1,306 @@
+package io.github.myacelw.mybatis.dynamic.core.service.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.event.Event;
+import io.github.myacelw.mybatis.dynamic.core.event.EventListener;
+import io.github.myacelw.mybatis.dynamic.core.event.data.*;
+import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.vo.FieldValue;
+import io.github.myacelw.mybatis.dynamic.core.service.DataChangeInterceptor;
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.util.DataUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 实体二级缓存，缓存按ID查询的结果快照，读写均做深拷贝，调用方修改返回对象不影响缓存。
+ * 作为数据变更拦截器接收本地写操作，按ID失效对应条目，无法确定影响范围的写操作（按条件更新、删除等）清空整个模型缓存；
+ * 作为事件监听器可接收其他节点转发的数据事件进行失效。
+ * <p>
+ * 为避免并发读写时缓存旧数据：每次写操作递增版本号，加载期间版本号变化的结果不放入缓存；
+ * 调用方事务内的写操作在事务结束后再次失效，无法感知事务结束时写后一个过期时长内暂停放入缓存。
+ * 是否处于事务中由 {@link io.github.myacelw.mybatis.dynamic.core.service.TransactionSupport} 判断，事务内的查询不使用缓存。
+ *
+ * @author liuwei
+ */
+@Slf4j
+public class EntityCache implements DataChangeInterceptor, EventListener {
+
+    @Getter
+    private final Model model;
+
+    /**
+     * 缓存过期时长，毫秒
+     */
+    @Getter
+    private final long ttlMillis;
+
+    private final LruCache<Object, Entry> cache;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * 暂停放入缓存的截止时间
+     */
+    private volatile long holdUntil;
+
+    public EntityCache(Model model, int maxSize, int ttlSeconds) {
+        this.model = model;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.cache = new LruCache<>(maxSize);
+    }
+
+    /**
+     * 当前版本号，加载数据前获取，放入缓存时校验
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * 获取缓存的数据副本，未命中或已过期时返回null
+     *
+     * @param id    主键值
+     * @param clazz 返回类型，为空时为Map
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object id, Class<T> clazz) {
+        Object key = getKey(id);
+        Entry entry = key == null ? null : cache.peek(key);
+        Object value = null;
+        if (entry != null) {
+            if (entry.expireAt < System.currentTimeMillis()) {
+                cache.remove(key);
+            } else {
+                value = entry.values.get(clazz == null ? Map.class : clazz);
+            }
+        }
+        if (value == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return (T) DataUtil.deepCopy(value);
+    }
+
+    /**
+     * 放入缓存
+     *
+     * @param id          主键值
+     * @param clazz       返回类型，为空时为Map
+     * @param value       数据
+     * @param loadVersion 加载数据前获取的版本号
+     */
+    public void put(Object id, Class<?> clazz, Object value, long loadVersion) {
+        Object key = getKey(id);
+        if (key == null || value == null || !isPutAllowed(loadVersion)) {
+            return;
+        }
+        Object snapshot;
+        try {
+            snapshot = DataUtil.deepCopy(value);
+        } catch (Exception e) {
+            log.debug("Model [{}] data of type [{}] cannot be copied, skip entity cache", model.getName(), value.getClass().getName());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Entry entry = cache.peek(key);
+        if (entry == null || entry.expireAt < now) {
+            entry = new Entry(now + ttlMillis);
+            cache.put(key, entry);
+        }
+        entry.values.put(clazz == null ? Map.class : clazz, snapshot);
+
+        // 放入后再次校验，期间发生写操作时撤销
+        if (!isPutAllowed(loadVersion)) {
+            cache.remove(key);
+        }
+    }
+
+    private boolean isPutAllowed(long loadVersion) {
+        return version.get() == loadVersion && System.currentTimeMillis() >= holdUntil;
+    }
+
+    /**
+     * 失效指定主键的缓存
+     */
+    public void invalidate(Object id) {
+        version.incrementAndGet();
+        Object key = getKey(id);
+        if (key == null) {
+            cache.clear();
+        } else {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 主键值转换为缓存键，无法转换时返回null
+     */
+    public Object getKey(Object id) {
+        return IdUtil.getIdKey(model, id);
+    }
+
+    /**
+     * 从数据中获取缓存键，主键值为空时返回null
+     */
+    public Object getRowKey(Object row) {
+        return IdUtil.getDataIdKey(model, row);
+    }
+
+    private void changed(DataManager<Object> dataManager, Collection<?> ids) {
+        Runnable action = ids == null ? this::invalidateAll : () -> ids.forEach(this::invalidate);
+        ModelContext modelContext = dataManager == null ? null : dataManager.getModelContext();
+        if (modelContext != null && modelContext.isTransactional() && !modelContext.afterCompletion(action)) {
+            holdUntil = System.currentTimeMillis() + ttlMillis;
+        }
+        action.run();
+    }
+
+    private Collection<?> toIds(Object idOrIds) {
+        if (idOrIds == null) {
+            return null;
+        }
+        if (model.getPrimaryKeyFields().length == 1) {
+            if (idOrIds instanceof Collection) {
+                return (Collection<?>) idOrIds;
+            }
+            return idOrIds instanceof Object[] ? Arrays.asList((Object[]) idOrIds) : Collections.singletonList(idOrIds);
+        }
+        if (getKey(idOrIds) != null) {
+            return Collections.singletonList(idOrIds);
+        }
+        return idOrIds instanceof Collection ? (Collection<?>) idOrIds : null;
+    }
+
+    private Collection<?> toRowIds(List<?> dataList) {
+        if (dataList == null) {
+            return null;
+        }
+        List<Object> ids = new ArrayList<>(dataList.size());
+        for (Object data : dataList) {
+            Object key = getRowKey(data);
+            if (key == null) {
+                return null;
+            }
+            ids.add(key);
+        }
+        return ids;
+    }
+
+    @Override
+    public void afterUpdate(DataManager<Object> dataManager, Object id, Object data, List<FieldValue> fieldValues) {
+        changed(dataManager, toIds(id));
+    }
+
+    @Override
+    public void afterUpdateByCondition(DataManager<Object> dataManager, Condition condition, Object data, List<FieldValue> fieldValues) {
+        changed(dataManager, null);
+    }
+
+    @Override
+    public void afterLogicDelete(DataManager<Object> dataManager, Object ids, List<FieldValue> updateData) {
+        changed(dataManager, toIds(ids));
+    }
+
+    @Override
+    public void afterPhysicalDelete(DataManager<Object> dataManager, Object idOrIds) {
+        changed(dataManager, toIds(idOrIds));
+    }
+
+    @Override
+    public void afterPhysicalDeleteByCondition(DataManager<Object> dataManager, Condition condition) {
+        changed(dataManager, null);
+    }
+
+    @Override
+    public void afterLogicDeleteByCondition(DataManager<Object> dataManager, Condition condition) {
+        changed(dataManager, null);
+    }
+
+    @Override
+    public void afterInsert(DataManager<Object> dataManager, Object data, Object id) {
+        changed(dataManager, id == null ? Collections.emptyList() : toIds(id));
+    }
+
+    @Override
+    public void afterBatchInsert(DataManager<Object> dataManager, List<?> dataList, List<?> idList) {
+        changed(dataManager, idList == null ? null : idList.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void afterBatchUpdate(DataManager<Object> dataManager, List<?> dataList) {
+        changed(dataManager, toRowIds(dataList));
+    }
+
+    @Override
+    public void afterBatchUpdateByCondition(DataManager<Object> dataManager, List<?> updates) {
+        changed(dataManager, null);
+    }
+
+    @Override
+    public void afterBatchInsertOrUpdate(DataManager<Object> dataManager, List<?> dataList) {
+        changed(dataManager, toRowIds(dataList));
+    }
+
+    /**
+     * 接收数据事件失效缓存，用于多节点部署时转发其他节点的写操作
+     */
+    @Override
+    public void onEvent(Event event) {
+        if (!(event instanceof DataEvent) || event instanceof InsertDataEvent || event instanceof BatchInsertDataEvent
+                || !model.getName().equals(((DataEvent) event).getModel().getName())) {
+            return;
+        }
+        if (event instanceof UpdateDataEvent) {
+            changed(null, toIds(((UpdateDataEvent<?>) event).getId()));
+        } else if (event instanceof LogicDeleteDataEvent) {
+            changed(null, toIds(((LogicDeleteDataEvent<?>) event).getId()));
+        } else if (event instanceof PhysicalDeleteDataEvent) {
+            changed(null, toIds(((PhysicalDeleteDataEvent<?>) event).getId()));
+        } else {
+            changed(null, null);
+        }
+    }
+
+    private static class Entry {
+        private final long expireAt;
+
+        private final Map<Class<?>, Object> values = new ConcurrentHashMap<>();
+
+        private Entry(long expireAt) {
+            this.expireAt = expireAt;
+        }
+    }
+}
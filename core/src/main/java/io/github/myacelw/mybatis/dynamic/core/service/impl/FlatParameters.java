@@ -0,0 +1,90 @@
+package io.github.myacelw.mybatis.dynamic.core.service.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.ExistsCondition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.GroupCondition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.NotCondition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.SimpleCondition;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 扁平参数列表。
+ * 条件值按在SQL中出现的顺序存放，SQL中以 _p[i] 引用，MyBatis取值时只需一次列表下标读取，不再逐级导航条件对象。
+ * 同时记录每个值在条件对象上的取值路径，用于查询计划缓存命中后重新取值。
+ *
+ * @author liuwei
+ */
+public class FlatParameters extends ArrayList<Object> {
+
+    public static final String CONTEXT_KEY = "_p";
+
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("([^.\\[\\]]+)|\\[(\\d+)]");
+
+    private final List<String> expressions = new ArrayList<>();
+
+    /**
+     * 加入参数值，返回SQL中的取值表达式
+     *
+     * @param valueExpression 条件对象上的取值路径
+     * @param value           参数值
+     */
+    public String add(String valueExpression, Object value) {
+        add(value);
+        expressions.add(valueExpression);
+        return CONTEXT_KEY + "[" + (size() - 1) + "]";
+    }
+
+    /**
+     * 各参数值在条件对象上的取值路径
+     */
+    public List<String> getExpressions() {
+        return Collections.unmodifiableList(expressions);
+    }
+
+    /**
+     * 按取值路径从上下文重新取值，仅支持框架内置条件生成的路径，如 c1.c[0].v[2]
+     *
+     * @throws IllegalArgumentException 路径无法解析时
+     */
+    public static Object resolve(Map<String, Object> context, String expression) {
+        Matcher matcher = TOKEN_PATTERN.matcher(expression);
+        Object current = null;
+        boolean first = true;
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            if (first) {
+                if (name == null || !context.containsKey(name)) {
+                    throw new IllegalArgumentException("Cannot resolve parameter expression: " + expression);
+                }
+                current = context.get(name);
+                first = false;
+            } else if (name == null) {
+                int index = Integer.parseInt(matcher.group(2));
+                if (current instanceof List) {
+                    current = ((List<?>) current).get(index);
+                } else if (current != null && current.getClass().isArray()) {
+                    current = Array.get(current, index);
+                } else {
+                    throw new IllegalArgumentException("Cannot resolve parameter expression: " + expression);
+                }
+            } else if ("c".equals(name) && current instanceof GroupCondition) {
+                current = ((GroupCondition) current).getConditions();
+            } else if ("c".equals(name) && current instanceof NotCondition) {
+                current = ((NotCondition) current).getCondition();
+            } else if ("c".equals(name) && current instanceof ExistsCondition) {
+                current = ((ExistsCondition) current).getCondition();
+            } else if ("v".equals(name) && current instanceof SimpleCondition) {
+                current = ((SimpleCondition) current).getValue();
+            } else {
+                throw new IllegalArgumentException("Cannot resolve parameter expression: " + expression);
+            }
+        }
+        return current;
+    }
+}
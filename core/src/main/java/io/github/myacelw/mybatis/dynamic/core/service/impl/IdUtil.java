@@ -152,6 +152,28 @@ public class IdUtil {
         return getId(model, data, false);
     }
 
+    /**
+     * 数据列表中是否存在主键为空或主键重复的数据
+     *
+     * @param model    模型
+     * @param dataList 数据列表
+     */
+    public static boolean hasEmptyOrDuplicateId(Model model, List<?> dataList) {
+        Set<Object> ids = new HashSet<>();
+        for (Object data : dataList) {
+            Object id = getId(model, data, false);
+            if (id instanceof Object[]) {
+                List<Object> multiId = Arrays.asList((Object[]) id);
+                if (multiId.stream().anyMatch(ObjectUtil::isEmpty) || !ids.add(multiId)) {
+                    return true;
+                }
+            } else if (ObjectUtil.isEmpty(id) || !ids.add(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 得到数据中的Id值，如果是多值ID则返回数组
      * @param model 模型
@@ -214,4 +236,59 @@ public class IdUtil {
         return false;
     }
 
+    /**
+     * 主键值转换为可比较的键，数值和字符串统一为字符串，复合主键转换为列表；无法转换时返回null
+     */
+    public static Object getIdKey(Model model, Object id) {
+        if (id == null) {
+            return null;
+        }
+        String[] primaryKeyFields = model.getPrimaryKeyFields();
+        if (primaryKeyFields.length == 1) {
+            return id instanceof Collection || id.getClass().isArray() ? null : normalize(id);
+        }
+        if (!(id instanceof Collection) && !(id instanceof Object[])) {
+            return null;
+        }
+        Object[] pk = getMultiId(id);
+        if (pk.length != primaryKeyFields.length) {
+            return null;
+        }
+        List<Object> key = new ArrayList<>(pk.length);
+        for (Object o : pk) {
+            if (o == null) {
+                return null;
+            }
+            key.add(normalize(o));
+        }
+        return key;
+    }
+
+    /**
+     * 从数据中获取主键键值，主键值为空时返回null
+     */
+    public static Object getDataIdKey(Model model, Object row) {
+        if (!(row instanceof Map) && (row == null || DataUtil.isBasicType(row.getClass()))) {
+            return null;
+        }
+        String[] primaryKeyFields = model.getPrimaryKeyFields();
+        List<Object> pk = new ArrayList<>(primaryKeyFields.length);
+        for (String field : primaryKeyFields) {
+            Object value;
+            try {
+                value = DataUtil.getProperty(row, field);
+            } catch (Exception e) {
+                return null;
+            }
+            if (value == null) {
+                return null;
+            }
+            pk.add(value);
+        }
+        return getIdKey(model, pk.size() == 1 ? pk.get(0) : pk);
+    }
+
+    private static Object normalize(Object value) {
+        return value instanceof Number || value instanceof CharSequence ? value.toString() : value;
+    }
 }
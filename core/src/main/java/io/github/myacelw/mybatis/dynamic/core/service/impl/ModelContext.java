@@ -10,18 +10,23 @@ import io.github.myacelw.mybatis.dynamic.core.metadata.Permission;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.BasicField;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.Field;
 import io.github.myacelw.mybatis.dynamic.core.metadata.field.GroupField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.FieldToSqlConverter;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.GroupCondition;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.SimpleCondition;
 import io.github.myacelw.mybatis.dynamic.core.service.DataChangeInterceptor;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManagerGetter;
+import io.github.myacelw.mybatis.dynamic.core.service.TransactionSupport;
 import io.github.myacelw.mybatis.dynamic.core.service.filler.Filler;
 import io.github.myacelw.mybatis.dynamic.core.util.Assert;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
+import io.github.myacelw.mybatis.dynamic.core.util.tuple.Tuple;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.session.SqlSession;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -70,8 +75,71 @@ public class ModelContext {
     @Getter
     private final SqlSession sqlSession;
 
+    /**
+     * 查询计划缓存，为空时不缓存
+     */
+    @Getter
+    private final LruCache<QueryPlan.Key, QueryPlan> queryPlanCache;
+
+    /**
+     * 是否使用扁平参数绑定，条件值收集到参数列表中按下标引用
+     */
+    @Getter
+    private final boolean flatParameterBinding;
+
+    /**
+     * 是否开启IN列表分桶，按分桶大小补齐IN列表占位符
+     */
+    @Getter
+    private final boolean inListBucketing;
+
+    /**
+     * 超长IN列表阈值，值个数超过该阈值时改写为派生表形式，0表示不改写
+     */
+    @Getter
+    private final int largeInListThreshold;
+
+    /**
+     * 并行及异步任务使用的执行器，为空时在当前线程执行
+     */
+    @Getter
+    private final Executor executor;
+
+    /**
+     * 分页总记录数缓存，值为总记录数和过期时间毫秒，为空时不缓存
+     */
+    @Getter
+    private final LruCache<QueryResultCache.Key, Tuple<Integer, Long>> pageCountCache;
+
+    /**
+     * 实体缓存，为空时不缓存
+     */
+    @Getter
+    private final EntityCache entityCache;
+
+    /**
+     * 查询结果缓存，为空时不缓存
+     */
+    @Getter
+    private final QueryResultCache resultCache;
+
+    /**
+     * 事务判断支持
+     */
+    @Getter
+    private final TransactionSupport transactionSupport;
+
+    /**
+     * 查询计划结构签名，延迟计算
+     */
+    private volatile String planShape;
+
 
     public ModelContext(Model model, DataBaseDialect dialect, MybatisHelper mybatisHelper, DataManagerGetter dataManagerGetter, Map<String, Filler> fillers, Permission permission, List<EventListener> eventListeners, List<DataChangeInterceptor> interceptors, SqlSession sqlSession) {
+        this(model, dialect, mybatisHelper, dataManagerGetter, fillers, permission, eventListeners, interceptors, sqlSession, null, false, false, 0, null, null, null, null, null);
+    }
+
+    public ModelContext(Model model, DataBaseDialect dialect, MybatisHelper mybatisHelper, DataManagerGetter dataManagerGetter, Map<String, Filler> fillers, Permission permission, List<EventListener> eventListeners, List<DataChangeInterceptor> interceptors, SqlSession sqlSession, LruCache<QueryPlan.Key, QueryPlan> queryPlanCache, boolean flatParameterBinding, boolean inListBucketing, int largeInListThreshold, Executor executor, LruCache<QueryResultCache.Key, Tuple<Integer, Long>> pageCountCache, EntityCache entityCache, QueryResultCache resultCache, TransactionSupport transactionSupport) {
         this.model = model;
         this.dialect = dialect;
         this.mybatisHelper = mybatisHelper;
@@ -79,8 +147,22 @@ public class ModelContext {
         this.fillers = fillers;
         this.eventListeners = eventListeners == null ? new ArrayList<>() : new ArrayList<>(eventListeners);
         this.interceptor = new DataChangeInterceptorGroup(interceptors);
+        for (DataChangeInterceptor cache : Arrays.asList(entityCache, resultCache)) {
+            if (cache != null) {
+                this.interceptor.addInterceptor(cache);
+            }
+        }
         this.dataManagerGetter = dataManagerGetter;
         this.sqlSession = sqlSession;
+        this.queryPlanCache = queryPlanCache;
+        this.flatParameterBinding = flatParameterBinding;
+        this.inListBucketing = inListBucketing;
+        this.largeInListThreshold = largeInListThreshold;
+        this.executor = executor;
+        this.pageCountCache = pageCountCache;
+        this.entityCache = entityCache;
+        this.resultCache = resultCache;
+        this.transactionSupport = transactionSupport == null ? TransactionSupport.DEFAULT : transactionSupport;
 
         this.fieldMap = createFieldMap(model.getFields());
 
@@ -171,8 +253,62 @@ public class ModelContext {
         }
     }
 
+    /**
+     * 当前操作是否处于调用方事务中，事务内不读写缓存、不并行查询
+     */
+    public boolean isTransactional() {
+        return transactionSupport.isTransactional(sqlSession);
+    }
+
+    /**
+     * 注册在当前事务结束后执行的操作，无法注册时返回false
+     */
+    public boolean afterCompletion(Runnable action) {
+        return transactionSupport.afterCompletion(sqlSession, action);
+    }
+
     public ModelContext createNew(Permission permission, SqlSession sqlSession) {
-        return new ModelContext(model, dialect, mybatisHelper, dataManagerGetter, fillers, permission, eventListeners, interceptor.getInterceptors(), sqlSession);
+        return new ModelContext(model, dialect, mybatisHelper, dataManagerGetter, fillers, permission, eventListeners, interceptor.getInterceptors(), sqlSession, queryPlanCache, flatParameterBinding, inListBucketing, largeInListThreshold, executor, pageCountCache, entityCache, resultCache, transactionSupport);
+    }
+
+    /**
+     * 查询计划结构签名，由方言、字段权限和附加条件结构组成，不支持缓存时返回null
+     */
+    public String getPlanShape() {
+        String shape = planShape;
+        if (shape == null) {
+            FieldToSqlConverter converter = getShapeConverter();
+            String additionalShape = additionalCondition == null ? "-" : additionalCondition.innerGetShape(dialect, converter);
+            String additionalIgnoreDeleteShape = additionalIgnoreDeleteCondition == null ? "-" : additionalIgnoreDeleteCondition.innerGetShape(dialect, converter);
+            if (additionalShape == null || additionalIgnoreDeleteShape == null) {
+                return null;
+            }
+            shape = dialect.getName() + (flatParameterBinding ? "|F" : "|") + (inListBucketing ? "B" : "") + largeInListThreshold + "|" + String.join(",", fieldRights.keySet()) + "|" + additionalShape + "|" + additionalIgnoreDeleteShape;
+            planShape = shape;
+        }
+        return shape;
+    }
+
+    /**
+     * 计算条件结构签名使用的字段转换器，只提供IN列表分桶、超长列表阈值等影响生成SQL的配置
+     */
+    public FieldToSqlConverter getShapeConverter() {
+        return new FieldToSqlConverter() {
+            @Override
+            public String convertColumn(String fieldName) {
+                throw new UnsupportedOperationException("not support");
+            }
+
+            @Override
+            public int inListSize(int size) {
+                return inListBucketing ? SimpleCondition.inListBucketSize(size) : size;
+            }
+
+            @Override
+            public int getLargeInListThreshold() {
+                return largeInListThreshold;
+            }
+        };
     }
 //
 //    /**
@@ -17,6 +17,9 @@ import io.github.myacelw.mybatis.dynamic.core.metadata.vo.DDLPlan;
 import io.github.myacelw.mybatis.dynamic.core.service.*;
 import io.github.myacelw.mybatis.dynamic.core.service.filler.Filler;
 import io.github.myacelw.mybatis.dynamic.core.util.DDLFileLogger;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
+import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.tuple.Tuple;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -28,6 +31,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +48,16 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ModelServiceImpl implements ModelService {
 
+    public static final int DEFAULT_QUERY_PLAN_CACHE_SIZE = 1024;
+
+    public static final int DEFAULT_PAGE_COUNT_CACHE_SIZE = 1024;
+
+    public static final int DEFAULT_ENTITY_CACHE_TTL_SECONDS = 300;
+
+    public static final int DEFAULT_RESULT_CACHE_TTL_SECONDS = 60;
+
+    public static final int DEFAULT_RESULT_CACHE_MAX_ROWS = 1000;
+
     protected final DataBaseDialect dialect;
 
     protected final MybatisHelper mybatisHelper;
@@ -79,10 +99,128 @@ public class ModelServiceImpl implements ModelService {
     @Setter
     private String logPath;
 
+    /**
+     * 查询计划缓存，按模型和查询命令结构缓存生成的SQL
+     */
+    @Getter
+    private LruCache<QueryPlan.Key, QueryPlan> queryPlanCache = new LruCache<>(DEFAULT_QUERY_PLAN_CACHE_SIZE);
+
+    /**
+     * 分页总记录数缓存，用于缓存统计策略，值为总记录数和过期时间毫秒
+     */
+    @Getter
+    private LruCache<QueryResultCache.Key, Tuple<Integer, Long>> pageCountCache = new LruCache<>(DEFAULT_PAGE_COUNT_CACHE_SIZE);
+
+    /**
+     * 是否使用扁平参数绑定，需在注册模型前设置
+     */
+    @Getter
+    @Setter
+    private boolean flatParameterBinding = false;
+
+    /**
+     * 是否开启IN列表分桶，需在注册模型前设置
+     */
+    @Getter
+    @Setter
+    private boolean inListBucketing = false;
+
+    /**
+     * 超长IN列表阈值，值个数超过该阈值时改写为派生表形式，0表示不改写，需在注册模型前设置
+     */
+    @Getter
+    @Setter
+    private int largeInListThreshold = 0;
+
+    /**
+     * 并行批量写入及异步执行使用的执行器，未设置时 JDK 21 及以上使用虚拟线程，否则使用线程数有限的默认守护线程池，需在注册模型前设置。
+     * 外部设置的执行器由调用方负责关闭
+     */
+    @Setter
+    private Executor executor;
+
+    /**
+     * 默认创建的执行器，关闭服务时一并关闭
+     */
+    private ExecutorService defaultExecutor;
+
+    /**
+     * 异步任务装饰器，提交到执行器的任务经其装饰以传递调用方线程上下文，需在注册模型前设置
+     */
+    @Getter
+    @Setter
+    private AsyncTaskDecorator taskDecorator;
+
+    /**
+     * 事务判断支持，为空时认为指定了SqlSession即处于事务中，需在注册模型前设置
+     */
+    @Getter
+    @Setter
+    private TransactionSupport transactionSupport;
+
+    /**
+     * 实体缓存配置，值为缓存条数和过期秒数，优先于模型上的配置
+     */
+    private final Map<String, Tuple<Integer, Integer>> entityCacheConfigs = new ConcurrentHashMap<>();
+
+    protected final Map<String, EntityCache> entityCacheMap = new ConcurrentHashMap<>();
+
+    /**
+     * 查询结果缓存，为空时不缓存
+     */
+    @Getter
+    private QueryResultCache resultCache;
+
     protected final Map<String, DataManager<Object>> dataManagerMap = new ConcurrentHashMap<>();
 
     protected final Map<Class<?>, String> modelNameMap = new ConcurrentHashMap<>();
 
+    public synchronized Executor getExecutor() {
+        if (executor == null) {
+            defaultExecutor = createDefaultExecutor();
+            executor = defaultExecutor;
+        }
+        return executor;
+    }
+
+    /**
+     * 模型上下文使用的执行器，设置了任务装饰器时在提交线程上装饰任务
+     */
+    private Executor getTaskExecutor() {
+        Executor executor = getExecutor();
+        AsyncTaskDecorator decorator = taskDecorator;
+        return decorator == null ? executor : task -> executor.execute(decorator.decorate(task));
+    }
+
+    /**
+     * JDK 21 及以上使用虚拟线程；否则使用线程数为CPU核数、至少为2的守护线程池，空闲线程超时回收，超出的任务排队等待
+     */
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "mybatis-dynamic-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * 关闭默认创建的执行器，已提交的任务执行完毕后线程退出；外部设置的执行器不受影响
+     */
+    @Override
+    public synchronized void close() {
+        if (defaultExecutor != null) {
+            defaultExecutor.shutdown();
+        }
+    }
+
     public ModelServiceImpl(DataBaseDialect dialect, MybatisHelper mybatisHelper, TableManager tableManager, ModelToTableConverter modelToTableConverter, Map<String, Filler> fillers, Class2ModelTransfer class2ModelTransfer) {
         this.dialect = dialect;
         this.mybatisHelper = mybatisHelper;
@@ -92,6 +230,60 @@ public class ModelServiceImpl implements ModelService {
         this.class2ModelTransfer = class2ModelTransfer;
     }
 
+    /**
+     * 设置查询计划缓存大小，小于等于0时不缓存。需在注册模型前设置。
+     */
+    public void setQueryPlanCacheSize(int queryPlanCacheSize) {
+        this.queryPlanCache = queryPlanCacheSize > 0 ? new LruCache<>(queryPlanCacheSize) : null;
+    }
+
+    /**
+     * 设置分页总记录数缓存大小，小于等于0时不缓存。需在注册模型前设置。
+     */
+    public void setPageCountCacheSize(int pageCountCacheSize) {
+        this.pageCountCache = pageCountCacheSize > 0 ? new LruCache<>(pageCountCacheSize) : null;
+    }
+
+    /**
+     * 设置查询结果缓存，缓存条数小于等于0时不缓存。需在注册模型前设置。
+     *
+     * @param size            缓存条数
+     * @param ttlSeconds      过期秒数
+     * @param maxRowsPerEntry 单个条目最大行数，结果行数超过时不缓存
+     */
+    public void setResultCache(int size, int ttlSeconds, int maxRowsPerEntry) {
+        this.resultCache = size > 0 && ttlSeconds > 0 ? new QueryResultCache(size, ttlSeconds, maxRowsPerEntry) : null;
+    }
+
+    /**
+     * 设置模型的实体缓存，缓存条数小于等于0时不缓存。需在注册模型前设置。
+     *
+     * @param modelName  模型名
+     * @param size       缓存条数
+     * @param ttlSeconds 过期秒数
+     */
+    public void setEntityCache(@NonNull String modelName, int size, int ttlSeconds) {
+        entityCacheConfigs.put(modelName, new Tuple<>(size, ttlSeconds));
+    }
+
+    /**
+     * 得到模型的实体缓存，未开启时返回null
+     */
+    public EntityCache getEntityCache(@NonNull String modelName) {
+        return entityCacheMap.get(modelName);
+    }
+
+    private EntityCache getOrCreateEntityCache(Model model) {
+        Tuple<Integer, Integer> config = entityCacheConfigs.get(model.getName());
+        int size = config != null ? config.v1 : (model.getEntityCacheSize() == null ? 0 : model.getEntityCacheSize());
+        int ttlSeconds = config != null ? config.v2 : (model.getEntityCacheTtlSeconds() == null ? DEFAULT_ENTITY_CACHE_TTL_SECONDS : model.getEntityCacheTtlSeconds());
+        if (size <= 0 || ttlSeconds <= 0 || ObjectUtil.isEmpty(model.getPrimaryKeyFields())) {
+            entityCacheMap.remove(model.getName());
+            return null;
+        }
+        return entityCacheMap.compute(model.getName(), (k, old) -> old != null && old.getModel() == model ? old : new EntityCache(model, size, ttlSeconds));
+    }
+
     @Override
     public void update(@NonNull Model model, List<String> fieldWhiteList) {
         if (model.getTableDefine().getDisableTableCreateAndAlter() == Boolean.TRUE) {
@@ -182,6 +374,7 @@ public class ModelServiceImpl implements ModelService {
     @Override
     public Model unregister(@NonNull String modelName) {
         DataManager<?> dataManager = dataManagerMap.remove(modelName);
+        entityCacheMap.remove(modelName);
 
         List<Class<?>> classList = new ArrayList<>();
         modelNameMap.forEach((clazz, name) -> {
@@ -227,7 +420,7 @@ public class ModelServiceImpl implements ModelService {
     @Override
     public <ID> DataManager<ID> createDataManager(@NonNull Model model, Permission permission, SqlSession sqlSession) {
         model.init(modelToTableConverter);
-        ModelContext modelContext = new ModelContext(model, dialect, mybatisHelper, this, fillers, permission, eventListeners, interceptors, sqlSession);
+        ModelContext modelContext = new ModelContext(model, dialect, mybatisHelper, this, fillers, permission, eventListeners, interceptors, sqlSession, queryPlanCache, flatParameterBinding, inListBucketing, largeInListThreshold, getTaskExecutor(), pageCountCache, getOrCreateEntityCache(model), resultCache, transactionSupport);
         return new DataManagerImpl<>(modelContext);
     }
 
@@ -256,6 +449,20 @@ public class ModelServiceImpl implements ModelService {
         return new DataManagerImpl<>(dataManager.getModelContext().createNew(permission, sqlSession));
     }
 
+    /**
+     * 为全部模型追加数据变更拦截器，已注册模型的数据管理器及之后创建的数据管理器均生效
+     */
+    @Override
+    public synchronized void addInterceptor(@NonNull DataChangeInterceptor interceptor) {
+        if (interceptors != null && interceptors.contains(interceptor)) {
+            return;
+        }
+        List<DataChangeInterceptor> list = interceptors == null ? new ArrayList<>() : new ArrayList<>(interceptors);
+        list.add(interceptor);
+        interceptors = list;
+        dataManagerMap.values().forEach(t -> t.getModelContext().getInterceptor().addInterceptor(interceptor));
+    }
+
     @Override
     public boolean isModelExist(String modelName) {
         DataManager<?> dataManager = dataManagerMap.get(modelName);
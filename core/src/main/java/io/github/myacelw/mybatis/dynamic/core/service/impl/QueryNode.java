@@ -11,6 +11,7 @@ import io.github.myacelw.mybatis.dynamic.core.metadata.field.*;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.*;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.GroupCondition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.SimpleCondition;
 import io.github.myacelw.mybatis.dynamic.core.metadata.table.SelectColumn;
 import io.github.myacelw.mybatis.dynamic.core.util.Assert;
 import io.github.myacelw.mybatis.dynamic.core.util.ObjectUtil;
@@ -45,6 +46,11 @@ public class QueryNode {
 
     AtomicInteger indexCounter;
 
+    /**
+     * 同一查询中的全部节点（含Exists子查询节点），按表别名索引排列，各节点共享
+     */
+    List<QueryNode> allNodes;
+
     /**
      * 表别名索引，例如：t0,t1,t2
      */
@@ -84,6 +90,8 @@ public class QueryNode {
         root.modelContext = modelContext;
         root.indexCounter = indexCounter;
         root.tableAsIndex = indexCounter.getAndIncrement();
+        root.allNodes = new ArrayList<>();
+        root.allNodes.add(root);
         return root;
     }
 
@@ -489,6 +497,8 @@ public class QueryNode {
                     newNode.modelContext = getRefModelContext(refModel);
                     newNode.indexCounter = this.indexCounter;
                     newNode.tableAsIndex = this.indexCounter.getAndIncrement();
+                    newNode.allNodes = this.allNodes;
+                    newNode.allNodes.add(newNode);
 
                     children.add(newNode);
                     return new Tuple3<>(newNode, null, null);
@@ -539,6 +549,27 @@ public class QueryNode {
                 return convertFieldToColumn(fieldName, haveRighted);
             }
 
+            @Override
+            public String bindValue(String valueExpression, Object value) {
+                ModelContext rootContext = allNodes.get(0).modelContext;
+                // IN列表分桶补齐的占位符需要单独存放参数值，因此同样使用扁平参数
+                if (!rootContext.isFlatParameterBinding() && !rootContext.isInListBucketing()) {
+                    return valueExpression;
+                }
+                FlatParameters parameters = (FlatParameters) context.computeIfAbsent(FlatParameters.CONTEXT_KEY, k -> new FlatParameters());
+                return parameters.add(valueExpression, value);
+            }
+
+            @Override
+            public int inListSize(int size) {
+                return allNodes.get(0).modelContext.isInListBucketing() ? SimpleCondition.inListBucketSize(size) : size;
+            }
+
+            @Override
+            public int getLargeInListThreshold() {
+                return allNodes.get(0).modelContext.getLargeInListThreshold();
+            }
+
             @Override
             public ConvertExistsSqlResult convertExistsSql(String fieldPath, List<Join> joins) {
                 Tuple3<QueryNode, Field, BasicField> tuple3 = findField(fieldPath, haveRighted);
@@ -555,6 +586,8 @@ public class QueryNode {
                 existsQueryNode.modelContext = getRefModelContext((RefModel) field);
                 existsQueryNode.indexCounter = indexCounter;
                 existsQueryNode.tableAsIndex = indexCounter.getAndIncrement();
+                existsQueryNode.allNodes = allNodes;
+                allNodes.add(existsQueryNode);
                 existsQueryNode.parent = queryNode;
                 existsQueryNode.linkField = (RefModel) field;
                 existsQueryNode.join = Join.of(field.getName());
@@ -597,6 +630,24 @@ public class QueryNode {
         return refModelContext;
     }
 
+    public ModelContext getModelContext() {
+        return modelContext;
+    }
+
+    /**
+     * 关联字段的目标模型名，根节点返回null
+     */
+    public String getTargetModel() {
+        return linkField == null ? null : linkField.getTargetModel();
+    }
+
+    /**
+     * 同一查询中的全部节点，按表别名索引排列
+     */
+    public List<QueryNode> getAllNodes() {
+        return Collections.unmodifiableList(allNodes);
+    }
+
     public String getTableAsName() {
         return DEFAULT_TABLE_AS_PREFIX + this.tableAsIndex;
     }
@@ -0,0 +1,369 @@
+package io.github.myacelw.mybatis.dynamic.core.service.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.DataBaseDialect;
+import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.CustomSelectField;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.FieldToSqlConverter;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Join;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.ExistsCondition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.GroupCondition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.NotCondition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.table.SelectColumn;
+import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCommand;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 查询计划。
+ * 缓存按命令结构生成的SQL和结果列，结构相同的查询命中后跳过QueryNode构建和SQL生成，仅重新绑定参数值。
+ * 参数绑定通过对象同一性匹配：生成SQL时记录上下文中每个参数对应命令中的哪个条件对象，命中时从新命令相同位置取值。
+ *
+ * @author liuwei
+ */
+public class QueryPlan {
+
+    private static final Set<String> UNBOUND_KEYS = new HashSet<>(Arrays.asList("_rows", "_offset", "__sql", FlatParameters.CONTEXT_KEY));
+
+    @Getter
+    private final String sql;
+
+    @Getter
+    private final List<SelectColumn> columns;
+
+    /**
+     * 各查询节点对应的模型，按表别名索引排列
+     */
+    private final List<Model> nodeModels;
+
+    /**
+     * 各查询节点关联的目标模型名，根节点为null
+     */
+    private final List<String> nodeTargetModels;
+
+    /**
+     * 各查询节点模型上下文的结构签名
+     */
+    private final List<String> nodeContextShapes;
+
+    /**
+     * 上下文参数名到参数值位置的映射，多个位置时表示这些位置为同一对象
+     */
+    private final Map<String, int[]> bindings;
+
+    /**
+     * 扁平参数的取值路径，未使用扁平参数绑定时为空
+     */
+    private final List<String> flatExpressions;
+
+    private QueryPlan(String sql, List<SelectColumn> columns, List<Model> nodeModels, List<String> nodeTargetModels, List<String> nodeContextShapes, Map<String, int[]> bindings, List<String> flatExpressions) {
+        this.sql = sql;
+        this.columns = columns;
+        this.nodeModels = nodeModels;
+        this.nodeTargetModels = nodeTargetModels;
+        this.nodeContextShapes = nodeContextShapes;
+        this.bindings = bindings;
+        this.flatExpressions = flatExpressions;
+    }
+
+    /**
+     * 查询涉及的模型名
+     */
+    public List<String> getModelNames() {
+        List<String> modelNames = new ArrayList<>();
+        for (Model model : nodeModels) {
+            if (!modelNames.contains(model.getName())) {
+                modelNames.add(model.getName());
+            }
+        }
+        return modelNames;
+    }
+
+    /**
+     * 创建查询计划缓存键，命令不支持缓存时返回null
+     */
+    public static Key createKey(QueryCommand<?> command, ModelContext modelContext) {
+        return createKey(command, modelContext, false);
+    }
+
+    /**
+     * 创建查询计划缓存键
+     *
+     * @param withTotal 查询列是否附加 COUNT(*) OVER() 总行数列
+     */
+    public static Key createKey(QueryCommand<?> command, ModelContext modelContext, boolean withTotal) {
+        String contextShape = modelContext.getPlanShape();
+        if (contextShape == null) {
+            return null;
+        }
+        String commandShape = getCommandShape(command, modelContext.getDialect(), modelContext.getShapeConverter());
+        if (commandShape == null) {
+            return null;
+        }
+        return new Key(modelContext.getModel(), contextShape + "|" + commandShape + (withTotal ? "|T" : ""));
+    }
+
+    /**
+     * 根据生成SQL后的上下文创建查询计划，无法确定参数绑定关系时返回null
+     */
+    public static QueryPlan create(QueryCommand<?> command, QueryNode root, Map<String, Object> context, String sql, List<SelectColumn> columns) {
+        List<QueryNode> nodes = root.getAllNodes();
+        List<Model> nodeModels = new ArrayList<>(nodes.size());
+        List<String> nodeTargetModels = new ArrayList<>(nodes.size());
+        List<String> nodeContextShapes = new ArrayList<>(nodes.size());
+        List<ModelContext> nodeContexts = new ArrayList<>(nodes.size());
+        for (QueryNode node : nodes) {
+            String shape = node.getModelContext().getPlanShape();
+            if (shape == null) {
+                return null;
+            }
+            nodeModels.add(node.getModelContext().getModel());
+            nodeTargetModels.add(node.getTargetModel());
+            nodeContextShapes.add(shape);
+            nodeContexts.add(node.getModelContext());
+        }
+
+        List<Object> values = collectValues(nodeContexts, command);
+        Map<String, int[]> bindings = new HashMap<>();
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            if (UNBOUND_KEYS.contains(entry.getKey())) {
+                continue;
+            }
+            int[] indexes = findIdentical(values, entry.getValue());
+            if (indexes.length == 0) {
+                return null;
+            }
+            bindings.put(entry.getKey(), indexes);
+        }
+
+        List<String> flatExpressions = null;
+        FlatParameters parameters = (FlatParameters) context.get(FlatParameters.CONTEXT_KEY);
+        if (parameters != null) {
+            flatExpressions = parameters.getExpressions();
+            for (int i = 0; i < parameters.size(); i++) {
+                try {
+                    if (FlatParameters.resolve(context, flatExpressions.get(i)) != parameters.get(i)) {
+                        return null;
+                    }
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }
+        }
+        return new QueryPlan(sql, columns == null ? null : Collections.unmodifiableList(new ArrayList<>(columns)), nodeModels, nodeTargetModels, nodeContextShapes, bindings, flatExpressions);
+    }
+
+    /**
+     * 为新命令绑定参数，关联模型上下文发生变化或参数对象同一性不一致时返回null
+     */
+    public Map<String, Object> bind(QueryCommand<?> command, ModelContext modelContext) {
+        List<ModelContext> nodeContexts = new ArrayList<>(nodeModels.size());
+        for (int i = 0; i < nodeModels.size(); i++) {
+            ModelContext nodeContext = i == 0 ? modelContext : modelContext.getDataManagerGetter().getModelContext(nodeTargetModels.get(i));
+            if (nodeContext == null || nodeContext.getModel() != nodeModels.get(i) || !nodeContextShapes.get(i).equals(nodeContext.getPlanShape())) {
+                return null;
+            }
+            nodeContexts.add(nodeContext);
+        }
+
+        List<Object> values = collectValues(nodeContexts, command);
+        Map<String, Object> context = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : bindings.entrySet()) {
+            int[] indexes = entry.getValue();
+            Object value = values.get(indexes[0]);
+            for (int i = 1; i < indexes.length; i++) {
+                if (values.get(indexes[i]) != value) {
+                    return null;
+                }
+            }
+            context.put(entry.getKey(), value);
+        }
+
+        if (flatExpressions != null) {
+            FlatParameters parameters = new FlatParameters();
+            for (String expression : flatExpressions) {
+                try {
+                    parameters.add(expression, FlatParameters.resolve(context, expression));
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }
+            context.put(FlatParameters.CONTEXT_KEY, parameters);
+        }
+
+        Page page = command.getPage();
+        if (page != null && page.getSize() > 0) {
+            int offset = page.getSize() * (page.getCurrent() - 1);
+            context.put("_rows", command.isLookAhead() ? page.getSize() + 1 : page.getSize());
+            context.put("_offset", offset <= 0 ? null : offset);
+        }
+        return context;
+    }
+
+    /**
+     * 按固定顺序收集可能出现在SQL上下文中的参数对象，结构相同的命令收集结果位置一一对应
+     */
+    private static List<Object> collectValues(List<ModelContext> nodeContexts, QueryCommand<?> command) {
+        List<Object> values = new ArrayList<>();
+        for (ModelContext nodeContext : nodeContexts) {
+            values.add(nodeContext.getAdditionalCondition());
+            values.add(nodeContext.getAdditionalIgnoreDeleteCondition());
+        }
+        values.add(command.getCondition());
+        collectJoinConditions(command.getCondition(), values);
+        if (command.getJoins() != null) {
+            for (Join join : command.getJoins()) {
+                values.add(join.getCondition());
+                collectJoinConditions(join.getCondition(), values);
+            }
+        }
+        if (command.getOrderItems() != null) {
+            for (OrderItem orderItem : command.getOrderItems()) {
+                values.add(orderItem.getFunctionValue());
+            }
+        }
+        values.add(command.getCustomSelectFields());
+        return values;
+    }
+
+    private static void collectJoinConditions(Condition condition, List<Object> values) {
+        if (condition instanceof GroupCondition) {
+            List<Condition> conditions = ((GroupCondition) condition).getConditions();
+            if (conditions != null) {
+                for (Condition c : conditions) {
+                    collectJoinConditions(c, values);
+                }
+            }
+        } else if (condition instanceof NotCondition) {
+            collectJoinConditions(((NotCondition) condition).getCondition(), values);
+        } else if (condition instanceof ExistsCondition) {
+            ExistsCondition existsCondition = (ExistsCondition) condition;
+            if (existsCondition.getJoins() != null) {
+                for (Join join : existsCondition.getJoins()) {
+                    values.add(join.getCondition());
+                    collectJoinConditions(join.getCondition(), values);
+                }
+            }
+            collectJoinConditions(existsCondition.getCondition(), values);
+        }
+    }
+
+    private static int[] findIdentical(List<Object> values, Object value) {
+        int count = 0;
+        int[] indexes = new int[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == value) {
+                indexes[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * 命令结构签名，不包含条件值；不支持缓存时返回null
+     */
+    private static String getCommandShape(QueryCommand<?> command, DataBaseDialect dialect, FieldToSqlConverter converter) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(command.getClazz() == null ? "-" : command.getClazz().getName());
+        sb.append(command.isIgnoreLogicDelete() ? "|D" : "|");
+
+        sb.append("|S");
+        if (command.getSelectFields() != null) {
+            for (String field : command.getSelectFields()) {
+                sb.append(Condition.shapeText(field)).append(",");
+            }
+        } else {
+            sb.append("-");
+        }
+
+        sb.append("|F");
+        if (command.getCustomSelectFields() != null) {
+            for (CustomSelectField f : command.getCustomSelectFields()) {
+                // 自定义类型处理器为实例，无法比较结构
+                if (f.getTypeHandler() != null) {
+                    return null;
+                }
+                sb.append(Condition.shapeText(f.getName())).append(Condition.shapeText(f.getSqlTemplate()))
+                        .append(f.getFields() == null ? "-" : Condition.shapeText(String.join(",", f.getFields())))
+                        .append(f.getJavaType() == null ? "-" : f.getJavaType().getName())
+                        .append(f.getJdbcType()).append(",");
+            }
+        }
+
+        sb.append("|J");
+        if (command.getJoins() != null) {
+            for (Join join : command.getJoins()) {
+                String shape = join.innerGetShape(dialect, converter);
+                if (shape == null) {
+                    return null;
+                }
+                sb.append(shape).append(",");
+            }
+        }
+
+        sb.append("|W");
+        if (command.getCondition() != null) {
+            String shape = command.getCondition().innerGetShape(dialect, converter);
+            if (shape == null) {
+                return null;
+            }
+            sb.append(shape);
+        }
+
+        sb.append("|O");
+        if (command.getOrderItems() != null) {
+            for (OrderItem orderItem : command.getOrderItems()) {
+                sb.append(Condition.shapeText(orderItem.getField())).append(orderItem.isAsc() ? "+" : "-")
+                        .append(Condition.shapeText(orderItem.getFunctionTemplate())).append(",");
+            }
+        }
+
+        Page page = command.getPage();
+        if (page != null && page.getSize() > 0) {
+            sb.append("|P").append(page.getSize() * (page.getCurrent() - 1) > 0 ? "o" : "");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 查询计划缓存键，模型按对象同一性比较，模型更新后旧计划自然失效
+     */
+    public static final class Key {
+        private final Model model;
+
+        private final String shape;
+
+        private final int hash;
+
+        Key(Model model, String shape) {
+            this.model = model;
+            this.shape = shape;
+            this.hash = System.identityHashCode(model) * 31 + shape.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return model == key.model && shape.equals(key.shape);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return model.getName() + ":" + shape;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package io.github.myacelw.mybatis.dynamic.core.service.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.event.Event;
+import io.github.myacelw.mybatis.dynamic.core.event.EventListener;
+import io.github.myacelw.mybatis.dynamic.core.event.data.DataEvent;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.Condition;
+import io.github.myacelw.mybatis.dynamic.core.metadata.vo.FieldValue;
+import io.github.myacelw.mybatis.dynamic.core.service.DataChangeInterceptor;
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.util.DataUtil;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 查询结果缓存，缓存键为最终SQL、结果类型和全部绑定参数值，权限、条件、查询字段、关联、排序和分页均体现在其中。
+ * 每个条目记录查询涉及的模型（主模型、关联及EXISTS子查询模型）及其版本号，
+ * 任一模型发生写操作时版本号递增，读取时版本号不一致的条目视为失效。
+ * <p>
+ * 与实体缓存相同：加载期间版本号变化的结果不放入缓存，调用方事务内的查询不使用缓存；
+ * 调用方事务内的写操作在事务结束后再次失效，无法感知事务结束时写后一个过期时长内暂停放入该模型相关的缓存。
+ *
+ * @author liuwei
+ */
+@Slf4j
+public class QueryResultCache implements DataChangeInterceptor, EventListener {
+
+    private static final Pattern PARAMETER_PATTERN = Pattern.compile("[#$]\\{\\s*([^,}\\s]+)");
+
+    /**
+     * 缓存过期时长，毫秒
+     */
+    @Getter
+    private final long ttlMillis;
+
+    /**
+     * 单个条目最大行数，结果行数超过时不缓存
+     */
+    @Getter
+    private final int maxRowsPerEntry;
+
+    private final LruCache<Key, Entry> cache;
+
+    private final Map<String, AtomicLong> modelVersions = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> modelHoldUntil = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong putCount = new AtomicLong();
+
+    public QueryResultCache(int maxSize, int ttlSeconds, int maxRowsPerEntry) {
+        this.cache = new LruCache<>(maxSize);
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxRowsPerEntry = maxRowsPerEntry;
+    }
+
+    /**
+     * 根据SQL和上下文创建缓存键，参数值无法解析时返回null
+     */
+    public static Key createKey(String sql, Map<String, Object> context, Class<?> resultClass) {
+        MetaObject metaObject = SystemMetaObject.forObject(context);
+        List<Object> values = new ArrayList<>();
+        Matcher matcher = PARAMETER_PATTERN.matcher(sql);
+        try {
+            while (matcher.find()) {
+                values.add(toKeyValue(metaObject.getValue(matcher.group(1))));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Cannot resolve query parameters for result cache: {}", e.getMessage());
+            return null;
+        }
+        return new Key(sql, resultClass, values.toArray());
+    }
+
+    /**
+     * 参数值转换为按值比较的键值：数组和集合转换为元素键值组成的数组，按 {@link Arrays#deepEquals} 比较，其他值复制快照
+     */
+    private static Object toKeyValue(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().map(QueryResultCache::toKeyValue).toArray();
+        }
+        if (value != null && value.getClass().isArray()) {
+            Object[] array = new Object[Array.getLength(value)];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = toKeyValue(Array.get(value, i));
+            }
+            return array;
+        }
+        return DataUtil.deepCopy(value);
+    }
+
+    /**
+     * 模型的版本号快照，加载数据前获取，放入缓存时校验
+     */
+    public long[] getVersions(List<String> modelNames) {
+        long[] versions = new long[modelNames.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = getVersion(modelNames.get(i)).get();
+        }
+        return versions;
+    }
+
+    private AtomicLong getVersion(String modelName) {
+        return modelVersions.computeIfAbsent(modelName, k -> new AtomicLong());
+    }
+
+    /**
+     * 获取缓存结果副本，未命中、过期或涉及模型已变更时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(Key key) {
+        Entry entry = cache.peek(key);
+        if (entry != null && (entry.expireAt < System.currentTimeMillis() || !isCurrent(entry.modelNames, entry.versions))) {
+            cache.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return (List<T>) DataUtil.deepCopy(entry.value);
+    }
+
+    /**
+     * 放入缓存
+     *
+     * @param key          缓存键
+     * @param modelNames   查询涉及的模型
+     * @param value        查询结果
+     * @param loadVersions 加载数据前获取的模型版本号
+     */
+    public void put(Key key, List<String> modelNames, List<?> value, long[] loadVersions) {
+        if (value == null || value.size() > maxRowsPerEntry || !isPutAllowed(modelNames, loadVersions)) {
+            return;
+        }
+        Object snapshot;
+        try {
+            snapshot = DataUtil.deepCopy(value);
+        } catch (RuntimeException e) {
+            log.debug("Query result cannot be copied, skip result cache: {}", e.getMessage());
+            return;
+        }
+        cache.put(key, new Entry(snapshot, modelNames, loadVersions, System.currentTimeMillis() + ttlMillis));
+        putCount.incrementAndGet();
+
+        // 放入后再次校验，期间发生写操作时撤销
+        if (!isPutAllowed(modelNames, loadVersions)) {
+            cache.remove(key);
+        }
+    }
+
+    private boolean isPutAllowed(List<String> modelNames, long[] loadVersions) {
+        long now = System.currentTimeMillis();
+        for (String modelName : modelNames) {
+            Long holdUntil = modelHoldUntil.get(modelName);
+            if (holdUntil != null && now < holdUntil) {
+                return false;
+            }
+        }
+        return isCurrent(modelNames, loadVersions);
+    }
+
+    private boolean isCurrent(List<String> modelNames, long[] versions) {
+        for (int i = 0; i < versions.length; i++) {
+            if (getVersion(modelNames.get(i)).get() != versions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 使模型相关的缓存失效
+     */
+    public void invalidate(String modelName) {
+        getVersion(modelName).incrementAndGet();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        modelVersions.values().forEach(AtomicLong::incrementAndGet);
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getPutCount() {
+        return putCount.get();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    /**
+     * 命中率，无查询时为0
+     */
+    public double getHitRate() {
+        long hit = hitCount.get();
+        long total = hit + missCount.get();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    private void changed(DataManager<Object> dataManager) {
+        String modelName = dataManager.getModel().getName();
+        ModelContext modelContext = dataManager.getModelContext();
+        if (modelContext.isTransactional() && !modelContext.afterCompletion(() -> invalidate(modelName))) {
+            modelHoldUntil.put(modelName, System.currentTimeMillis() + ttlMillis);
+        }
+        invalidate(modelName);
+    }
+
+    @Override
+    public void afterInsert(DataManager<Object> dataManager, Object data, Object id) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterUpdate(DataManager<Object> dataManager, Object id, Object data, List<FieldValue> fieldValues) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterUpdateByCondition(DataManager<Object> dataManager, Condition condition, Object data, List<FieldValue> fieldValues) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterLogicDelete(DataManager<Object> dataManager, Object ids, List<FieldValue> updateData) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterPhysicalDelete(DataManager<Object> dataManager, Object idOrIds) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterPhysicalDeleteByCondition(DataManager<Object> dataManager, Condition condition) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterLogicDeleteByCondition(DataManager<Object> dataManager, Condition condition) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterBatchInsert(DataManager<Object> dataManager, List<?> dataList, List<?> idList) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterBatchUpdate(DataManager<Object> dataManager, List<?> dataList) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterBatchUpdateByCondition(DataManager<Object> dataManager, List<?> updates) {
+        changed(dataManager);
+    }
+
+    @Override
+    public void afterBatchInsertOrUpdate(DataManager<Object> dataManager, List<?> dataList) {
+        changed(dataManager);
+    }
+
+    /**
+     * 接收数据事件失效缓存，用于多节点部署时转发其他节点的写操作
+     */
+    @Override
+    public void onEvent(Event event) {
+        if (event instanceof DataEvent) {
+            invalidate(((DataEvent) event).getModel().getName());
+        }
+    }
+
+    /**
+     * 缓存键
+     */
+    public static class Key {
+        private final String sql;
+
+        private final Class<?> resultClass;
+
+        private final Object[] values;
+
+        private final int hashCode;
+
+        private Key(String sql, Class<?> resultClass, Object[] values) {
+            this.sql = sql;
+            this.resultClass = resultClass;
+            this.values = values;
+            this.hashCode = Objects.hash(sql, resultClass) * 31 + Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode && sql.equals(key.sql) && Objects.equals(resultClass, key.resultClass) && Arrays.deepEquals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class Entry {
+        private final Object value;
+
+        private final List<String> modelNames;
+
+        private final long[] versions;
+
+        private final long expireAt;
+
+        private Entry(Object value, List<String> modelNames, long[] versions, long expireAt) {
+            this.value = value;
+            this.modelNames = modelNames;
+            this.versions = versions;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.myacelw.mybatis.dynamic.core.typehandler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * 集合转JDBC数组参数的类型处理器，用于 col = ANY(?) 形式的IN条件，仅支持设置参数。
+ * 支持元素类型一致且非空的 String、Integer、Long、Short、BigDecimal、UUID 集合或数组。
+ *
+ * @author liuwei
+ */
+public class CollectionArrayTypeHandler extends BaseTypeHandler<Object> {
+
+    private static final Map<Class<?>, String> TYPE_NAMES = new HashMap<>();
+
+    static {
+        TYPE_NAMES.put(String.class, "varchar");
+        TYPE_NAMES.put(Integer.class, "integer");
+        TYPE_NAMES.put(Long.class, "bigint");
+        TYPE_NAMES.put(Short.class, "smallint");
+        TYPE_NAMES.put(BigDecimal.class, "numeric");
+        TYPE_NAMES.put(UUID.class, "uuid");
+    }
+
+    /**
+     * 值是否可以作为数组参数绑定
+     */
+    public static boolean isSupported(Object value) {
+        return getElementType(value) != null;
+    }
+
+    /**
+     * 得到元素类型，元素为空、存在null元素、类型不一致或不支持时返回null
+     */
+    private static Class<?> getElementType(Object value) {
+        Class<?> type = null;
+        if (value instanceof Collection) {
+            for (Object o : (Collection<?>) value) {
+                if (o == null || (type != null && o.getClass() != type)) {
+                    return null;
+                }
+                type = o.getClass();
+            }
+        } else if (value != null && value.getClass().isArray() && !value.getClass().getComponentType().isPrimitive()) {
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                Object o = Array.get(value, i);
+                if (o == null || (type != null && o.getClass() != type)) {
+                    return null;
+                }
+                type = o.getClass();
+            }
+        }
+        return type != null && TYPE_NAMES.containsKey(type) ? type : null;
+    }
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) throws SQLException {
+        Class<?> elementType = getElementType(parameter);
+        if (elementType == null) {
+            throw new SQLException("Unsupported array parameter: " + parameter);
+        }
+        Object[] elements = parameter instanceof Collection ? ((Collection<?>) parameter).toArray() : (Object[]) parameter;
+        java.sql.Array array = ps.getConnection().createArrayOf(TYPE_NAMES.get(elementType), elements);
+        try {
+            ps.setArray(i, array);
+        } finally {
+            array.free();
+        }
+    }
+
+    @Override
+    public Object getNullableResult(ResultSet rs, String columnName) {
+        throw new UnsupportedOperationException("CollectionArrayTypeHandler only supports parameters");
+    }
+
+    @Override
+    public Object getNullableResult(ResultSet rs, int columnIndex) {
+        throw new UnsupportedOperationException("CollectionArrayTypeHandler only supports parameters");
+    }
+
+    @Override
+    public Object getNullableResult(CallableStatement cs, int columnIndex) {
+        throw new UnsupportedOperationException("CollectionArrayTypeHandler only supports parameters");
+    }
+}
@@ -1,7 +1,9 @@
 package io.github.myacelw.mybatis.dynamic.core.util;
 
+import io.github.myacelw.mybatis.dynamic.core.ext.ExtBean;
 import lombok.extern.slf4j.Slf4j;
 
+import java.beans.PropertyDescriptor;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -220,4 +222,53 @@ public class DataUtil {
         return values;
     }
 
+    /**
+     * 深拷贝数据，支持Map、集合、日期、字节数组及具有无参构造函数的Bean
+     */
+    @SuppressWarnings("unchecked")
+    public static Object deepCopy(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> result = new LinkedHashMap<>();
+            ((Map<Object, Object>) value).forEach((k, v) -> result.put(k, deepCopy(v)));
+            return result;
+        }
+        if (value instanceof List) {
+            List<Object> result = new ArrayList<>(((List<?>) value).size());
+            ((List<?>) value).forEach(v -> result.add(deepCopy(v)));
+            return result;
+        }
+        if (value instanceof Set) {
+            Set<Object> result = new LinkedHashSet<>();
+            ((Set<?>) value).forEach(v -> result.add(deepCopy(v)));
+            return result;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value == null || DataUtil.isBasicType(value.getClass())) {
+            return value;
+        }
+        return copyBean(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyBean(Object bean) {
+        try {
+            Object result = bean.getClass().getConstructor().newInstance();
+            for (PropertyDescriptor pd : BeanUtil.getPropertyDescriptors(bean.getClass())) {
+                if (pd.getReadMethod() != null && pd.getWriteMethod() != null) {
+                    pd.getWriteMethod().invoke(result, deepCopy(pd.getReadMethod().invoke(bean)));
+                }
+            }
+            if (bean instanceof ExtBean) {
+                ((ExtBean) result).getExt().putAll((Map<String, Object>) deepCopy(((ExtBean) bean).getExt()));
+            }
+            return result;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot copy bean of type " + bean.getClass().getName(), e);
+        }
+    }
 }
@@ -0,0 +1,185 @@
+package io.github.myacelw.mybatis.dynamic.core.util;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 容量有限的LRU缓存，线程安全。
+ * 可设置移除监听器，条目被淘汰、被覆盖或被删除时回调，回调在锁外执行。
+ *
+ * @author liuwei
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+
+    private final LinkedHashMap<K, V> map;
+
+    private final BiConsumer<K, V> removalListener;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    /**
+     * 当前put操作中被淘汰的条目，仅在持有锁时访问
+     */
+    private List<Map.Entry<K, V>> evicted;
+
+    /**
+     * @param maxSize 最大条目数，小于等于0时不缓存
+     */
+    public LruCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param maxSize         最大条目数，小于等于0时不缓存
+     * @param removalListener 条目移除监听器
+     */
+    public LruCache(int maxSize, BiConsumer<K, V> removalListener) {
+        this.maxSize = maxSize;
+        this.removalListener = removalListener;
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictionCount++;
+                    if (evicted == null) {
+                        evicted = new ArrayList<>();
+                    }
+                    evicted.add(new AbstractMap.SimpleImmutableEntry<>(eldest));
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        synchronized (this) {
+            V value = map.get(key);
+            if (value == null) {
+                missCount++;
+            } else {
+                hitCount++;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 获取缓存值，不计入命中统计
+     */
+    public synchronized V peek(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * 放入缓存，返回原有值。缓存容量小于等于0时不缓存，直接回调移除监听器。
+     */
+    public V put(K key, V value) {
+        V old;
+        List<Map.Entry<K, V>> removed;
+        synchronized (this) {
+            if (maxSize <= 0) {
+                old = null;
+                removed = Collections.singletonList(new AbstractMap.SimpleImmutableEntry<>(key, value));
+            } else {
+                old = map.put(key, value);
+                removed = evicted == null ? new ArrayList<>() : evicted;
+                evicted = null;
+                if (old != null && old != value) {
+                    removed.add(new AbstractMap.SimpleImmutableEntry<>(key, old));
+                }
+            }
+        }
+        notifyRemoved(removed);
+        return old;
+    }
+
+    /**
+     * 获取缓存值，不存在时创建并缓存。创建过程不加锁，并发时可能重复创建，以最后一次放入的为准。
+     */
+    public V computeIfAbsent(K key, Function<K, V> function) {
+        V value = get(key);
+        if (value == null) {
+            value = function.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public V remove(K key) {
+        V old;
+        synchronized (this) {
+            old = map.remove(key);
+        }
+        if (old != null) {
+            notifyRemoved(Collections.singletonList(new AbstractMap.SimpleImmutableEntry<>(key, old)));
+        }
+        return old;
+    }
+
+    public void clear() {
+        List<Map.Entry<K, V>> removed;
+        synchronized (this) {
+            removed = new ArrayList<>(map.entrySet().size());
+            for (Map.Entry<K, V> entry : map.entrySet()) {
+                removed.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+            map.clear();
+        }
+        notifyRemoved(removed);
+    }
+
+    private void notifyRemoved(List<Map.Entry<K, V>> removed) {
+        if (removalListener != null) {
+            for (Map.Entry<K, V> entry : removed) {
+                removalListener.accept(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 命中次数
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 未命中次数
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 因超出容量被淘汰的次数
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LruCache{size=" + map.size() + ", maxSize=" + maxSize + ", hit=" + hitCount + ", miss=" + missCount + ", eviction=" + evictionCount + "}";
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.myacelw.mybatis.dynamic.core.database;
+
+import io.github.myacelw.mybatis.dynamic.core.metadata.enums.KeyGeneratorMode;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 只实现原有方法的 MybatisHelper 实现类，新增方法使用默认实现
+ */
+class MybatisHelperTest {
+
+    private final MybatisHelper mybatisHelper = mock(MybatisHelper.class, CALLS_REAL_METHODS);
+
+    private final SqlSession sqlSession = mock(SqlSession.class);
+
+    @Test
+    void batchWithSessionFallsBackToOriginalMethods() {
+        List<Object> contexts = Collections.singletonList(new Object());
+        List<MybatisHelper.BatchItem> items = Collections.singletonList(new MybatisHelper.BatchItem("UPDATE t SET a = 1", null));
+
+        mybatisHelper.batchInsert(sqlSession, "INSERT", contexts, 10, null, null, null, true);
+        verify(mybatisHelper).batchInsert("INSERT", contexts, 10, null, null, null);
+
+        mybatisHelper.batchUpdate(sqlSession, "UPDATE", contexts, 10, true);
+        verify(mybatisHelper).batchUpdate("UPDATE", contexts, 10);
+
+        mybatisHelper.batchUpdates(sqlSession, items, 10);
+        verify(mybatisHelper).batchUpdates(items, 10);
+    }
+
+    @Test
+    void batchInsertRowsFallsBackToBatchUpdates() {
+        List<MybatisHelper.BatchItem> items = Collections.singletonList(new MybatisHelper.BatchItem("INSERT", Collections.emptyList()));
+
+        mybatisHelper.batchInsertRows(sqlSession, items, 10, KeyGeneratorMode.NONE, null);
+        verify(mybatisHelper).batchUpdates(items, 10);
+
+        assertThrows(UnsupportedOperationException.class, () -> mybatisHelper.batchInsertRows(sqlSession, items, 10, KeyGeneratorMode.AUTO_INCREMENT, "id"));
+    }
+
+    @Test
+    void bulkLoadNotSupported() {
+        assertThrows(UnsupportedOperationException.class, () -> mybatisHelper.bulkLoad(sqlSession, null, "t", Collections.singletonList("a"), Collections.emptyIterator()));
+    }
+
+    @Test
+    void executeInTransactionNotSupported() {
+        assertThrows(UnsupportedOperationException.class, () -> mybatisHelper.executeInTransaction(session -> null));
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.myacelw.mybatis.dynamic.core.database.dialect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataBaseDialectTest {
+
+    private final List<String> columns = Arrays.asList("id", "name");
+
+    private final List<String> keyColumns = Collections.singletonList("id");
+
+    private final List<List<String>> rows = Arrays.asList(Arrays.asList("#{a}", "#{b}"), Arrays.asList("#{c}", "#{d}"));
+
+    @Test
+    void getBatchUpsertSql() {
+        assertEquals("INSERT INTO t (id,name) VALUES (#{a},#{b}), (#{c},#{d}) ON DUPLICATE KEY UPDATE name = VALUES(name)",
+                new MysqlDataBaseDialect().getBatchUpsertSql("t", columns, keyColumns, Collections.singletonList("name"), rows));
+
+        assertEquals("INSERT INTO t (id,name) VALUES (#{a},#{b}), (#{c},#{d}) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name",
+                new PostgresqlDataBaseDialect().getBatchUpsertSql("t", columns, keyColumns, Collections.singletonList("name"), rows));
+        assertEquals("INSERT INTO t (id,name) VALUES (#{a},#{b}), (#{c},#{d}) ON CONFLICT (id) DO NOTHING",
+                new PostgresqlDataBaseDialect().getBatchUpsertSql("t", columns, keyColumns, Collections.emptyList(), rows));
+
+        assertEquals("MERGE INTO t t USING (VALUES (#{a},#{b}), (#{c},#{d})) s (id, name) ON (t.id = s.id)"
+                        + " WHEN MATCHED THEN UPDATE SET name = s.name WHEN NOT MATCHED THEN INSERT (id, name) VALUES (s.id, s.name)",
+                new H2DataBaseDialect().getBatchUpsertSql("t", columns, keyColumns, Collections.singletonList("name"), rows));
+
+        assertEquals("MERGE INTO t t USING (SELECT #{a} id, #{b} name FROM DUAL UNION ALL SELECT #{c}, #{d} FROM DUAL) s ON (t.id = s.id)"
+                        + " WHEN NOT MATCHED THEN INSERT (id, name) VALUES (s.id, s.name)",
+                new OracleDataBaseDialect().getBatchUpsertSql("t", columns, keyColumns, Collections.emptyList(), rows));
+    }
+
+    @Test
+    void getMultiRowInsertSql() {
+        List<String> rowValues = Arrays.asList("#{a},#{b}", "#{c},#{d}");
+        assertEquals("INSERT INTO t (id,name) VALUES (#{a},#{b}), (#{c},#{d})", new MysqlDataBaseDialect().getMultiRowInsertSql("t", "id,name", rowValues));
+        assertEquals("INSERT ALL INTO t (id,name) VALUES (#{a},#{b}) INTO t (id,name) VALUES (#{c},#{d}) SELECT 1 FROM DUAL",
+                new OracleDataBaseDialect().getMultiRowInsertSql("t", "id,name", rowValues));
+    }
+
+    @Test
+    void getEstimatedRows() {
+        List<Map<String, Object>> pgPlan = Arrays.asList(
+                Collections.singletonMap("QUERY PLAN", "Seq Scan on t  (cost=0.00..35.50 rows=2550 width=4)"),
+                Collections.singletonMap("QUERY PLAN", "  Filter: (id > 1)"));
+        assertEquals(2550L, new PostgresqlDataBaseDialect().getEstimatedRows(pgPlan));
+
+        Map<String, Object> mysqlRow = new HashMap<>();
+        mysqlRow.put("rows", 1000L);
+        mysqlRow.put("filtered", 10.0);
+        assertEquals(100L, new MysqlDataBaseDialect().getEstimatedRows(Collections.singletonList(mysqlRow)));
+
+        assertNull(new MysqlDataBaseDialect().getEstimatedRows(Collections.emptyList()));
+        assertNull(new H2DataBaseDialect().getExplainSql("SELECT 1"));
+    }
+
+    @Test
+    void mysqlVersionFeatures() {
+        MysqlDataBaseDialect dialect = new MysqlDataBaseDialect();
+        // 未设置版本时按不支持处理
+        assertFalse(dialect.supportWindowFunction());
+        dialect.setDatabaseVersion("5.7.44-log");
+        assertFalse(dialect.supportWindowFunction());
+        dialect.setDatabaseVersion("8.0.33");
+        assertTrue(dialect.supportWindowFunction());
+        dialect.setDatabaseVersion("5.5.5-10.6.12-MariaDB");
+        assertTrue(dialect.supportWindowFunction());
+        assertTrue(dialect.getLargeInListSql("id", false, Arrays.asList("1", "2")).contains("UNION ALL"));
+    }
+}
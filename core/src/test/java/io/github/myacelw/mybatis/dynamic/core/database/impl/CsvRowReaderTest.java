@@ -0,0 +1,28 @@
+package io.github.myacelw.mybatis.dynamic.core.database.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvRowReaderTest {
+
+    @Test
+    void testEncode() throws Exception {
+        CsvRowReader reader = new CsvRowReader(Arrays.asList("id", "name", "amount", "flag", "data"), Arrays.asList(
+                new Object[]{1, "a,\"b\"", new BigDecimal("1E+3"), true, new byte[]{0x0f, (byte) 0xa0}},
+                new Object[]{2L, "", null, false, null}
+        ).iterator());
+
+        String csv = new BufferedReader(reader).lines().collect(Collectors.joining("\n"));
+        // 字符串总是加引号，空字符串与null区分
+        assertEquals("\"id\",\"name\",\"amount\",\"flag\",\"data\"\n"
+                + "1,\"a,\"\"b\"\"\",1000,true,\\x0fa0\n"
+                + "2,\"\",,false,", csv);
+        assertEquals(2, reader.getRowCount());
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.myacelw.mybatis.dynamic.core.database.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.database.BulkLoader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 测试用批量加载器，H2 不支持 COPY，以相同的CSV编码写入临时文件后通过 CSVREAD 加载
+ */
+public class H2CsvReadBulkLoader implements BulkLoader {
+
+    @Override
+    public long load(Connection connection, String table, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        try {
+            File file = File.createTempFile("bulk_load", ".csv");
+            try {
+                CsvRowReader reader = new CsvRowReader(columns, rows);
+                try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+                    copy(reader, writer);
+                }
+                String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") SELECT * FROM CSVREAD('"
+                        + file.getAbsolutePath().replace("'", "''") + "', NULL, 'charset=UTF-8')";
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(sql);
+                }
+                return reader.getRowCount();
+            } finally {
+                file.delete();
+            }
+        } catch (IOException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    private static void copy(Reader reader, Writer writer) throws IOException {
+        char[] buffer = new char[1024];
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            writer.write(buffer, 0, n);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.myacelw.mybatis.dynamic.core.database.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.Database;
+import io.github.myacelw.mybatis.dynamic.core.TableServiceBuildUtil;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MybatisHelperSqlSourceCacheTest {
+
+    @Test
+    void testCompiledSqlSourceReused() {
+        TableManagerImpl tableService = TableServiceBuildUtil.createTableService(Database.H2, "sql_source_cache");
+        MybatisHelperImpl mybatisHelper = (MybatisHelperImpl) tableService.getSqlHelper();
+
+        try (SqlSession sqlSession = mybatisHelper.getSqlSessionFactory().openSession(true)) {
+            mybatisHelper.update(sqlSession, "CREATE TABLE test_sql_source_cache (id INT PRIMARY KEY, name VARCHAR(255))", null);
+            mybatisHelper.insert(sqlSession, "INSERT INTO test_sql_source_cache (id, name) VALUES (1, 'Alice')", null);
+            mybatisHelper.insert(sqlSession, "INSERT INTO test_sql_source_cache (id, name) VALUES (2, 'Bob')", null);
+
+            mybatisHelper.getSqlSourceCache().clear();
+
+            String sql = "SELECT name FROM test_sql_source_cache WHERE id = #{id}";
+            for (int id = 1; id <= 2; id++) {
+                Map<String, Object> context = new HashMap<>();
+                context.put("__sql", sql);
+                context.put("id", id);
+                List<String> names = mybatisHelper.queryList(sqlSession, "${__sql}", context, null, String.class);
+                assertEquals(1, names.size());
+                assertEquals(id == 1 ? "Alice" : "Bob", names.get(0));
+            }
+            // 相同SQL文本只编译一次
+            assertEquals(1, mybatisHelper.getSqlSourceCache().size());
+
+            Map<String, Object> context = new HashMap<>();
+            context.put("__sql", "SELECT name FROM test_sql_source_cache WHERE id > #{id} ORDER BY id");
+            context.put("id", 0);
+            List<String> names = mybatisHelper.queryList(sqlSession, "${__sql}", context, null, String.class);
+            assertEquals(2, names.size());
+            assertEquals(2, mybatisHelper.getSqlSourceCache().size());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.myacelw.mybatis.dynamic.core.database.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.Database;
+import io.github.myacelw.mybatis.dynamic.core.TableServiceBuildUtil;
+import io.github.myacelw.mybatis.dynamic.core.metadata.table.SelectColumn;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MybatisHelperStatementRegistryTest {
+
+    @Test
+    void testEvictStatementAndResultMap() {
+        SqlSessionFactory sqlSessionFactory = TableServiceBuildUtil.createSqlSessionFactory(Database.H2, "statement_registry");
+        MybatisHelperImpl mybatisHelper = new MybatisHelperImpl(sqlSessionFactory, 0, 120, null, 2);
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            mybatisHelper.update(sqlSession, "CREATE TABLE test_statement_registry (id INT PRIMARY KEY, name VARCHAR(255))", null);
+            mybatisHelper.insert(sqlSession, "INSERT INTO test_statement_registry (id, name) VALUES (1, 'Alice')", null);
+
+            for (int i = 0; i < 5; i++) {
+                List<SelectColumn> columns = Collections.singletonList(SelectColumn.column("name", "name" + i, String.class, null, null));
+                List<Map<String, Object>> result = query(mybatisHelper, sqlSession, "SELECT name AS name" + i + " FROM test_statement_registry WHERE id = #{id}", columns);
+                assertEquals("Alice", result.get(0).get("name" + i));
+            }
+
+            // 注册数量受限，超出部分被淘汰并从 Configuration 中移除
+            assertEquals(2, mybatisHelper.getStatementCache().size());
+            assertEquals(2, mybatisHelper.getResultMapCache().size());
+            assertTrue(mybatisHelper.getStatementCache().getEvictionCount() >= 3);
+            assertTrue(mybatisHelper.getResultMapCache().getEvictionCount() >= 3);
+            // MappedStatement 同时以全名和短名称注册
+            assertEquals(4, configuration.getMappedStatementNames().size());
+            assertEquals(2, configuration.getResultMapNames().size());
+
+            // 相同SQL命中已注册语句
+            List<SelectColumn> columns = Collections.singletonList(SelectColumn.column("name", "name4", String.class, null, null));
+            long hitCount = mybatisHelper.getStatementCache().getHitCount();
+            List<Map<String, Object>> result = query(mybatisHelper, sqlSession, "SELECT name AS name4 FROM test_statement_registry WHERE id = #{id}", columns);
+            assertEquals("Alice", result.get(0).get("name4"));
+            assertEquals(hitCount + 1, mybatisHelper.getStatementCache().getHitCount());
+
+            // 已淘汰的SQL可重新注册执行
+            columns = Collections.singletonList(SelectColumn.column("name", "name0", String.class, null, null));
+            result = query(mybatisHelper, sqlSession, "SELECT name AS name0 FROM test_statement_registry WHERE id = #{id}", columns);
+            assertEquals("Alice", result.get(0).get("name0"));
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void testEvictStatementInUse() throws Exception {
+        SqlSessionFactory sqlSessionFactory = TableServiceBuildUtil.createSqlSessionFactory(Database.H2, "statement_registry_in_use");
+        MybatisHelperImpl mybatisHelper = new MybatisHelperImpl(sqlSessionFactory, 0, 120, null, 2);
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            mybatisHelper.update(sqlSession, "CREATE TABLE test_statement_in_use (id INT PRIMARY KEY, name VARCHAR(255))", null);
+            mybatisHelper.insert(sqlSession, "INSERT INTO test_statement_in_use (id, name) VALUES (1, 'Alice')", null);
+            mybatisHelper.insert(sqlSession, "INSERT INTO test_statement_in_use (id, name) VALUES (2, 'Bob')", null);
+
+            Cursor<Map<String, Object>> cursor = (Cursor) mybatisHelper.queryCursor(sqlSession, "SELECT id AS id, name AS \"items.name\" FROM test_statement_in_use ORDER BY id", null, nestedColumns("name"), Map.class);
+            // 游标读取前其语句及嵌套 ResultMap 已被淘汰
+            for (int i = 0; i < 3; i++) {
+                query(mybatisHelper, null, "SELECT name AS name" + i + " FROM test_statement_in_use WHERE id = #{id}",
+                        Collections.singletonList(SelectColumn.column("name", "name" + i, String.class, null, null)));
+            }
+            assertTrue(configuration.getMappedStatementNames().size() > 4);
+
+            List<Map<String, Object>> result = new ArrayList<>();
+            cursor.forEach(result::add);
+            assertEquals(2, result.size());
+            assertEquals("Alice", ((List<Map<String, Object>>) result.get(0).get("items")).get(0).get("name"));
+            cursor.close();
+
+            // 释放后被淘汰的条目从 Configuration 中移除
+            assertEquals(4, configuration.getMappedStatementNames().size());
+            assertEquals(2, configuration.getResultMapNames().size());
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void testConcurrentEviction() throws Exception {
+        SqlSessionFactory sqlSessionFactory = TableServiceBuildUtil.createSqlSessionFactory(Database.H2, "statement_registry_concurrent");
+        MybatisHelperImpl mybatisHelper = new MybatisHelperImpl(sqlSessionFactory, 0, 120, null, 2);
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+
+        mybatisHelper.update(null, "CREATE TABLE test_statement_concurrent (id INT PRIMARY KEY, name VARCHAR(255))", null);
+        for (int i = 1; i <= 20; i++) {
+            mybatisHelper.insert(null, "INSERT INTO test_statement_concurrent (id, name) VALUES (" + i + ", 'name" + i + "')", null);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        String property = "p" + ((thread + i) % 6);
+                        List<Map<String, Object>> result = (List) mybatisHelper.queryList(null,
+                                "SELECT id AS id, name AS \"items." + property + "\" FROM test_statement_concurrent ORDER BY id", null, nestedColumns(property), Map.class);
+                        assertEquals(20, result.size());
+                        assertEquals("name1", ((List<Map<String, Object>>) result.get(0).get("items")).get(0).get(property));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // 全部调用结束后，Configuration 中只保留缓存内的条目及缓存内语句引用的 ResultMap
+        assertEquals(2, mybatisHelper.getStatementCache().size());
+        assertEquals(4, configuration.getMappedStatementNames().size());
+        assertTrue(configuration.getResultMapNames().size() <= 8);
+    }
+
+    private static List<SelectColumn> nestedColumns(String property) {
+        return Arrays.asList(SelectColumn.id("id", "id", Integer.class, null, null),
+                SelectColumn.collection("items", "items", Collections.singletonList(SelectColumn.column("name", property, String.class, null, null)), Map.class));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Map<String, Object>> query(MybatisHelperImpl mybatisHelper, SqlSession sqlSession, String sql, List<SelectColumn> columns) {
+        return (List) mybatisHelper.queryList(sqlSession, sql, Collections.singletonMap("id", 1), columns, Map.class);
+    }
+}
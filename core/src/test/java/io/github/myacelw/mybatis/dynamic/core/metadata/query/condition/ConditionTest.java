@@ -1,14 +1,25 @@
 package io.github.myacelw.mybatis.dynamic.core.metadata.query.condition;
 
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.MysqlDataBaseDialect;
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.OracleDataBaseDialect;
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.PostgresqlDataBaseDialect;
+import io.github.myacelw.mybatis.dynamic.core.exception.crud.ConditionParameterException;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.FieldToSqlConverter;
+import io.github.myacelw.mybatis.dynamic.core.typehandler.CollectionArrayTypeHandler;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ConditionTest {
@@ -65,4 +76,90 @@ class ConditionTest {
         assertTrue(c3.match(data));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void inListBucketing() {
+        assertEquals(1, SimpleCondition.inListBucketSize(1));
+        assertEquals(4, SimpleCondition.inListBucketSize(3));
+        assertEquals(4, SimpleCondition.inListBucketSize(4));
+        assertEquals(256, SimpleCondition.inListBucketSize(200));
+        assertEquals(512, SimpleCondition.inListBucketSize(300));
+        assertEquals(1000, SimpleCondition.inListBucketSize(900));
+        assertEquals(1280, SimpleCondition.inListBucketSize(1100));
+
+        FieldToSqlConverter converter = new FieldToSqlConverter() {
+            @Override
+            public String convertColumn(String fieldName) {
+                return fieldName;
+            }
+
+            @Override
+            public int inListSize(int size) {
+                return SimpleCondition.inListBucketSize(size);
+            }
+        };
+        // 以最后一个值补齐到分桶大小
+        String sql = SimpleCondition.in("id", Arrays.asList(1, 2, 3)).sql("c", converter, null);
+        assertEquals("id IN (#{c.v[0]},#{c.v[1]},#{c.v[2]},#{c.v[2]})", sql);
+    }
+
+    @Test
+    void largeInList() {
+        FieldToSqlConverter converter = new FieldToSqlConverter() {
+            @Override
+            public String convertColumn(String fieldName) {
+                return fieldName;
+            }
+
+            @Override
+            public int getLargeInListThreshold() {
+                return 2;
+            }
+        };
+        // 未超过阈值时使用普通IN列表
+        assertEquals("id IN (#{c.v[0]},#{c.v[1]})", SimpleCondition.in("id", Arrays.asList(1, 2)).sql("c", converter, new MysqlDataBaseDialect()));
+
+        MysqlDataBaseDialect mysql8 = new MysqlDataBaseDialect();
+        mysql8.setDatabaseVersion("8.0.33");
+        assertEquals("id IN (SELECT column_0 FROM (VALUES ROW(#{c.v[0]}), ROW(#{c.v[1]}), ROW(#{c.v[2]})) AS v_in)",
+                SimpleCondition.in("id", Arrays.asList(1, 2, 3)).sql("c", converter, mysql8));
+        // 不支持 VALUES 语句的版本使用 UNION ALL 派生表
+        MysqlDataBaseDialect mysql57 = new MysqlDataBaseDialect();
+        mysql57.setDatabaseVersion("5.7.44-log");
+        assertEquals("id IN (SELECT v FROM (SELECT #{c.v[0]} AS v FROM DUAL UNION ALL SELECT #{c.v[1]} FROM DUAL UNION ALL SELECT #{c.v[2]} FROM DUAL) v_in)",
+                SimpleCondition.in("id", Arrays.asList(1, 2, 3)).sql("c", converter, mysql57));
+        assertEquals("id NOT IN (SELECT column1 FROM (VALUES (#{c.v[0]}), (#{c.v[1]}), (#{c.v[2]})) AS v_in)",
+                SimpleCondition.notIn("id", Arrays.asList(1, 2, 3)).sql("c", converter, new PostgresqlDataBaseDialect() {
+                    @Override
+                    public boolean supportArrayParameter() {
+                        return false;
+                    }
+                }));
+        // Oracle 按1000个一组拆分为多个IN列表
+        String sql = SimpleCondition.in("id", IntStream.range(0, 1500).boxed().collect(Collectors.toList())).sql("c", converter, new OracleDataBaseDialect());
+        assertTrue(sql.startsWith("(id IN (#{c.v[0]},"));
+        assertTrue(sql.contains("#{c.v[999]}) OR id IN (#{c.v[1000]},"));
+    }
+
+    @Test
+    void inListExceedParameterLimit() {
+        List<Integer> ids = IntStream.range(0, 20000).boxed().collect(Collectors.toList());
+        // 超过参数上限一半时整数值以字面量写入，不再逐个绑定
+        String sql = SimpleCondition.in("id", ids).sql("c", null, new MysqlDataBaseDialect() {
+            @Override
+            public int getMaxParameterCount() {
+                return 30000;
+            }
+        });
+        assertTrue(sql.startsWith("id IN (SELECT v FROM (SELECT 0 AS v FROM DUAL UNION ALL SELECT 1 FROM DUAL"));
+        assertFalse(sql.contains("#{"));
+
+        // 支持数组参数的数据库以单个参数绑定
+        sql = SimpleCondition.in("id", ids).sql("c", null, new PostgresqlDataBaseDialect());
+        assertEquals("id = ANY(#{c.v,typeHandler=" + CollectionArrayTypeHandler.class.getName() + "})", sql);
+
+        // 非整数值无法内联
+        List<String> names = ids.stream().map(String::valueOf).collect(Collectors.toList());
+        assertThrows(ConditionParameterException.class, () -> SimpleCondition.in("name", names).sql("c", null, new OracleDataBaseDialect()));
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.myacelw.mybatis.dynamic.core.service;
+
+import io.github.myacelw.mybatis.dynamic.core.service.execution.BaseExecutionTest;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelServiceImpl;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataLoaderTest extends BaseExecutionTest {
+
+    @Test
+    void load_CoalesceAndIdentityMap() {
+        try (DataLoader loader = DataLoader.open(modelService)) {
+            CompletableFuture<Map<String, Object>> d1 = loader.load("Department", "d1", null);
+            CompletableFuture<Map<String, Object>> d2 = loader.load("Department", "d2", null);
+            CompletableFuture<Map<String, Object>> missing = loader.load("Department", "non-existent", null);
+            CompletableFuture<Map<String, Object>> u1 = loader.load("User", "u1", null);
+            assertFalse(d1.isDone());
+
+            loader.dispatch();
+            assertEquals(2, loader.getQueryCount());
+            assertEquals("d1", d1.join().get("id"));
+            assertEquals("d2", d2.join().get("id"));
+            assertNull(missing.join());
+            assertEquals("u1", u1.join().get("id"));
+
+            // 已加载的ID直接返回同一对象
+            assertSame(d1.join(), loader.load("Department", "d1", null).join());
+            assertTrue(loader.load("Department", "non-existent", null).isDone());
+            assertEquals(2, loader.getQueryCount());
+        }
+        assertNull(DataLoader.current());
+    }
+
+    @Test
+    void getById_RoutedThroughLoader() {
+        DataManager<String> dataManager = modelService.getDataManager("Department", null);
+        try (DataLoader loader = DataLoader.open(modelService)) {
+            loader.load("Department", "d3", null);
+            loader.load("Department", "d4", null);
+
+            Map<String, Object> d3 = dataManager.getById("d3");
+            assertEquals(1, loader.getQueryCount());
+            for (int i = 0; i < 5; i++) {
+                assertSame(d3, dataManager.getById("d3"));
+                dataManager.getById("d4");
+            }
+            assertEquals(1, loader.getQueryCount());
+
+            List<Map<String, Object>> list = dataManager.getByIds(Arrays.asList("d4", "d5", "d3", "d4"));
+            assertEquals(Arrays.asList("d4", "d5", "d3"), Arrays.asList(list.get(0).get("id"), list.get(1).get("id"), list.get(2).get("id")));
+            assertEquals(2, loader.getQueryCount());
+
+            // 指定查询字段时不经由加载器
+            dataManager.getByIdChain().id("d3").selectFields("name").exec();
+            assertEquals(2, loader.getQueryCount());
+
+            // 写操作清除已加载数据
+            dataManager.update("d3", Collections.singletonMap("name", "新部门"));
+            assertEquals("新部门", dataManager.getById("d3").get("name"));
+            assertEquals(3, loader.getQueryCount());
+        }
+    }
+
+    @Test
+    void close_RestorePrevious() {
+        try (DataLoader outer = DataLoader.open(modelService)) {
+            try (DataLoader inner = DataLoader.open(modelService)) {
+                assertSame(inner, DataLoader.current());
+            }
+            assertSame(outer, DataLoader.current());
+        }
+        assertNull(DataLoader.current());
+    }
+
+    @Test
+    void getById_NonTransactionalSession() {
+        ModelServiceImpl service = (ModelServiceImpl) new ModelServiceBuilder(sqlSessionFactory)
+                .tablePrefix("d_")
+                .transactionSupport(new TransactionSupport() {
+                    @Override
+                    public boolean isTransactional(SqlSession sqlSession) {
+                        return false;
+                    }
+                }).build();
+        ModelDataLoader modelDataLoader = new ModelDataLoader(service);
+        modelDataLoader.setIdType(String.class);
+        modelDataLoader.updateAndRegister("classpath:models.json");
+        DataManager<String> dataManager = service.createDataManager(service.getDataManager("Department", null).getModel(), null, sqlSession);
+
+        // 打开加载器时才追加清除用的拦截器
+        int interceptorCount = service.getDataManager("Department", null).getModelContext().getInterceptor().getInterceptors().size();
+        try (DataLoader loader = DataLoader.open(service)) {
+            assertEquals(interceptorCount + 1, service.getDataManager("Department", null).getModelContext().getInterceptor().getInterceptors().size());
+            DataLoader.open(service).close();
+            assertEquals(interceptorCount + 1, service.getDataManager("Department", null).getModelContext().getInterceptor().getInterceptors().size());
+
+            // 调用方会话不处于事务中时经由加载器
+            Map<String, Object> d1 = dataManager.getById("d1");
+            assertEquals(1, loader.getQueryCount());
+            assertSame(d1, dataManager.getById("d1"));
+            assertEquals(1, loader.getQueryCount());
+        }
+
+        // 默认规则下指定了其他会话的查询不经由加载器
+        DataManager<String> sessionDataManager = modelService.createDataManager(modelService.getDataManager("Department", null).getModel(), null, sqlSession);
+        try (DataLoader loader = DataLoader.open(modelService)) {
+            sessionDataManager.getById("d1");
+            assertEquals(0, loader.getQueryCount());
+        }
+    }
+}
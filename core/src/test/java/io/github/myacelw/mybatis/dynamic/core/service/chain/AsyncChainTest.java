@@ -0,0 +1,103 @@
+package io.github.myacelw.mybatis.dynamic.core.service.chain;
+
+import io.github.myacelw.mybatis.dynamic.core.Database;
+import io.github.myacelw.mybatis.dynamic.core.TableServiceBuildUtil;
+import io.github.myacelw.mybatis.dynamic.core.metadata.Model;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.PageResult;
+import io.github.myacelw.mybatis.dynamic.core.service.AsyncTaskDecorator;
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelDataLoader;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelService;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelServiceBuilder;
+import io.github.myacelw.mybatis.dynamic.core.service.command.InsertCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.execution.BaseExecutionTest;
+import io.github.myacelw.mybatis.dynamic.core.service.filler.AbstractCreatorFiller;
+import io.github.myacelw.mybatis.dynamic.core.service.filler.AbstractModifierFiller;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AsyncChainTest extends BaseExecutionTest {
+
+    @Test
+    void testFanOut() {
+        // 绑定调用方会话的数据管理器，异步任务在执行线程上使用各自独立的会话
+        DataManager<String> roleManager = modelService.createDataManager(modelService.getDataManager("Role", null).getModel(), null, sqlSession);
+        DataManager<String> userManager = modelService.createDataManager(modelService.getDataManager("User", null).getModel(), null, sqlSession);
+
+        CompletableFuture<Map<String, Object>> role = roleManager.getByIdChain().id("r1").execAsync();
+        CompletableFuture<List<Map<String, Object>>> roles = roleManager.getByIdsChain().ids(Arrays.asList("r1", "r2")).execAsync();
+        CompletableFuture<PageResult<Map<String, Object>>> users = userManager.pageChain().page(1, 1).execAsync();
+        CompletableFuture.allOf(role, roles, users).join();
+
+        assertEquals("r1", role.join().get("id"));
+        assertEquals(2, roles.join().size());
+        assertEquals(1, users.join().getData().size());
+        assertEquals(Integer.valueOf(userManager.count()), users.join().getTotal());
+    }
+
+    private static final ThreadLocal<String> USER = new ThreadLocal<>();
+
+    @Test
+    void testFillerContext() {
+        // 填充器从 ThreadLocal 获取当前用户，未设置任务装饰器时执行线程上取不到
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        USER.set("async_user");
+        try {
+            assertNull(insertAsync(executor, null, "a1").get(Model.FIELD_CREATOR));
+
+            AsyncTaskDecorator decorator = task -> {
+                String user = USER.get();
+                return () -> {
+                    USER.set(user);
+                    try {
+                        task.run();
+                    } finally {
+                        USER.remove();
+                    }
+                };
+            };
+            assertEquals("async_user", insertAsync(executor, decorator, "a2").get(Model.FIELD_CREATOR));
+        } finally {
+            USER.remove();
+            executor.shutdown();
+        }
+    }
+
+    private Map<String, Object> insertAsync(ExecutorService executor, AsyncTaskDecorator decorator, String id) {
+        ModelService asyncModelService = new ModelServiceBuilder(TableServiceBuildUtil.createSqlSessionFactory(Database.H2, "async_filler_" + id))
+                .tablePrefix("d_")
+                .executor(executor)
+                .taskDecorator(decorator)
+                .fillers(Arrays.asList(new AbstractCreatorFiller() {
+                    @Override
+                    protected String getCurrentUser() {
+                        return USER.get();
+                    }
+                }, new AbstractModifierFiller() {
+                    @Override
+                    protected String getCurrentUser() {
+                        return USER.get();
+                    }
+                })).build();
+        ModelDataLoader loader = new ModelDataLoader(asyncModelService);
+        loader.setIdType(String.class);
+        loader.updateAndRegister("classpath:models.json");
+        DataManager<String> roleManager = asyncModelService.getDataManager("Role", null);
+
+        Map<String, Object> role = new HashMap<>();
+        role.put("id", id);
+        role.put("name", "async");
+        roleManager.execCommandAsync(new InsertCommand(role, true)).join();
+        return roleManager.getById(id);
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.myacelw.mybatis.dynamic.core.service.chain;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.execution.BaseExecutionTest;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReactorCursorsTest extends BaseExecutionTest {
+
+    @Test
+    void testFlux() {
+        DataManager<String> dataManager = getDataManager("User");
+        HikariDataSource dataSource = (HikariDataSource) sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+
+        List<Object> expected = dataManager.queryChain().orderItems(OrderItem.asc("id")).exec().stream().map(t -> t.get("id")).collect(Collectors.toList());
+        Flux<Map<String, Object>> flux = ReactorCursors.flux(dataManager.queryCursorChain().orderItems(OrderItem.asc("id")));
+
+        // 完整读取
+        List<Object> ids = flux.map(t -> t.get("id")).collectList().block();
+        assertEquals(expected, ids);
+
+        // 只取第一行后取消，游标关闭并释放连接
+        Map<String, Object> first = flux.take(1).blockFirst();
+        assertEquals(expected.get(0), first.get("id"));
+        assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+    }
+}
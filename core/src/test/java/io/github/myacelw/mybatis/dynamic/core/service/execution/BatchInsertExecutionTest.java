@@ -1,16 +1,46 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
+import io.github.myacelw.mybatis.dynamic.core.Database;
+import io.github.myacelw.mybatis.dynamic.core.TableServiceBuildUtil;
+import io.github.myacelw.mybatis.dynamic.core.database.BulkLoader;
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.H2DataBaseDialect;
+import io.github.myacelw.mybatis.dynamic.core.database.impl.H2CsvReadBulkLoader;
+import io.github.myacelw.mybatis.dynamic.core.database.MybatisHelper;
+import io.github.myacelw.mybatis.dynamic.core.database.impl.MybatisHelperImpl;
+import io.github.myacelw.mybatis.dynamic.core.exception.database.PartitionedBatchException;
+import io.github.myacelw.mybatis.dynamic.core.service.DataChangeInterceptor;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelDataLoader;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelService;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelServiceBuilder;
+import io.github.myacelw.mybatis.dynamic.core.service.filler.AbstractCreatorFiller;
+import io.github.myacelw.mybatis.dynamic.core.service.filler.AbstractModifierFiller;
 import io.github.myacelw.mybatis.dynamic.core.service.command.BatchInsertCommand;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class BatchInsertExecutionTest extends BaseExecutionTest {
@@ -51,4 +81,300 @@ class BatchInsertExecutionTest extends BaseExecutionTest {
         assertNotNull(role2);
         assertEquals("Batch Role 2", role2.get("name"));
     }
+
+    @Test
+    void exec_MultiRowInsert() {
+        DataManager<String> dataManager = getDataManager("Role");
+        BatchInsertExecution<String> execution = new BatchInsertExecution<>();
+
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> r = new HashMap<>();
+            r.put("id", "multi_r" + i);
+            // 插入列不同的行拆分到不同语句
+            if (i != 3) {
+                r.put("name", "Multi Role " + i);
+            }
+            dataList.add(r);
+        }
+
+        BatchInsertCommand command = new BatchInsertCommand();
+        command.setData(dataList);
+        command.setDisableGenerateId(true);
+        command.setRowsPerStatement(2);
+
+        List<String> ids = execution.exec(command, dataManager);
+        assertEquals(Arrays.asList("multi_r0", "multi_r1", "multi_r2", "multi_r3", "multi_r4"), ids);
+        assertEquals("Multi Role 4", dataManager.getById("multi_r4").get("name"));
+        assertNotNull(dataManager.getById("multi_r3"));
+        assertNull(dataManager.getById("multi_r3").get("name"));
+    }
+
+    @Test
+    void exec_MultiRowInsert_AutoIncrement() {
+        // 使用整数主键的独立数据库
+        SqlSessionFactory autoIncrementSqlSessionFactory = TableServiceBuildUtil.createSqlSessionFactory(Database.H2, "multi_row_auto_increment");
+        ModelService autoIncrementModelService = new ModelServiceBuilder(autoIncrementSqlSessionFactory).tablePrefix("d_")
+                .fillers(Arrays.asList(new AbstractCreatorFiller() {
+                    @Override
+                    protected String getCurrentUser() {
+                        return currentUser;
+                    }
+                }, new AbstractModifierFiller() {
+                    @Override
+                    protected String getCurrentUser() {
+                        return currentUser;
+                    }
+                })).build();
+        new ModelDataLoader(autoIncrementModelService).updateAndRegister("classpath:models.json");
+        DataManager<Integer> dataManager = autoIncrementModelService.getDataManager("Role", null);
+        BatchInsertExecution<Integer> execution = new BatchInsertExecution<>();
+
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> r = new HashMap<>();
+            r.put("name", "Auto Role " + i);
+            dataList.add(r);
+        }
+
+        BatchInsertCommand command = new BatchInsertCommand();
+        command.setData(dataList);
+        command.setRowsPerStatement(2);
+
+        // 自增主键按行顺序返回
+        List<Integer> ids = execution.exec(command, dataManager);
+        assertEquals(5, ids.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Auto Role " + i, dataManager.getById(ids.get(i)).get("name"));
+            assertEquals(ids.get(i), dataList.get(i).get("id"));
+        }
+    }
+
+    @Test
+    void exec_GroupByColumns() {
+        DataManager<String> dataManager = getDataManager("Role");
+        BatchInsertExecution<String> execution = new BatchInsertExecution<>();
+        MybatisHelper mybatisHelper = dataManager.getModelContext().getMybatisHelper();
+
+        // 插入列交替变化的数据
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Map<String, Object> r = new HashMap<>();
+            r.put("id", "group_r" + i);
+            if (i % 2 == 0) {
+                r.put("name", "Group Role " + i);
+            }
+            dataList.add(r);
+        }
+
+        BatchInsertCommand command = new BatchInsertCommand();
+        command.setData(dataList.subList(0, 3));
+        command.setDisableGenerateId(true);
+
+        // 默认按输入顺序执行，SQL每行变化时各发送一个JDBC批次
+        long batchCount = mybatisHelper.getPhysicalBatchCount();
+        assertEquals(Arrays.asList("group_r0", "group_r1", "group_r2"), execution.exec(command, dataManager));
+        assertEquals(batchCount + 3, mybatisHelper.getPhysicalBatchCount());
+
+        command.setData(dataList.subList(3, 6));
+        command.setGroupBySql(true);
+        batchCount = mybatisHelper.getPhysicalBatchCount();
+        List<String> ids = execution.exec(command, dataManager);
+        assertEquals(Arrays.asList("group_r3", "group_r4", "group_r5"), ids);
+        // 按列分组后只发送两个JDBC批次
+        assertEquals(batchCount + 2, mybatisHelper.getPhysicalBatchCount());
+        assertEquals("Group Role 4", dataManager.getById("group_r4").get("name"));
+        assertNull(dataManager.getById("group_r5").get("name"));
+    }
+
+    @Test
+    void exec_BatchInsert_JoinTransaction() {
+        DataManager<String> independentDataManager = modelService.getDataManager("Role", null);
+        // 绑定调用方会话的数据管理器
+        DataManager<String> dataManager = modelService.createDataManager(independentDataManager.getModel(), null, sqlSession);
+        MybatisHelperImpl mybatisHelper = (MybatisHelperImpl) dataManager.getModelContext().getMybatisHelper();
+        mybatisHelper.setBatchJoinTransaction(true);
+        try {
+            BatchInsertExecution<String> execution = new BatchInsertExecution<>();
+            List<Map<String, Object>> dataList = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Map<String, Object> r = new HashMap<>();
+                r.put("id", "join_r" + i);
+                r.put("name", "Join Role " + i);
+                dataList.add(r);
+            }
+            BatchInsertCommand command = new BatchInsertCommand();
+            command.setData(dataList);
+            command.setDisableGenerateId(true);
+            command.setBatchSize(2);
+
+            // 调用方会话回滚后批量写入一并撤销
+            execution.exec(command, dataManager);
+            assertNotNull(dataManager.getById("join_r2"));
+            assertFalse(independentDataManager.exists(c -> c.eq("id", "join_r0")));
+            // 批量写入已将调用方会话标记为已修改，普通回滚即可撤销
+            sqlSession.rollback();
+            assertFalse(dataManager.exists(c -> c.eq("id", "join_r0")));
+
+            // 调用方会话提交后可见
+            execution.exec(command, dataManager);
+            sqlSession.commit();
+            assertEquals("Join Role 1", independentDataManager.getById("join_r1").get("name"));
+        } finally {
+            mybatisHelper.setBatchJoinTransaction(false);
+        }
+    }
+
+    @Test
+    void exec_BulkLoad() {
+        // H2 不支持 COPY，使用 CSVREAD 替代的批量加载器
+        SqlSessionFactory bulkLoadSqlSessionFactory = TableServiceBuildUtil.createSqlSessionFactory(Database.H2, "bulk_load");
+        ModelService bulkLoadModelService = new ModelServiceBuilder(bulkLoadSqlSessionFactory).tablePrefix("d_")
+                .dialect(new H2DataBaseDialect() {
+                    @Override
+                    public BulkLoader getBulkLoader() {
+                        return new H2CsvReadBulkLoader();
+                    }
+                })
+                .fillers(Arrays.asList(new AbstractCreatorFiller() {
+                    @Override
+                    protected String getCurrentUser() {
+                        return currentUser;
+                    }
+                }, new AbstractModifierFiller() {
+                    @Override
+                    protected String getCurrentUser() {
+                        return currentUser;
+                    }
+                })).build();
+        ModelDataLoader loader = new ModelDataLoader(bulkLoadModelService);
+        loader.setIdType(String.class);
+        loader.updateAndRegister("classpath:models.json");
+        DataManager<String> dataManager = bulkLoadModelService.getDataManager("Role", null);
+        BatchInsertExecution<String> execution = new BatchInsertExecution<>();
+
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        String[] names = {"Bulk, \"1\"", "", null, "Bulk 3"};
+        for (String name : names) {
+            Map<String, Object> r = new HashMap<>();
+            if (name != null) {
+                r.put("name", name);
+            }
+            dataList.add(r);
+        }
+
+        BatchInsertCommand command = new BatchInsertCommand();
+        command.setData(dataList);
+        command.setBulkLoad(true);
+
+        // 主键预先生成后随数据一起加载
+        List<String> ids = execution.exec(command, dataManager);
+        assertEquals(4, ids.size());
+        for (int i = 0; i < names.length; i++) {
+            Map<String, Object> role = dataManager.getById(ids.get(i));
+            assertEquals(names[i], role.get("name"));
+            assertEquals(currentUser, role.get("creator"));
+            assertNotNull(role.get("createTime"));
+        }
+    }
+
+    @Test
+    void exec_ParallelInsert() {
+        // 第一次写入 par_r8 时失败一次，此时同一分区的前一批已写入，验证分区回滚后重试
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicInteger afterBatchInsertCount = new AtomicInteger();
+        DataChangeInterceptor counter = new DataChangeInterceptor() {
+            @Override
+            public void afterBatchInsert(DataManager<Object> dataManager, List<?> dataList, List<?> idList) {
+                afterBatchInsertCount.incrementAndGet();
+            }
+        };
+        SqlSessionFactory parallelSqlSessionFactory = TableServiceBuildUtil.createSqlSessionFactory(Database.H2, "parallel_insert");
+        parallelSqlSessionFactory.getConfiguration().addInterceptor(new FailOnceInterceptor("par_r8", failed));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ModelService parallelModelService = new ModelServiceBuilder(parallelSqlSessionFactory).tablePrefix("d_")
+                    .interceptors(Collections.singletonList(counter))
+                    .executor(executor)
+                    .fillers(Arrays.asList(new AbstractCreatorFiller() {
+                        @Override
+                        protected String getCurrentUser() {
+                            return currentUser;
+                        }
+                    }, new AbstractModifierFiller() {
+                        @Override
+                        protected String getCurrentUser() {
+                            return currentUser;
+                        }
+                    })).build();
+            ModelDataLoader loader = new ModelDataLoader(parallelModelService);
+            loader.setIdType(String.class);
+            loader.updateAndRegister("classpath:models.json");
+            DataManager<String> dataManager = parallelModelService.getDataManager("Role", null);
+            BatchInsertExecution<String> execution = new BatchInsertExecution<>();
+
+            List<Map<String, Object>> dataList = new ArrayList<>();
+            List<String> expectedIds = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Map<String, Object> r = new HashMap<>();
+                r.put("id", "par_r" + i);
+                r.put("name", "Parallel Role " + i);
+                dataList.add(r);
+                expectedIds.add("par_r" + i);
+            }
+            BatchInsertCommand command = new BatchInsertCommand();
+            command.setData(dataList);
+            command.setDisableGenerateId(true);
+            command.setBatchSize(3);
+            command.setParallelism(4);
+            command.setMaxRetries(1);
+
+            // 主键按输入顺序汇总，分区重试不重复触发拦截器
+            assertEquals(expectedIds, execution.exec(command, dataManager));
+            assertTrue(failed.get());
+            assertEquals(1, afterBatchInsertCount.get());
+            assertEquals(20, dataManager.count());
+
+            // 分区失败时整体回滚，其余分区已提交
+            List<Map<String, Object>> secondList = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Map<String, Object> r = new HashMap<>();
+                r.put("id", i == 7 ? "par_r0" : "par_s" + i);
+                r.put("name", "Second Role " + i);
+                secondList.add(r);
+            }
+            command.setData(secondList);
+            command.setMaxRetries(0);
+            PartitionedBatchException e = assertThrows(PartitionedBatchException.class, () -> execution.exec(command, dataManager));
+            assertEquals(4, e.getPartitionCount());
+            assertEquals(Collections.singletonList(3), e.getFailedPartitions());
+            assertEquals(6, e.getCommittedRows());
+            assertEquals(26, dataManager.count());
+            assertFalse(dataManager.exists(c -> c.eq("id", "par_s6")));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 首次更新参数包含指定值时抛出异常
+     */
+    @Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+    static class FailOnceInterceptor implements Interceptor {
+        private final String value;
+        private final AtomicBoolean failed;
+
+        FailOnceInterceptor(String value, AtomicBoolean failed) {
+            this.value = value;
+            this.failed = failed;
+        }
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            if (String.valueOf(invocation.getArgs()[1]).contains(value) && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Simulated failure");
+            }
+            return invocation.proceed();
+        }
+    }
 }
@@ -5,6 +5,7 @@ import io.github.myacelw.mybatis.dynamic.core.service.command.BatchInsertOrUpdat
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,4 +49,72 @@ class BatchInsertOrUpdateExecutionTest extends BaseExecutionTest {
         assertNotNull(nr1);
         assertEquals("New Role 1", nr1.get("name"));
     }
+
+    @Test
+    void exec_BatchInsertOrUpdate_UpdateIgnoreFieldsAndDuplicateId() {
+        DataManager<String> dataManager = getDataManager("User");
+        BatchInsertOrUpdateExecution<String> execution = new BatchInsertOrUpdateExecution<>();
+
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        Map<String, Object> u1 = new HashMap<>();
+        u1.put("id", "u1");
+        u1.put("name", "First");
+        u1.put("departmentId", "d2");
+        dataList.add(u1);
+
+        Map<String, Object> u9 = new HashMap<>();
+        u9.put("id", "u9");
+        u9.put("name", "New User");
+        u9.put("departmentId", "d2");
+        dataList.add(u9);
+
+        // 同一主键再次出现，拆分到下一条语句
+        Map<String, Object> u1Again = new HashMap<>();
+        u1Again.put("id", "u1");
+        u1Again.put("name", "Second");
+        u1Again.put("departmentId", "d2");
+        dataList.add(u1Again);
+
+        BatchInsertOrUpdateCommand command = new BatchInsertOrUpdateCommand();
+        command.setData(dataList);
+        command.setUpdateIgnoreFields(Collections.singletonList("departmentId"));
+        execution.exec(command, dataManager);
+
+        Map<String, Object> user1 = dataManager.getById("u1");
+        assertEquals("Second", user1.get("name"));
+        // 更新时忽略的字段保持不变
+        assertEquals("d1", user1.get("departmentId"));
+
+        Map<String, Object> user9 = dataManager.getById("u9");
+        assertEquals("New User", user9.get("name"));
+        assertEquals("d2", user9.get("departmentId"));
+    }
+
+    @Test
+    void exec_BatchInsertOrUpdate_Parallel() {
+        DataManager<String> dataManager = getDataManager("Role");
+        BatchInsertOrUpdateExecution<String> execution = new BatchInsertOrUpdateExecution<>();
+
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        Map<String, Object> r1 = new HashMap<>();
+        r1.put("id", "r1");
+        r1.put("name", "Parallel Updated r1");
+        dataList.add(r1);
+        for (int i = 0; i < 9; i++) {
+            Map<String, Object> r = new HashMap<>();
+            r.put("id", "par_upsert_" + i);
+            r.put("name", "Parallel Role " + i);
+            dataList.add(r);
+        }
+
+        BatchInsertOrUpdateCommand command = new BatchInsertOrUpdateCommand();
+        command.setData(dataList);
+        command.setParallelism(3);
+
+        execution.exec(command, dataManager);
+        assertEquals("Parallel Updated r1", dataManager.getById("r1").get("name"));
+        for (int i = 0; i < 9; i++) {
+            assertEquals("Parallel Role " + i, dataManager.getById("par_upsert_" + i).get("name"));
+        }
+    }
 }
@@ -45,4 +45,37 @@ class BatchUpdateExecutionTest extends BaseExecutionTest {
         assertNotNull(role2);
         assertEquals("Updated Role 2", role2.get("name"));
     }
+
+    @Test
+    void exec_BatchUpdate_DuplicateIdKeepOrder() {
+        DataManager<String> dataManager = getDataManager("User");
+        BatchUpdateExecution<String> execution = new BatchUpdateExecution<>();
+
+        // 同一主键多次更新且更新列不同，按原顺序执行
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        Map<String, Object> u1 = new HashMap<>();
+        u1.put("id", "u1");
+        u1.put("name", "First");
+        u1.put("departmentId", "d2");
+        dataList.add(u1);
+
+        Map<String, Object> u2 = new HashMap<>();
+        u2.put("id", "u1");
+        u2.put("name", "Second");
+        dataList.add(u2);
+
+        Map<String, Object> u3 = new HashMap<>();
+        u3.put("id", "u1");
+        u3.put("name", "Third");
+        u3.put("departmentId", "d1");
+        dataList.add(u3);
+
+        BatchUpdateCommand command = new BatchUpdateCommand();
+        command.setData(dataList);
+        execution.exec(command, dataManager);
+
+        Map<String, Object> user = dataManager.getById("u1");
+        assertEquals("Third", user.get("name"));
+        assertEquals("d1", user.get("departmentId"));
+    }
 }
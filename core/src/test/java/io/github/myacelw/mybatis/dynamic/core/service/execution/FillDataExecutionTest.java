@@ -1,9 +1,23 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
+import io.github.myacelw.mybatis.dynamic.core.annotation.IdField;
+import io.github.myacelw.mybatis.dynamic.core.annotation.Model;
+import io.github.myacelw.mybatis.dynamic.core.annotation.ToOne;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.FillDataCommand;
+import lombok.Data;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -11,6 +25,8 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FillDataExecutionTest extends BaseExecutionTest {
@@ -54,4 +70,112 @@ class FillDataExecutionTest extends BaseExecutionTest {
         List<Map<String, Object>> addresses = (List<Map<String, Object>>) userMap.get("userAddressList");
         assertEquals(2, addresses.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void exec_ChunkedAndShared() {
+        DataManager<String> dataManager = getDataManager("User");
+        FillDataExecution<String> execution = new FillDataExecution<>();
+
+        Map<String, Object> u1 = new HashMap<>();
+        u1.put("id", "u1");
+        u1.put("departmentId", "d1");
+        Map<String, Object> u2 = new HashMap<>();
+        u2.put("id", "u2");
+        u2.put("departmentId", "d2");
+        Map<String, Object> u3 = new HashMap<>();
+        u3.put("id", "u3");
+        u3.put("departmentId", "non-existent");
+
+        // 相同字段重复填充时共用一次查询，每批1个ID并行查询
+        FillDataCommand command = new FillDataCommand(Arrays.asList(u1, u2, u3), Arrays.asList(
+                new FillDataCommand.FillField("department"), new FillDataCommand.FillField("userAddressList"), new FillDataCommand.FillField("department")));
+        command.setChunkSize(1);
+        command.setParallelism(2);
+
+        QueryCountInterceptor counter = new QueryCountInterceptor();
+        sqlSessionFactory.getConfiguration().addInterceptor(counter);
+        execution.exec(command, dataManager);
+
+        // 两个 department 字段合并为一次关联查询，3个ID按每批1个拆分
+        assertEquals(3, counter.count("d_department"));
+        assertEquals(3, counter.count("user_address2"));
+
+        assertEquals("部门A", ((Map<?, ?>) u1.get("department")).get("name"));
+        assertEquals("d2", ((Map<?, ?>) u2.get("department")).get("id"));
+        assertNull(u3.get("department"));
+
+        List<?> addresses1 = (List<?>) u1.get("userAddressList");
+        List<?> addresses2 = (List<?>) u2.get("userAddressList");
+        assertEquals(2, addresses1.size());
+        assertEquals(2, addresses2.size());
+        assertTrue(((List<?>) u3.get("userAddressList")).isEmpty());
+        assertNotSame(addresses1, addresses2);
+    }
+
+    @Test
+    void exec_SharedLookupCopiedPerField() {
+        modelService.updateAndRegister(FillTransfer.class);
+        DataManager<String> dataManager = getDataManager("FillTransfer");
+
+        Map<String, Object> t1 = new HashMap<>();
+        t1.put("id", "t1");
+        t1.put("fromDepartmentId", "d1");
+        t1.put("toDepartmentId", "d1");
+        Map<String, Object> t2 = new HashMap<>();
+        t2.put("id", "t2");
+        t2.put("fromDepartmentId", "d1");
+        t2.put("toDepartmentId", "d2");
+
+        QueryCountInterceptor counter = new QueryCountInterceptor();
+        sqlSessionFactory.getConfiguration().addInterceptor(counter);
+        dataManager.fillChain().data(Arrays.asList(t1, t2)).fillField("fromDepartment").fillField("toDepartment").exec();
+
+        // 目标模型和关联字段相同的两个填充字段只查询一次
+        assertEquals(1, counter.count("d_department"));
+        assertEquals("d1", ((Map<?, ?>) t1.get("fromDepartment")).get("id"));
+        assertEquals("d1", ((Map<?, ?>) t1.get("toDepartment")).get("id"));
+        assertEquals("d2", ((Map<?, ?>) t2.get("toDepartment")).get("id"));
+
+        // 各字段的填充值互不共享
+        assertEquals(t1.get("fromDepartment"), t1.get("toDepartment"));
+        assertNotSame(t1.get("fromDepartment"), t1.get("toDepartment"));
+    }
+
+    @Data
+    @Model(name = "FillTransfer")
+    public static class FillTransfer {
+        @IdField
+        private String id;
+
+        private String fromDepartmentId;
+
+        private String toDepartmentId;
+
+        @ToOne(targetModel = "Department", joinLocalFields = "fromDepartmentId")
+        private Map<String, Object> fromDepartment;
+
+        @ToOne(targetModel = "Department", joinLocalFields = "toDepartmentId")
+        private Map<String, Object> toDepartment;
+    }
+
+    /**
+     * 记录执行的查询SQL
+     */
+    @Intercepts(@Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}))
+    static class QueryCountInterceptor implements Interceptor {
+        private final List<String> sqlList = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+            sqlList.add(ms.getBoundSql(invocation.getArgs()[1]).getSql().toLowerCase());
+            return invocation.proceed();
+        }
+
+        long count(String table) {
+            synchronized (sqlList) {
+                return sqlList.stream().filter(t -> t.contains(table)).count();
+            }
+        }
+    }
+}
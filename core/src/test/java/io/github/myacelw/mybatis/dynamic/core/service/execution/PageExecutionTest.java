@@ -1,19 +1,42 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.DataBaseDialect;
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.H2DataBaseDialect;
+import io.github.myacelw.mybatis.dynamic.core.exception.crud.ConditionParameterException;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.CountStrategy;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Join;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Keyset;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.PageResult;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.SimpleCondition;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelDataLoader;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelService;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelServiceBuilder;
 import io.github.myacelw.mybatis.dynamic.core.service.command.PageCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelContext;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.QueryPlan;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
+import org.apache.ibatis.session.SqlSession;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PageExecutionTest extends BaseExecutionTest {
@@ -78,4 +101,209 @@ class PageExecutionTest extends BaseExecutionTest {
         assertTrue(result.getData().isEmpty());
         assertEquals(0, result.getTotal());
     }
-}
\ No newline at end of file
+
+    @Test
+    void exec_Keyset() {
+        DataManager<String> dataManager = getDataManager("Department");
+        List<Object> expected = dataManager.queryChain().orderItems(OrderItem.desc("companyId"), OrderItem.asc("id")).exec()
+                .stream().map(t -> t.get("id")).collect(Collectors.toList());
+
+        // 排序字段存在重复值，主键作为唯一排序补充
+        List<Object> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PageResult<Map<String, Object>> result = dataManager.pageChain().orderItems(OrderItem.desc("companyId")).keyset(cursor, 3).exec();
+            assertNull(result.getTotal());
+            result.getData().forEach(t -> ids.add(t.get("id")));
+            cursor = result.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(expected, ids);
+        assertEquals(3, pages);
+
+        // 直接指定排序字段值
+        List<Map<String, Object>> list = dataManager.pageChain().orderItems(OrderItem.desc("companyId")).keyset(Keyset.after("c2", "d2")).exec().getData();
+        assertEquals(expected.subList(expected.indexOf("d2") + 1, expected.size()), list.stream().map(t -> t.get("id")).collect(Collectors.toList()));
+
+        // 键集位置下页号不生效，不使用 OFFSET
+        QueryCommand<Map<String, Object>> queryCommand = QueryCommand.build();
+        queryCommand.setOrderItems(Collections.singletonList(OrderItem.desc("companyId")));
+        queryCommand.setKeyset(Keyset.after("c2", "d2"));
+        queryCommand.setPage(new Page(2, 2));
+        list = dataManager.execCommand(queryCommand);
+        assertEquals(expected.subList(expected.indexOf("d2") + 1, expected.indexOf("d2") + 3), list.stream().map(t -> t.get("id")).collect(Collectors.toList()));
+
+        // 排序项变化后游标不可使用
+        String firstCursor = dataManager.pageChain().orderItems(OrderItem.desc("companyId")).keyset(null, 3).exec().getNextCursor();
+        assertThrows(ConditionParameterException.class, () -> dataManager.pageChain().orderItems(OrderItem.asc("companyId")).keyset(firstCursor, 3).exec());
+    }
+
+    @Test
+    void exec_KeysetSelectFields() {
+        DataManager<String> dataManager = getDataManager("Department");
+        List<Object> expected = dataManager.queryChain().orderItems(OrderItem.desc("companyId"), OrderItem.asc("id")).exec()
+                .stream().map(t -> t.get("id")).collect(Collectors.toList());
+
+        // 查询字段不包含排序字段时自动加入
+        List<Object> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            PageResult<Map<String, Object>> result = dataManager.pageChain().select("name").orderItems(OrderItem.desc("companyId")).keyset(cursor, 3).exec();
+            result.getData().forEach(t -> ids.add(t.get("id")));
+            cursor = result.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, ids);
+
+        // 可为空的排序字段不能用于键集分页
+        ConditionParameterException e = assertThrows(ConditionParameterException.class, () -> dataManager.pageChain().orderItems(OrderItem.asc("parentId")).keyset(null, 3).exec());
+        assertTrue(e.getMessage().contains("'parentId'"));
+    }
+
+    @Test
+    void exec_HasNext() {
+        DataManager<String> dataManager = getDataManager("User");
+
+        PageResult<Map<String, Object>> result = dataManager.pageChain().asc("id").page(1, 1).countStrategy(CountStrategy.HAS_NEXT).exec();
+        assertEquals(1, result.getData().size());
+        assertNull(result.getTotal());
+        assertTrue(result.getHasNext());
+
+        result = dataManager.pageChain().asc("id").page(2, 1).countStrategy(CountStrategy.HAS_NEXT).exec();
+        assertEquals("u2", result.getData().get(0).get("id"));
+        assertFalse(result.getHasNext());
+    }
+
+    @Test
+    void exec_CountStrategy() {
+        DataManager<String> dataManager = getDataManager("User");
+
+        PageResult<Map<String, Object>> result = dataManager.pageChain().asc("id").page(1, 1).cachedCount(60).exec();
+        assertEquals(2, result.getTotal());
+        assertTrue(result.getHasNext());
+
+        Map<String, Object> user = new HashMap<>();
+        user.put("id", "u3");
+        user.put("name", "王五");
+        dataManager.insert(user);
+
+        // 缓存期内返回缓存的总记录数
+        assertEquals(2, dataManager.pageChain().asc("id").page(1, 1).cachedCount(60).exec().getTotal());
+        assertEquals(3, dataManager.pageChain().asc("id").page(1, 1).exec().getTotal());
+
+        // H2 不支持估算，退化为精确统计
+        assertEquals(3, dataManager.pageChain().asc("id").page(1, 1).countStrategy(CountStrategy.ESTIMATE).exec().getTotal());
+
+        result = dataManager.pageChain().asc("id").page(1, 2).concurrentCount().exec();
+        assertEquals(3, result.getTotal());
+        assertEquals(2, result.getData().size());
+        assertTrue(result.getHasNext());
+    }
+
+    @Test
+    void exec_CachedCountKey() {
+        DataManager<String> dataManager = getDataManager("User");
+        ModelContext modelContext = dataManager.getModelContext();
+
+        // 条件文本相同但参数值不同，缓存键不同
+        QueryCommand<Map<String, Object>> command1 = QueryCommand.build();
+        command1.setCondition(SimpleCondition.in("id", Arrays.asList("u1", "u2")));
+        QueryCommand<Map<String, Object>> command2 = QueryCommand.build();
+        command2.setCondition(SimpleCondition.in("id", Collections.singletonList("u1, u2")));
+        assertEquals(command1.getCondition().toString(), command2.getCondition().toString());
+        assertNotEquals(QueryExecution.createCountCacheKey(command1, modelContext), QueryExecution.createCountCacheKey(command2, modelContext));
+
+        QueryCommand<Map<String, Object>> command3 = QueryCommand.build();
+        command3.setCondition(SimpleCondition.in("id", Arrays.asList("u1", "u2")));
+        assertEquals(QueryExecution.createCountCacheKey(command1, modelContext), QueryExecution.createCountCacheKey(command3, modelContext));
+    }
+
+    @Test
+    void exec_EstimateAndConcurrentCount() {
+        // 以查询结果行数的10倍作为估算值，验证执行计划SQL带参数执行并读取估算行数
+        DataBaseDialect dialect = new H2DataBaseDialect() {
+            @Override
+            public String getExplainSql(String sql) {
+                return "SELECT COUNT(*) * 10 AS estimated FROM (" + sql + ") t";
+            }
+
+            @Override
+            public Long getEstimatedRows(List<Map<String, Object>> explainResult) {
+                return ((Number) explainResult.get(0).values().iterator().next()).longValue();
+            }
+        };
+        AtomicInteger submitted = new AtomicInteger();
+        ModelService estimateModelService = new ModelServiceBuilder(sqlSessionFactory).tablePrefix("d_").dialect(dialect)
+                .executor(task -> {
+                    submitted.incrementAndGet();
+                    task.run();
+                }).build();
+        ModelDataLoader loader = new ModelDataLoader(estimateModelService);
+        loader.setIdType(String.class);
+        loader.updateAndRegister("classpath:models.json");
+        DataManager<String> dataManager = estimateModelService.getDataManager("User", null);
+
+        PageResult<Map<String, Object>> result = dataManager.pageChain().where(SimpleCondition.in("id", Arrays.asList("u1", "u2"))).asc("id").page(1, 1).countStrategy(CountStrategy.ESTIMATE).exec();
+        assertEquals(20, result.getTotal());
+        assertNull(result.getHasNext());
+
+        result = dataManager.pageChain().where(SimpleCondition.eq("id", "u2")).asc("id").page(1, 1).countStrategy(CountStrategy.ESTIMATE).exec();
+        assertEquals(10, result.getTotal());
+
+        // 第一页未满时由数据推算总记录数，不提交统计任务
+        result = dataManager.pageChain().asc("id").page(1, 5).concurrentCount().exec();
+        assertEquals(2, result.getTotal());
+        assertEquals(0, submitted.get());
+
+        result = dataManager.pageChain().asc("id").page(2, 1).concurrentCount().exec();
+        assertEquals(2, result.getTotal());
+        assertEquals("u2", result.getData().get(0).get("id"));
+        assertEquals(1, submitted.get());
+
+        // 处于调用方事务中时在当前会话中统计，可见未提交的数据
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Map<String, Object> user = new HashMap<>();
+            user.put("id", "u3");
+            user.put("name", "u3");
+            modelService.createDataManager(dataManager.getModelContext().getModel(), null, sqlSession).insertDisableGenerateId(user);
+            DataManager<String> sessionDataManager = estimateModelService.createDataManager(dataManager.getModelContext().getModel(), null, sqlSession);
+            result = sessionDataManager.pageChain().asc("id").page(2, 1).concurrentCount().exec();
+            assertEquals(3, result.getTotal());
+            assertEquals(1, submitted.get());
+            sqlSession.rollback();
+        }
+    }
+
+    @Test
+    void exec_WindowCount() {
+        DataManager<String> dataManager = getDataManager("User");
+
+        PageResult<Map<String, Object>> result = dataManager.pageChain().asc("id").page(1, 1).countStrategy(CountStrategy.WINDOW).exec();
+        assertEquals(1, result.getData().size());
+        assertEquals("u1", result.getData().get(0).get("id"));
+        assertEquals(2, result.getTotal());
+        assertTrue(result.getHasNext());
+
+        // 与普通查询相同经过查询计划缓存
+        LruCache<QueryPlan.Key, QueryPlan> planCache = dataManager.getModelContext().getQueryPlanCache();
+        long hitCount = planCache.getHitCount();
+        result = dataManager.pageChain().asc("id").page(1, 1).countStrategy(CountStrategy.WINDOW).exec();
+        assertEquals("u1", result.getData().get(0).get("id"));
+        assertEquals(2, result.getTotal());
+        assertEquals(hitCount + 1, planCache.getHitCount());
+
+        // 页号超出范围
+        result = dataManager.pageChain().asc("id").page(5, 1).countStrategy(CountStrategy.WINDOW).exec();
+        assertTrue(result.getData().isEmpty());
+        assertEquals(2, result.getTotal());
+        assertFalse(result.getHasNext());
+
+        // 关联查询数据与普通查询一致，总记录数为关联后的行数
+        for (Join join : new Join[]{Join.of("department"), Join.of("userRoles")}) {
+            List<Map<String, Object>> expected = dataManager.queryChain().asc("id").joins(join).page(1, 10).exec();
+            result = dataManager.pageChain().asc("id").joins(join).page(1, 10).countStrategy(CountStrategy.WINDOW).exec();
+            assertEquals(expected, result.getData());
+            assertEquals(dataManager.countChain().joins(join).exec(), result.getTotal());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Join;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.SimpleCondition;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
 import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCursorCommand;
@@ -8,6 +10,8 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -92,4 +96,30 @@ class QueryCursorExecutionTest extends BaseExecutionTest {
             assertTrue(addresses.get(0) instanceof Map);
         }
     }
+
+    @Test
+    void exec_QueryCursorGroupedCollection() throws Exception {
+        DataManager<String> dataManager = getDataManager("User");
+        QueryCursorExecution<String, Map<String, Object>> execution = new QueryCursorExecution<>();
+
+        Map<String, Object> address = new HashMap<>();
+        address.put("userId", "u1");
+        address.put("address", Collections.singletonMap("city", "A"));
+        getDataManager("UserAddress").insert(address);
+
+        // 按子表字段排序时各用户的地址行交错，自动以主键作为首个排序项
+        QueryCursorCommand<Map<String, Object>> command = new QueryCursorCommand<>();
+        command.setJoins(Collections.singletonList(Join.of("userAddressList")));
+        command.setOrderItems(Collections.singletonList(OrderItem.asc("userAddressList.address.city")));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        try (Cursor<Map<String, Object>> cursor = execution.exec(command, dataManager)) {
+            for (Map<String, Object> row : cursor) {
+                // 交付时同一用户的地址已全部读取
+                assertEquals("u1".equals(row.get("id")) ? 3 : 2, ((List<?>) row.get("userAddressList")).size());
+                results.add(row);
+            }
+        }
+        assertEquals(Arrays.asList("u1", "u2"), Arrays.asList(results.get(0).get("id"), results.get(1).get("id")));
+    }
 }
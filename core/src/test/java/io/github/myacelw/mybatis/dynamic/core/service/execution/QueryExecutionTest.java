@@ -1,16 +1,33 @@
 package io.github.myacelw.mybatis.dynamic.core.service.execution;
 
+import io.github.myacelw.mybatis.dynamic.core.annotation.IdField;
+import io.github.myacelw.mybatis.dynamic.core.annotation.Model;
+import io.github.myacelw.mybatis.dynamic.core.database.dialect.H2DataBaseDialect;
+import io.github.myacelw.mybatis.dynamic.core.database.impl.MybatisHelperImpl;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Join;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.OrderItem;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.Page;
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.GroupCondition;
 import io.github.myacelw.mybatis.dynamic.core.metadata.query.condition.SimpleCondition;
 import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelDataLoader;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelServiceBuilder;
 import io.github.myacelw.mybatis.dynamic.core.service.command.QueryCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.FlatParameters;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelServiceImpl;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.QueryNode;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.QueryPlan;
+import io.github.myacelw.mybatis.dynamic.core.util.LruCache;
+import lombok.Data;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -121,4 +138,245 @@ class QueryExecutionTest extends BaseExecutionTest {
             assertEquals("u1", results.get(1).get("id"));
         }
     }
+
+    @Test
+    void exec_QueryPlanCacheReused() {
+        DataManager<String> dataManager = getDataManager("User");
+        QueryExecution<String, Map<String, Object>> execution = new QueryExecution<>();
+        LruCache<QueryPlan.Key, QueryPlan> planCache = ((ModelServiceImpl) modelService).getQueryPlanCache();
+        planCache.clear();
+        long hitCount = planCache.getHitCount();
+
+        for (String departmentId : Arrays.asList("d1", "d2")) {
+            QueryCommand<Map<String, Object>> command = new QueryCommand<>();
+            command.setCondition(SimpleCondition.eq("departmentId", departmentId));
+            List<Map<String, Object>> results = execution.exec(command, dataManager);
+            assertFalse(results.isEmpty());
+            results.forEach(user -> assertEquals(departmentId, user.get("departmentId")));
+        }
+        // 结构相同的查询复用同一计划，仅重新绑定参数
+        assertEquals(1, planCache.size());
+        assertEquals(hitCount + 1, planCache.getHitCount());
+
+        // H2 以数组参数绑定 IN 条件，值个数不影响结构
+        QueryCommand<Map<String, Object>> command = new QueryCommand<>();
+        command.setCondition(SimpleCondition.in("id", Arrays.asList("u1", "u2")));
+        assertEquals(2, execution.exec(command, dataManager).size());
+        command.setCondition(SimpleCondition.in("id", Collections.singletonList("u2")));
+        List<Map<String, Object>> results = execution.exec(command, dataManager);
+        assertEquals(1, results.size());
+        assertEquals("u2", results.get(0).get("id"));
+        assertEquals(2, planCache.size());
+    }
+
+    @Test
+    void exec_FlatParameterBinding() {
+        ModelServiceImpl flatModelService = new ModelServiceBuilder(sqlSessionFactory).tablePrefix("d_").flatParameterBinding(true).build();
+        ModelDataLoader loader = new ModelDataLoader(flatModelService);
+        loader.setIdType(String.class);
+        loader.updateAndRegister("classpath:models.json");
+        DataManager<String> dataManager = flatModelService.getDataManager("User", sqlSession);
+        QueryExecution<String, Map<String, Object>> execution = new QueryExecution<>();
+
+        // 条件值收集到扁平参数列表，SQL中按下标引用
+        Map<String, Object> context = new HashMap<>();
+        QueryNode root = QueryNode.build(dataManager.getModelContext());
+        String sql = GroupCondition.or(SimpleCondition.eq("name", "张三"), SimpleCondition.in("id", Arrays.asList("u2", "u3")))
+                .sql("c1", root.getFieldToSqlConverter(true, context), dataManager.getModelContext().getDialect());
+        assertTrue(sql.contains("#{_p[0]}") && sql.contains("ANY(#{_p[1],"), sql);
+        assertEquals(Arrays.asList("张三", Arrays.asList("u2", "u3")), context.get(FlatParameters.CONTEXT_KEY));
+
+        for (String id : Arrays.asList("u1", "u2")) {
+            QueryCommand<Map<String, Object>> command = new QueryCommand<>();
+            command.setCondition(GroupCondition.or(SimpleCondition.eq("id", id), SimpleCondition.in("id", Arrays.asList(id, "none"))));
+            List<Map<String, Object>> results = execution.exec(command, dataManager);
+            assertEquals(1, results.size());
+            assertEquals(id, results.get(0).get("id"));
+        }
+        // 查询计划命中后按取值路径重新收集扁平参数
+        assertEquals(1, flatModelService.getQueryPlanCache().getHitCount());
+    }
+
+    @Test
+    void exec_InListBucketing() {
+        // 关闭数组参数绑定，使用逐个占位符的 IN 条件
+        H2DataBaseDialect dialect = new H2DataBaseDialect() {
+            @Override
+            public boolean supportArrayParameter() {
+                return false;
+            }
+        };
+        ModelServiceImpl bucketModelService = new ModelServiceBuilder(sqlSessionFactory).dialect(dialect).tablePrefix("d_").inListBucketing(true).build();
+        ModelDataLoader loader = new ModelDataLoader(bucketModelService);
+        loader.setIdType(String.class);
+        loader.updateAndRegister("classpath:models.json");
+        DataManager<String> dataManager = bucketModelService.getDataManager("User", sqlSession);
+        QueryExecution<String, Map<String, Object>> execution = new QueryExecution<>();
+        MybatisHelperImpl mybatisHelper = (MybatisHelperImpl) dataManager.getModelContext().getMybatisHelper();
+
+        QueryCommand<Map<String, Object>> command = new QueryCommand<>();
+        command.setCondition(SimpleCondition.in("id", Arrays.asList("u1", "u2", "none")));
+        assertEquals(2, execution.exec(command, dataManager).size());
+        int sqlSourceCount = mybatisHelper.getSqlSourceCache().size();
+        LruCache<QueryPlan.Key, QueryPlan> planCache = bucketModelService.getQueryPlanCache();
+        long hitCount = planCache.getHitCount();
+
+        // 长度3和4的IN列表落在同一分桶，生成相同SQL，复用同一查询计划
+        command.setCondition(SimpleCondition.in("id", Arrays.asList("u1", "u2", "none1", "none2")));
+        assertEquals(2, execution.exec(command, dataManager).size());
+        command.setCondition(SimpleCondition.in("id", Arrays.asList("u2", "none1", "none2")));
+        assertEquals(Collections.singletonList("u2"), execution.exec(command, dataManager).stream().map(u -> u.get("id")).collect(Collectors.toList()));
+        assertEquals(hitCount + 2, planCache.getHitCount());
+        command.setCondition(SimpleCondition.notIn("id", Arrays.asList("u1", "none", "none")));
+        assertTrue(execution.exec(command, dataManager).stream().noneMatch(u -> "u1".equals(u.get("id"))));
+        assertEquals(sqlSourceCount + 1, mybatisHelper.getSqlSourceCache().size());
+    }
+
+    @Test
+    void exec_LargeInList() {
+        H2DataBaseDialect dialect = new H2DataBaseDialect() {
+            @Override
+            public boolean supportArrayParameter() {
+                return false;
+            }
+        };
+        ModelServiceImpl largeInListModelService = new ModelServiceBuilder(sqlSessionFactory).dialect(dialect).tablePrefix("d_").largeInListThreshold(2).build();
+        ModelDataLoader loader = new ModelDataLoader(largeInListModelService);
+        loader.setIdType(String.class);
+        loader.updateAndRegister("classpath:models.json");
+        DataManager<String> dataManager = largeInListModelService.getDataManager("User", sqlSession);
+        QueryExecution<String, Map<String, Object>> execution = new QueryExecution<>();
+
+        // 超过阈值的IN列表改写为 VALUES 派生表
+        QueryCommand<Map<String, Object>> command = new QueryCommand<>();
+        command.setCondition(SimpleCondition.in("id", Arrays.asList("u1", "u2", "none")));
+        assertEquals(2, execution.exec(command, dataManager).size());
+
+        command.setCondition(SimpleCondition.notIn("id", Arrays.asList("u1", "none", "none2")));
+        assertTrue(execution.exec(command, dataManager).stream().noneMatch(u -> "u1".equals(u.get("id"))));
+
+        command.setCondition(SimpleCondition.eqOrIn("id", Arrays.asList("u2", "none", "none2")));
+        List<Map<String, Object>> results = execution.exec(command, dataManager);
+        assertEquals(1, results.size());
+        assertEquals("u2", results.get(0).get("id"));
+    }
+
+    @Test
+    void exec_InlinedInListNotCached() {
+        H2DataBaseDialect dialect = new H2DataBaseDialect() {
+            @Override
+            public boolean supportArrayParameter() {
+                return false;
+            }
+
+            @Override
+            public int getMaxParameterCount() {
+                return 4;
+            }
+        };
+        ModelServiceImpl inlineModelService = new ModelServiceBuilder(sqlSessionFactory).dialect(dialect).tablePrefix("d_").build();
+        inlineModelService.updateAndRegister(InListItem.class);
+        DataManager<Integer> dataManager = inlineModelService.getDataManager(InListItem.class, null);
+        for (int i = 1; i <= 6; i++) {
+            InListItem item = new InListItem();
+            item.setId(i);
+            item.setName("item" + i);
+            dataManager.insertDisableGenerateId(item);
+        }
+        QueryExecution<Integer, Map<String, Object>> execution = new QueryExecution<>();
+        LruCache<QueryPlan.Key, QueryPlan> planCache = inlineModelService.getQueryPlanCache();
+        planCache.clear();
+
+        // 超过参数上限一半的整数列表以字面量写入SQL，长度相同值不同的查询不能复用查询计划
+        for (List<Integer> ids : Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6))) {
+            QueryCommand<Map<String, Object>> command = new QueryCommand<>();
+            command.setCondition(SimpleCondition.in("id", ids));
+            List<Object> results = execution.exec(command, dataManager).stream().map(t -> t.get("id")).sorted().collect(Collectors.toList());
+            assertEquals(ids, results);
+        }
+        assertEquals(0, planCache.size());
+    }
+
+    @Data
+    @Model(name = "InListItem")
+    public static class InListItem {
+        @IdField
+        private Integer id;
+
+        private String name;
+    }
+
+    @Test
+    void exec_ArrayParameterIn() {
+        DataManager<String> dataManager = getDataManager("User");
+        QueryExecution<String, Map<String, Object>> execution = new QueryExecution<>();
+        MybatisHelperImpl mybatisHelper = (MybatisHelperImpl) dataManager.getModelContext().getMybatisHelper();
+
+        QueryCommand<Map<String, Object>> command = new QueryCommand<>();
+        command.setCondition(SimpleCondition.in("id", Arrays.asList("u1", "u2")));
+        assertEquals(2, execution.exec(command, dataManager).size());
+        int sqlSourceCount = mybatisHelper.getSqlSourceCache().size();
+
+        // 数组参数绑定，不同长度的 IN 列表使用相同SQL
+        command.setCondition(SimpleCondition.in("id", Arrays.asList("u1", "u2", "none")));
+        assertEquals(2, execution.exec(command, dataManager).size());
+        assertEquals(sqlSourceCount, mybatisHelper.getSqlSourceCache().size());
+
+        command.setCondition(SimpleCondition.notIn("id", Arrays.asList("u1", "none")));
+        assertTrue(execution.exec(command, dataManager).stream().noneMatch(u -> "u1".equals(u.get("id"))));
+
+        command.setCondition(SimpleCondition.eqOrIn("id", Arrays.asList("u2", "none")));
+        List<Map<String, Object>> results = execution.exec(command, dataManager);
+        assertEquals(1, results.size());
+        assertEquals("u2", results.get(0).get("id"));
+    }
+
+    @Test
+    void exec_SplitQueryForToManyJoins() {
+        DataManager<String> dataManager = getDataManager("User");
+        List<Join> joins = Arrays.asList(Join.of("userRoles"), Join.of("userRoles.role"), Join.of("userAddressList"), Join.of("department"));
+
+        List<Map<String, Object>> joined = dataManager.queryChain().joins(joins).orderItems(OrderItem.asc("id")).splitQuery(false).exec();
+        // 多个一对多关联时自动拆分
+        List<Map<String, Object>> split = dataManager.queryChain().joins(joins).orderItems(OrderItem.asc("id")).exec();
+
+        assertEquals(2, split.size());
+        assertEquals(joined.size(), split.size());
+        for (int i = 0; i < split.size(); i++) {
+            Map<String, Object> expected = joined.get(i);
+            Map<String, Object> actual = split.get(i);
+            assertEquals(expected.get("id"), actual.get("id"));
+            assertEquals(expected.get("department"), actual.get("department"));
+            assertEquals(sortById((List<Map<String, Object>>) expected.get("userAddressList")), sortById((List<Map<String, Object>>) actual.get("userAddressList")));
+            assertEquals(((List<?>) expected.get("userRoles")).size(), ((List<?>) actual.get("userRoles")).size());
+            assertNotNull(((List<Map<String, Object>>) actual.get("userRoles")).get(0).get("role"));
+        }
+        assertEquals(2, ((List<?>) split.get(0).get("userRoles")).size());
+        assertEquals(1, ((List<?>) split.get(1).get("userRoles")).size());
+    }
+
+    @Test
+    void exec_SplitQueryWithSelectFieldsAndJoinCondition() {
+        DataManager<String> dataManager = getDataManager("Department");
+
+        List<Map<String, Object>> list = dataManager.queryChain()
+                .joins(Join.of("users"), Join.of("children").on(c -> c.eq("name", "non-existent")))
+                .select("name", "users.name", "children")
+                .orderItems(OrderItem.asc("id"))
+                .splitQuery()
+                .exec();
+
+        Map<String, Object> d1 = list.get(0);
+        assertEquals("d1", d1.get("id"));
+        List<Map<String, Object>> users = (List<Map<String, Object>>) d1.get("users");
+        assertEquals(1, users.size());
+        assertEquals("张三", users.get(0).get("name"));
+        assertTrue(((List<?>) d1.get("children")).isEmpty());
+        // 没有关联数据的部门设置为空列表
+        assertTrue(((List<?>) list.get(list.size() - 1).get("users")).isEmpty());
+    }
+
+    private static List<Map<String, Object>> sortById(List<Map<String, Object>> list) {
+        return list.stream().sorted(Comparator.comparing(t -> (String) t.get("id"))).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,49 @@
+package io.github.myacelw.mybatis.dynamic.core.service.execution;
+
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamInsertExecutionTest extends BaseExecutionTest {
+
+    @Test
+    void exec_StreamInsert() {
+        DataManager<String> dataManager = getDataManager("Role");
+        int before = dataManager.count();
+
+        AtomicInteger produced = new AtomicInteger();
+        List<Integer> producedAtCallback = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+
+        long count = dataManager.streamInsertChain()
+                .data(IntStream.range(0, 25).mapToObj(i -> {
+                    produced.incrementAndGet();
+                    Map<String, Object> r = new HashMap<>();
+                    r.put("name", "Stream Role " + i);
+                    return r;
+                }))
+                .batchSize(10)
+                .idConsumer(batchIds -> {
+                    producedAtCallback.add(produced.get());
+                    ids.addAll(batchIds);
+                })
+                .exec();
+
+        assertEquals(25, count);
+        // 数据按批读取，每批插入时只读取了该批数据
+        assertEquals(Arrays.asList(10, 20, 25), producedAtCallback);
+        assertEquals(25, ids.size());
+        assertEquals(before + 25, dataManager.count());
+        assertEquals("Stream Role 0", dataManager.getById(ids.get(0)).get("name"));
+        assertEquals("Stream Role 24", dataManager.getById(ids.get(24)).get("name"));
+    }
+}
@@ -6,9 +6,14 @@ import io.github.myacelw.mybatis.dynamic.core.service.command.CountCommand;
 import io.github.myacelw.mybatis.dynamic.core.service.execution.Execution;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.apache.ibatis.session.SqlSession;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -72,6 +77,33 @@ class DataManagerImplTest {
         assertTrue(exception.getMessage().contains("No execution found for command type"));
     }
 
+    @Test
+    void execCommandAsync_NoExecutor_RunsInCallerThread() {
+        CompletableFuture<Object> future = dataManager.execCommandAsync(new Command() {});
+
+        assertTrue(future.isCompletedExceptionally());
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertTrue(exception.getCause().getMessage().contains("No execution found for command type"));
+    }
+
+    @Test
+    void execCommandAsync_WithSession_UsesTaskSession() {
+        List<Runnable> tasks = new ArrayList<>();
+        ModelContext taskContext = mock(ModelContext.class);
+        when(modelContext.getExecutor()).thenReturn(tasks::add);
+        when(modelContext.getSqlSession()).thenReturn(mock(SqlSession.class));
+        when(modelContext.createNew(any(), isNull())).thenReturn(taskContext);
+
+        CompletableFuture<Object> future = dataManager.execCommandAsync(new Command() {});
+
+        // 任务提交到执行器，不使用调用方会话
+        assertFalse(future.isDone());
+        assertEquals(1, tasks.size());
+        verify(modelContext).createNew(any(), isNull());
+        tasks.get(0).run();
+        assertTrue(future.isCompletedExceptionally());
+    }
+
     @Test
     void getModelContext_ReturnsCorrectContext() {
         assertEquals(modelContext, dataManager.getModelContext());
@@ -0,0 +1,119 @@
+package io.github.myacelw.mybatis.dynamic.core.service.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelDataLoader;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelServiceBuilder;
+import io.github.myacelw.mybatis.dynamic.core.service.execution.BaseExecutionTest;
+import io.github.myacelw.mybatis.dynamic.core.util.DataUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityCacheTest extends BaseExecutionTest {
+
+    private ModelServiceImpl cachedModelService;
+
+    private DataManager<String> dataManager;
+
+    private EntityCache entityCache;
+
+    @BeforeEach
+    void setUpCache() {
+        cachedModelService = (ModelServiceImpl) new ModelServiceBuilder(sqlSessionFactory)
+                .fillers(new ArrayList<>(((ModelServiceImpl) modelService).fillers.values())).tablePrefix("d_").entityCache("User", 100, 60).build();
+        ModelDataLoader loader = new ModelDataLoader(cachedModelService);
+        loader.setIdType(String.class);
+        loader.updateAndRegister("classpath:models.json");
+        dataManager = cachedModelService.getDataManager("User", null);
+        entityCache = cachedModelService.getEntityCache("User");
+    }
+
+    @Test
+    void getById_HitAndIsolation() {
+        assertNotNull(entityCache);
+        assertNull(cachedModelService.getEntityCache("Department"));
+
+        Map<String, Object> first = dataManager.getById("u1");
+        assertEquals("张三", first.get("name"));
+        assertEquals(1, entityCache.getMissCount());
+
+        first.put("name", "changed");
+        Map<String, Object> second = dataManager.getById("u1");
+        assertEquals("张三", second.get("name"));
+        assertEquals(1, entityCache.getHitCount());
+        assertNotSame(first, second);
+
+        // 不存在的数据不缓存
+        assertNull(dataManager.getByIdChain().id("non-existent").nullNotThrowException().exec());
+        assertEquals(1, entityCache.size());
+
+        // 带关联或指定字段的查询不使用缓存
+        dataManager.getByIdChain().id("u1").selectFields("name").exec();
+        assertEquals(1, entityCache.getHitCount());
+    }
+
+    @Test
+    void getById_InvalidateOnUpdate() {
+        dataManager.getById("u1");
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "王五");
+        dataManager.update("u1", data);
+        assertEquals(0, entityCache.size());
+        assertEquals("王五", dataManager.getById("u1").get("name"));
+
+        dataManager.updateByCondition(c -> c.eq("id", "u1"), Collections.singletonMap("name", "赵六"), true);
+        assertEquals("赵六", dataManager.getById("u1").get("name"));
+
+        dataManager.delete("u1");
+        assertNull(dataManager.getByIdChain().id("u1").nullNotThrowException().exec());
+    }
+
+    @Test
+    void getById_InvalidateOnOtherSessionWrite() {
+        dataManager.getById("u1");
+
+        // 其他数据管理器的写操作同样失效缓存，且在调用方事务内写入后暂停放入缓存
+        DataManager<String> sessionDataManager = cachedModelService.createDataManager(dataManager.getModel(), null, sqlSession);
+        sessionDataManager.update("u1", Collections.singletonMap("name", "王五"));
+        sqlSession.commit();
+
+        assertEquals("王五", dataManager.getById("u1").get("name"));
+        assertEquals(0, entityCache.size());
+    }
+
+    @Test
+    void getByIds_PartialHit() {
+        dataManager.getById("u2");
+        long hitCount = entityCache.getHitCount();
+
+        List<Map<String, Object>> list = dataManager.getByIds(Arrays.asList("u1", "non-existent", "u2", "u1"));
+        assertEquals(2, list.size());
+        assertEquals("u1", list.get(0).get("id"));
+        assertEquals("u2", list.get(1).get("id"));
+        assertEquals(hitCount + 1, entityCache.getHitCount());
+        assertEquals(2, entityCache.size());
+
+        dataManager.getByIds(Arrays.asList("u1", "u2"));
+        assertEquals(hitCount + 3, entityCache.getHitCount());
+    }
+
+    @Test
+    void deepCopy() {
+        List<String> list = Arrays.asList("a", "b");
+        Map<String, Object> map = new HashMap<>();
+        map.put("list", list);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> copied = (Map<String, Object>) DataUtil.deepCopy(map);
+        assertEquals(map, copied);
+        assertNotSame(list, copied.get("list"));
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.myacelw.mybatis.dynamic.core.service.impl;
+
+import io.github.myacelw.mybatis.dynamic.core.metadata.query.Join;
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelDataLoader;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelServiceBuilder;
+import io.github.myacelw.mybatis.dynamic.core.service.TransactionSupport;
+import io.github.myacelw.mybatis.dynamic.core.service.execution.BaseExecutionTest;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest extends BaseExecutionTest {
+
+    private ModelServiceImpl cachedModelService;
+
+    private QueryResultCache resultCache;
+
+    @BeforeEach
+    void setUpCache() {
+        setUpCache(null);
+    }
+
+    private void setUpCache(TransactionSupport transactionSupport) {
+        cachedModelService = (ModelServiceImpl) new ModelServiceBuilder(sqlSessionFactory)
+                .fillers(new ArrayList<>(((ModelServiceImpl) modelService).fillers.values())).tablePrefix("d_")
+                .resultCacheSize(100).transactionSupport(transactionSupport).build();
+        ModelDataLoader loader = new ModelDataLoader(cachedModelService);
+        loader.setIdType(String.class);
+        loader.updateAndRegister("classpath:models.json");
+        resultCache = cachedModelService.getResultCache();
+    }
+
+    private DataManager<String> getCachedDataManager(String modelName) {
+        return cachedModelService.getDataManager(modelName, null);
+    }
+
+    @Test
+    void query_HitAndIsolation() {
+        DataManager<String> dataManager = getCachedDataManager("User");
+
+        List<Map<String, Object>> first = dataManager.queryChain().where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertEquals(1, first.size());
+        assertEquals(0, resultCache.getHitCount());
+
+        first.get(0).put("name", "changed");
+        List<Map<String, Object>> second = dataManager.queryChain().where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertEquals(1, resultCache.getHitCount());
+        assertEquals("张三", second.get(0).get("name"));
+
+        // 参数值不同时不命中
+        List<Map<String, Object>> other = dataManager.queryChain().where(c -> c.eq("id", "u2")).cacheResult().exec();
+        assertEquals("李四", other.get(0).get("name"));
+        assertEquals(1, resultCache.getHitCount());
+
+        // 未开启缓存的查询不使用缓存
+        long missCount = resultCache.getMissCount();
+        dataManager.queryChain().where(c -> c.eq("id", "u1")).exec();
+        assertEquals(missCount, resultCache.getMissCount());
+        assertEquals(0.5, resultCache.getHitRate(), 0.2);
+    }
+
+    @Test
+    void count_InvalidateOnWrite() {
+        DataManager<String> dataManager = getCachedDataManager("User");
+
+        assertEquals(2, dataManager.countChain().cacheResult().exec());
+        assertEquals(2, dataManager.countChain().cacheResult().exec());
+        assertEquals(1, resultCache.getHitCount());
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", "u3");
+        data.put("name", "王五");
+        dataManager.insert(data);
+
+        assertEquals(3, dataManager.countChain().cacheResult().exec());
+        assertEquals(1, resultCache.getHitCount());
+    }
+
+    @Test
+    void query_InvalidateOnJoinedModelWrite() {
+        DataManager<String> userDataManager = getCachedDataManager("User");
+        DataManager<String> departmentDataManager = getCachedDataManager("Department");
+
+        List<Map<String, Object>> list = userDataManager.queryChain().joins(Join.of("department")).where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertNotNull(list.get(0).get("department"));
+        userDataManager.queryChain().joins(Join.of("department")).where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertEquals(1, resultCache.getHitCount());
+
+        departmentDataManager.update("d1", Collections.singletonMap("name", "新部门"));
+
+        list = userDataManager.queryChain().joins(Join.of("department")).where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertEquals(1, resultCache.getHitCount());
+        assertEquals("新部门", ((Map<?, ?>) list.get(0).get("department")).get("name"));
+    }
+
+    @Test
+    void query_NotPopulatedInCallerSession() {
+        DataManager<String> sessionDataManager = cachedModelService.createDataManager(getCachedDataManager("User").getModel(), null, sqlSession);
+
+        sessionDataManager.queryChain().cacheResult().exec();
+        sessionDataManager.queryChain().cacheResult().exec();
+        assertEquals(0, resultCache.getHitCount());
+        assertEquals(0, resultCache.size());
+    }
+
+    @Test
+    void query_TransactionSupport() {
+        List<Runnable> completions = new ArrayList<>();
+        boolean[] inTransaction = {false};
+        setUpCache(new TransactionSupport() {
+            @Override
+            public boolean isTransactional(SqlSession sqlSession) {
+                return inTransaction[0];
+            }
+
+            @Override
+            public boolean afterCompletion(SqlSession sqlSession, Runnable action) {
+                return completions.add(action);
+            }
+        });
+        DataManager<String> sessionDataManager = cachedModelService.createDataManager(getCachedDataManager("User").getModel(), null, sqlSession);
+
+        // 不在事务中的会话可放入并命中缓存
+        sessionDataManager.queryChain().where(c -> c.eq("id", "u1")).cacheResult().exec();
+        sessionDataManager.queryChain().where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertEquals(1, resultCache.getHitCount());
+
+        // 事务内写入后立即失效，事务内查询不使用缓存
+        inTransaction[0] = true;
+        sessionDataManager.update("u1", Collections.singletonMap("name", "王五"));
+        assertFalse(completions.isEmpty());
+        List<Map<String, Object>> list = sessionDataManager.queryChain().where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertEquals("王五", list.get(0).get("name"));
+        assertEquals(1, resultCache.getHitCount());
+        assertEquals(1, resultCache.getPutCount());
+
+        // 事务结束后再次失效，无需暂停即可重新放入缓存
+        sqlSession.commit();
+        inTransaction[0] = false;
+        completions.forEach(Runnable::run);
+        list = sessionDataManager.queryChain().where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertEquals("王五", list.get(0).get("name"));
+        sessionDataManager.queryChain().where(c -> c.eq("id", "u1")).cacheResult().exec();
+        assertEquals(2, resultCache.getHitCount());
+    }
+
+    @Test
+    void createKey_ValueBased() {
+        String sql = "SELECT * FROM t WHERE a IN (#{p.a}) AND b = #{p.b}";
+
+        QueryResultCache.Key key1 = QueryResultCache.createKey(sql, context(new int[]{1, 2}, Arrays.asList(new String[]{"x"}, new String[]{"y"})), Map.class);
+        QueryResultCache.Key key2 = QueryResultCache.createKey(sql, context(Arrays.asList(1, 2), Arrays.asList(new String[]{"x"}, new String[]{"y"})), Map.class);
+        assertEquals(key1, key2);
+        assertEquals(key1.hashCode(), key2.hashCode());
+
+        // 嵌套数组内容不同时不相等
+        QueryResultCache.Key key3 = QueryResultCache.createKey(sql, context(new int[]{1, 2}, Arrays.asList(new String[]{"x"}, new String[]{"z"})), Map.class);
+        assertNotEquals(key1, key3);
+        QueryResultCache.Key key4 = QueryResultCache.createKey(sql, context(new Integer[]{2, 1}, Arrays.asList(new String[]{"x"}, new String[]{"y"})), Map.class);
+        assertNotEquals(key1, key4);
+        assertNotEquals(key1, QueryResultCache.createKey(sql, context(new int[]{1, 2}, Arrays.asList(new String[]{"x"}, new String[]{"y"})), List.class));
+    }
+
+    private static Map<String, Object> context(Object a, Object b) {
+        Map<String, Object> p = new HashMap<>();
+        p.put("a", a);
+        p.put("b", b);
+        return Collections.singletonMap("p", p);
+    }
+}
@@ -22,6 +22,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
@@ -47,12 +48,27 @@ public class DynamicModelAutoConfiguration {
         this.properties = properties;
     }
 
-    @Bean
+    @Bean(destroyMethod = "close")
     @ConditionalOnMissingBean(ModelService.class)
-    public ModelService modelService(SqlSessionFactory sqlSessionFactory, Optional<CurrentUserHolder> currentUserHolder, List<ColumnTypeHandler> columnTypeHandlerList, List<Filler> fillers, List<DataChangeInterceptor> interceptors) {
-        ModelService modelService = new ModelServiceBuilder(sqlSessionFactory)
+    public ModelService modelService(SqlSessionFactory sqlSessionFactory, Optional<CurrentUserHolder> currentUserHolder, List<ColumnTypeHandler> columnTypeHandlerList, List<Filler> fillers, List<DataChangeInterceptor> interceptors, Optional<TaskDecorator> taskDecorator) {
+        ModelServiceBuilder builder = new ModelServiceBuilder(sqlSessionFactory);
+        if (properties.getEntityCaches() != null) {
+            properties.getEntityCaches().forEach((modelName, config) -> builder.entityCache(modelName, config.getSize(), config.getTtlSeconds()));
+        }
+        ModelService modelService = builder
                 .rowLimit(properties.getMaxRowLimit())
                 .timeoutSeconds(properties.getTimeoutSeconds())
+                .sqlSourceCacheSize(properties.getSqlSourceCacheSize())
+                .statementCacheSize(properties.getStatementCacheSize())
+                .queryPlanCacheSize(properties.getQueryPlanCacheSize())
+                .pageCountCacheSize(properties.getPageCountCacheSize())
+                .resultCacheSize(properties.getResultCacheSize())
+                .resultCacheTtlSeconds(properties.getResultCacheTtlSeconds())
+                .resultCacheMaxRows(properties.getResultCacheMaxRows())
+                .flatParameterBinding(properties.getFlatParameterBinding())
+                .inListBucketing(properties.getInListBucketing())
+                .largeInListThreshold(properties.getLargeInListThreshold())
+                .batchJoinTransaction(properties.getBatchJoinTransaction())
                 .tablePrefix(properties.getTablePrefix())
                 .indexPrefix(properties.getIndexPrefix())
                 .seqPrefix(properties.getSeqPrefix())
@@ -63,6 +79,8 @@ public class DynamicModelAutoConfiguration {
                 .commentAnnotationFieldName(properties.getCommentAnnotationFieldName())
                 .fillers(fillers)
                 .interceptors(interceptors)
+                .taskDecorator(taskDecorator.map(t -> (AsyncTaskDecorator) t::decorate).orElse(null))
+                .transactionSupport(new SpringTransactionSupport())
                 .disableAlterComment(properties.getDisableAlterComment())
                 .dryRun(properties.getDdl().isDryRun())
                 .logPath(properties.getDdl().getLogPath())
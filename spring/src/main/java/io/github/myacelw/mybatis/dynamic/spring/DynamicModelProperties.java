@@ -5,6 +5,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.lang.annotation.Annotation;
 import java.util.List;
+import java.util.Map;
 
 /**
  * mybatis-dynamic 配置属性
@@ -45,6 +46,66 @@ public class DynamicModelProperties {
      */
     private Integer timeoutSeconds;
 
+    /**
+     * 编译后SQL缓存条目数，默认 2048
+     */
+    private Integer sqlSourceCacheSize;
+
+    /**
+     * 动态 MappedStatement 及 ResultMap 注册条目数，默认 4096
+     */
+    private Integer statementCacheSize;
+
+    /**
+     * 查询计划缓存条目数，默认 1024，小于等于0时不缓存
+     */
+    private Integer queryPlanCacheSize;
+
+    /**
+     * 分页总记录数缓存条目数，默认 1024，小于等于0时不缓存
+     */
+    private Integer pageCountCacheSize;
+
+    /**
+     * 查询结果缓存条目数，默认不缓存
+     */
+    private Integer resultCacheSize;
+
+    /**
+     * 查询结果缓存过期秒数，默认 60
+     */
+    private Integer resultCacheTtlSeconds;
+
+    /**
+     * 查询结果缓存单个条目最大行数，默认 1000
+     */
+    private Integer resultCacheMaxRows;
+
+    /**
+     * 实体缓存配置，key为模型名，按ID查询结果缓存，写操作时失效
+     */
+    private Map<String, EntityCache> entityCaches;
+
+    /**
+     * 是否使用扁平参数绑定，条件值按下标引用，默认 false
+     */
+    private Boolean flatParameterBinding;
+
+    /**
+     * 是否开启IN列表分桶，默认 false
+     */
+    private Boolean inListBucketing;
+
+    /**
+     * 超长IN列表阈值，值个数超过该阈值时改写为 VALUES 派生表等形式，默认0不改写
+     */
+    private Integer largeInListThreshold;
+
+    /**
+     * 批量写入是否加入调用方会话的事务，默认 false
+     */
+    private Boolean batchJoinTransaction;
+
     /**
      * 注释注解类型，例如填写为 io.swagger.v3.oas.annotations.media.Schema
      */
@@ -87,4 +148,17 @@ public class DynamicModelProperties {
          */
         private String logPath = "./ddl-logs";
     }
+
+    @Data
+    public static class EntityCache {
+        /**
+         * 缓存条数
+         */
+        private int size = 1000;
+
+        /**
+         * 过期秒数
+         */
+        private int ttlSeconds = 300;
+    }
 }
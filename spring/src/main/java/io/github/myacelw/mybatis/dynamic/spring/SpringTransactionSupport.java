@@ -0,0 +1,38 @@
+package io.github.myacelw.mybatis.dynamic.spring;
+
+import io.github.myacelw.mybatis.dynamic.core.service.TransactionSupport;
+import org.apache.ibatis.session.SqlSession;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 基于Spring事务管理的事务判断支持。
+ * 存在实际事务时认为处于事务中；SqlSessionTemplate 在事务外每次调用自动提交，视为不在事务中；
+ * 其他直接指定的SqlSession提交时间未知，视为处于事务中。
+ * 事务结束后的操作通过 {@link TransactionSynchronization} 注册。
+ *
+ * @author liuwei
+ */
+public class SpringTransactionSupport implements TransactionSupport {
+
+    @Override
+    public boolean isTransactional(SqlSession sqlSession) {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                || (sqlSession != null && !(sqlSession instanceof SqlSessionTemplate));
+    }
+
+    @Override
+    public boolean afterCompletion(SqlSession sqlSession, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+        return true;
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.myacelw.mybatis.dynamic.spring;
+
+import io.github.myacelw.mybatis.dynamic.core.annotation.IdField;
+import io.github.myacelw.mybatis.dynamic.core.annotation.Model;
+import io.github.myacelw.mybatis.dynamic.core.service.DataManager;
+import io.github.myacelw.mybatis.dynamic.core.service.ModelServiceBuilder;
+import io.github.myacelw.mybatis.dynamic.core.service.command.BatchInsertCommand;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.EntityCache;
+import io.github.myacelw.mybatis.dynamic.core.service.impl.ModelServiceImpl;
+import lombok.Data;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpringTransactionSupportTest {
+
+    @Data
+    @Model(name = "TxUser")
+    public static class TxUser {
+        @IdField
+        private String id;
+        private String name;
+    }
+
+    private ModelServiceImpl modelService;
+
+    private DataManager<String> dataManager;
+
+    private EntityCache entityCache;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService executor;
+
+    private final AtomicInteger executedTasks = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:spring_tx_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+        executor = Executors.newFixedThreadPool(2);
+
+        modelService = (ModelServiceImpl) new ModelServiceBuilder(sqlSessionFactory)
+                .transactionSupport(new SpringTransactionSupport())
+                .executor(task -> {
+                    executedTasks.incrementAndGet();
+                    executor.execute(task);
+                })
+                .entityCache("TxUser", 100, 60)
+                .build();
+        modelService.updateAndRegister(TxUser.class);
+        dataManager = modelService.createDataManager(TxUser.class, null, new SqlSessionTemplate(sqlSessionFactory));
+        assertThat(dataManager.getModelContext().getSqlSession()).isInstanceOf(SqlSessionTemplate.class);
+        entityCache = modelService.getEntityCache("TxUser");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        TxUser user = new TxUser();
+        user.setId("u1");
+        user.setName("张三");
+        dataManager.insertDisableGenerateId(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        modelService.close();
+        executor.shutdown();
+    }
+
+    @Test
+    void testCacheHitWithSqlSessionTemplate() {
+        assertThat(dataManager.getById("u1").get("name")).isEqualTo("张三");
+        assertThat(dataManager.getById("u1").get("name")).isEqualTo("张三");
+        assertThat(entityCache.getHitCount()).isEqualTo(1);
+
+        // 事务外通过模板的写操作已提交，直接失效后可再次放入缓存
+        dataManager.update("u1", Collections.singletonMap("name", "李四"));
+        assertThat(entityCache.size()).isEqualTo(0);
+        assertThat(dataManager.getById("u1").get("name")).isEqualTo("李四");
+        long hitCount = entityCache.getHitCount();
+        assertThat(dataManager.getById("u1").get("name")).isEqualTo("李四");
+        assertThat(entityCache.getHitCount()).isEqualTo(hitCount + 1);
+    }
+
+    @Test
+    void testInvalidateAfterTransaction() {
+        dataManager.getById("u1");
+        long hitCount = entityCache.getHitCount();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            dataManager.update("u1", Collections.singletonMap("name", "王五"));
+            // 事务内不读写缓存，可读到未提交的数据
+            Map<String, Object> data = dataManager.getById("u1");
+            assertThat(data.get("name")).isEqualTo("王五");
+            assertThat(entityCache.size()).isEqualTo(0);
+        });
+        assertThat(entityCache.getHitCount()).isEqualTo(hitCount);
+
+        assertThat(dataManager.getById("u1").get("name")).isEqualTo("王五");
+        assertThat(dataManager.getById("u1").get("name")).isEqualTo("王五");
+        assertThat(entityCache.getHitCount()).isEqualTo(hitCount + 1);
+
+        // 回滚后同样失效，不会保留事务内的数据
+        transactionTemplate.executeWithoutResult(status -> {
+            dataManager.update("u1", Collections.singletonMap("name", "赵六"));
+            status.setRollbackOnly();
+        });
+        assertThat(entityCache.size()).isEqualTo(0);
+        assertThat(dataManager.getById("u1").get("name")).isEqualTo("王五");
+    }
+
+    @Test
+    void testParallelBatchInsertWithSqlSessionTemplate() {
+        // 事务外通过模板写入，不处于事务中，分区并行写入
+        dataManager.execCommand(createBatchInsertCommand("p"));
+        assertThat(executedTasks.get()).isEqualTo(2);
+        assertThat(dataManager.count()).isEqualTo(5);
+    }
+
+    @Test
+    void testNoParallelBatchInsertInTransaction() {
+        DataManager<String> sessionLessDataManager = modelService.getDataManager(TxUser.class, null);
+        assertThat(sessionLessDataManager.getModelContext().getSqlSession()).isNull();
+
+        // 未指定会话但处于Spring事务中，不分区并行，回滚后数据不保留
+        transactionTemplate.executeWithoutResult(status -> {
+            sessionLessDataManager.execCommand(createBatchInsertCommand("t"));
+            assertThat(sessionLessDataManager.count()).isEqualTo(5);
+            status.setRollbackOnly();
+        });
+        assertThat(executedTasks.get()).isEqualTo(0);
+        assertThat(sessionLessDataManager.count()).isEqualTo(1);
+    }
+
+    private static BatchInsertCommand createBatchInsertCommand(String idPrefix) {
+        List<TxUser> users = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            TxUser user = new TxUser();
+            user.setId(idPrefix + i);
+            user.setName("用户" + i);
+            users.add(user);
+        }
+        BatchInsertCommand command = new BatchInsertCommand();
+        command.setData(users);
+        command.setDisableGenerateId(true);
+        command.setParallelism(2);
+        return command;
+    }
+}